@@ -0,0 +1,799 @@
+package myAdapter;
+
+
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Unsynchronized, array-backed implementation of the Vector of Java Micro Edition, CLDC1.1<br>
+ *
+ *
+ * The object {@link myAdapter.ArrayVector} exposes the same methods as {@link myAdapter.Vector}, but keeps the elements
+ * in a plain Object array instead of delegating to java.util.Vector, so no method takes a monitor.
+ * It is meant to be used by a single thread at a time: concurrent access must be synchronized externally.
+ * <p>
+ * Every access to the storage goes through a few package-private primitives (load, store, move, copyOut, copyIn,
+ * copyFrom, reserve, truncate), so that {@link myAdapter.SegmentedVector} can keep the same logic over a different
+ * storage.
+ *
+ *
+ *
+ */
+public class ArrayVector {
+
+    /**
+     * The array buffer into which the components of the vector are stored.
+     * Every slot at index elementCount or above is null.
+     */
+    Object[] elementData;
+
+    /**
+     * The number of valid components in this vector.
+     */
+    int elementCount;
+
+    /**
+     * The amount by which the capacity of the vector is increased when it overflows.
+     * If it is less than or equal to zero, the capacity is doubled.
+     */
+    int capacityIncrement;
+
+    /**
+     * Optional capacity policy; when it is null the vector grows by capacityIncrement and never shrinks,
+     * as java.util.Vector does.
+     */
+    private CapacityPolicy policy;
+
+    /**
+     * Optional value-to-positions index used by the search methods, null when indexed mode is off.
+     * It is kept in sync in O(1) by changes at the end of the vector and by setElementAt; any other change
+     * marks it stale, and it is rebuilt by the next search.
+     */
+    private PositionIndex index;
+
+    /**
+     * Maximum number of components the index may hold. Above it the index is dropped and searches scan the array.
+     */
+    private int indexLimit;
+
+    /**
+     * True if the index no longer matches the vector and must be rebuilt before it is used.
+     */
+    private boolean indexStale;
+
+    /**
+     * Size at or below which a stale index is rebuilt: indexLimit after an ordinary change, half of it after the
+     * vector has outgrown the limit, so that a vector hovering around the limit does not rebuild on every search.
+     */
+    private int rebuildLimit;
+
+    /**
+     * True if the hash of the vector is cached: changes at the end of the vector and setElementAt update cachedHash
+     * in place, any other change invalidates it until the next hashCode.
+     */
+    private boolean hashCached;
+
+    /**
+     * True if cachedHash matches the components. It is always false when the hash is not cached.
+     */
+    private boolean hashValid;
+
+    /**
+     * The hash of the components, computed as java.util.List.hashCode does, while hashValid is true.
+     */
+    private int cachedHash;
+
+    /**
+     * Multiplicative inverse of 31 modulo 2^32, used to take the last component out of the hash.
+     */
+    private static final int INVERSE_31 = 0xBDEF7BDF;
+
+    /**
+     * Operation counters of the StackAdapter using this vector, null when metrics are off.
+     */
+    StackMetrics metrics;
+
+    /**
+     * Number of leading components that have not been written since the last markUnchanged. Removals at the end do
+     * not lower it: unchangedPrefix() clamps it to elementCount.
+     */
+    private int unchangedPrefix;
+
+    public ArrayVector() {
+        this(10);
+    }
+
+    public ArrayVector(int initialCapacity) {
+        this(initialCapacity, 0);
+    }
+
+    public ArrayVector(int initialCapacity, int capacityIncrement) {
+        if (initialCapacity < 0) throw new IllegalArgumentException();
+        elementData = new Object[initialCapacity];
+        this.capacityIncrement = capacityIncrement;
+    }
+
+    public void addElement(Object obj){
+        if (elementCount == capacity()) reserve(elementCount + 1);
+        if (elementCount < unchangedPrefix) unchangedPrefix = elementCount;
+        store(elementCount++, obj);
+        if (index != null) indexAppended(obj);
+        if (metrics != null) metrics.depth(elementCount);
+        if (hashValid) hashAppended(obj);
+    }
+
+    public int capacity(){
+        return elementData.length;
+    }
+
+    public boolean contains(Object elem){
+        return indexOf(elem, 0) >= 0;
+    }
+
+    public void copyInto(Object[] anArray){
+        copyOut(0, anArray, 0, elementCount);
+    }
+
+    /**
+     * Copies the n components starting at position from into dst, starting at dst[off].
+     */
+    void copyInto(int from, Object[] dst, int off, int n){
+        if (from < 0 || n < 0 || from > elementCount - n) throw new ArrayIndexOutOfBoundsException();
+        copyOut(from, dst, off, n);
+    }
+
+    public Object elementAt(int index){
+        if (index >= elementCount) throw new ArrayIndexOutOfBoundsException(index + " >= " + elementCount);
+        return load(index);
+    }
+
+    public Enumeration<Object> elements(){
+        return new Enumeration<Object>() {
+            int count = 0;
+
+            public boolean hasMoreElements() {
+                return count < elementCount;
+            }
+
+            public Object nextElement() {
+                if (count >= elementCount) throw new NoSuchElementException();
+                return load(count++);
+            }
+        };
+    }
+
+    public void ensureCapacity(int minCapacity){
+        if (minCapacity > capacity()) reserve(minCapacity);
+    }
+
+    public Object firstElement(){
+        if (elementCount == 0) throw new NoSuchElementException();
+        return load(0);
+    }
+
+    public int indexOf(Object elem){
+        return indexOf(elem, 0);
+    }
+
+    public int indexOf(Object elem, int index){
+        return indexOf(elem, index, elementCount);
+    }
+
+    /**
+     * Returns the first position of elem in [from, to), or -1; uses the index when it is available.
+     */
+    int indexOf(Object elem, int from, int to){
+        if (from < 0) from = 0;
+        if (to > elementCount) to = elementCount;
+        if (from >= to) return -1;
+        if (indexReady()) return index.first(elem, from, to);
+        if (elem == null) {
+            for (int i = from; i < to; i++)
+                if (load(i) == null) return i;
+        } else {
+            for (int i = from; i < to; i++)
+                if (elem.equals(load(i))) return i;
+        }
+        return -1;
+    }
+
+    public void insertElementAt(Object obj, int index){
+        if (index > elementCount) throw new ArrayIndexOutOfBoundsException(index + " > " + elementCount);
+        if (elementCount == capacity()) reserve(elementCount + 1);
+        if (index < unchangedPrefix) unchangedPrefix = index;
+        boolean atEnd = index == elementCount;
+        int moved = elementCount - index;
+        if (moved >= StackEvents.shiftThreshold) {
+            StackShiftEvent event = new StackShiftEvent();
+            event.begin();
+            move(index, index + 1, moved);
+            event.record(this, index, moved);
+        } else {
+            move(index, index + 1, moved);
+        }
+        store(index, obj);
+        elementCount++;
+        if (metrics != null) {
+            metrics.shifted(elementCount - 1 - index);
+            metrics.depth(elementCount);
+        }
+        if (this.index != null) {
+            if (atEnd) indexAppended(obj);
+            else markIndexStale();
+        }
+        if (hashValid) {
+            if (atEnd) hashAppended(obj);
+            else hashValid = false;
+        }
+    }
+
+    /**
+     * Inserts all the elements of src at position index, growing the array at most once and shifting the
+     * components from index onward a single time.
+     */
+    void insertElementsAt(Object[] src, int index){
+        insertElementsAt(src, 0, src.length, index);
+    }
+
+    /**
+     * Inserts the components of src in [from, from + n) at position index, with the same single shift.
+     */
+    void insertElementsAt(ArrayVector src, int from, int n, int index){
+        if (from < 0 || n < 0 || from > src.elementCount - n) throw new ArrayIndexOutOfBoundsException();
+        if (src == this) throw new IllegalArgumentException();
+        if (!openGap(index, n)) return;
+        copyFrom(src, from, index, n);
+        gapFilled(index, n);
+    }
+
+    /**
+     * Inserts the elements src[off], ..., src[off + n - 1] at position index, with the same single shift.
+     */
+    void insertElementsAt(Object[] src, int off, int n, int index){
+        if (off < 0 || n < 0 || off > src.length - n) throw new ArrayIndexOutOfBoundsException();
+        if (!openGap(index, n)) return;
+        copyIn(src, off, index, n);
+        gapFilled(index, n);
+    }
+
+    /**
+     * Reserves room for n more components and shifts the components from index onward by n positions.
+     * @return false if there is nothing to insert.
+     */
+    private boolean openGap(int index, int n){
+        if (index > elementCount) throw new ArrayIndexOutOfBoundsException(index + " > " + elementCount);
+        if (index < 0) throw new ArrayIndexOutOfBoundsException(index);
+        if (n == 0) return false;
+        if (elementCount + n > capacity()) reserve(elementCount + n);
+        if (index < unchangedPrefix) unchangedPrefix = index;
+        move(index, index + n, elementCount - index);
+        if (metrics != null) metrics.shifted(elementCount - index);
+        return true;
+    }
+
+    /**
+     * Completes an insertion of n components at position index once the gap has been filled.
+     */
+    private void gapFilled(int index, int n){
+        boolean atEnd = index == elementCount;
+        elementCount += n;
+        if (metrics != null) metrics.depth(elementCount);
+        if (this.index != null && !indexStale) {
+            if (!atEnd) markIndexStale();
+            else if (elementCount > indexLimit) dropIndex();
+            else for (int i = index; i < elementCount; i++)
+                this.index.add(load(i), i);
+        }
+        if (hashValid) {
+            if (!atEnd) hashValid = false;
+            else for (int i = index; i < elementCount; i++)
+                hashAppended(load(i));
+        }
+    }
+
+    public boolean isEmpty(){
+        return elementCount == 0;
+    }
+
+    public Object lastElement(){
+        if (elementCount == 0) throw new NoSuchElementException();
+        return load(elementCount - 1);
+    }
+
+    public int lastIndexOf(Object elem){
+        return lastIndexOf(elem, elementCount - 1);
+    }
+
+    public int lastIndexOf(Object elem, int index){
+        if (index >= elementCount) throw new IndexOutOfBoundsException(index + " >= " + elementCount);
+        return lastIndexOf(elem, 0, index + 1);
+    }
+
+    /**
+     * Returns the last position of elem in [from, to), or -1; uses the index when it is available.
+     */
+    int lastIndexOf(Object elem, int from, int to){
+        if (from < 0) from = 0;
+        if (to > elementCount) to = elementCount;
+        if (from >= to) return -1;
+        if (indexReady()) return index.last(elem, from, to);
+        if (elem == null) {
+            for (int i = to - 1; i >= from; i--)
+                if (load(i) == null) return i;
+        } else {
+            for (int i = to - 1; i >= from; i--)
+                if (elem.equals(load(i))) return i;
+        }
+        return -1;
+    }
+
+    public void removeAllElements(){
+        truncate(0);
+        unchangedPrefix = 0;
+        if (index != null) {
+            index.clear();
+            indexStale = false;
+        }
+        if (hashCached) {
+            cachedHash = 1;
+            hashValid = true;
+        }
+    }
+
+    public boolean removeElement(Object obj){
+        int i = indexOf(obj, 0);
+        if (i < 0) return false;
+        removeElementAt(i);
+        return true;
+    }
+
+    public void removeElementAt(int index){
+        if (index >= elementCount) throw new ArrayIndexOutOfBoundsException(index + " >= " + elementCount);
+        if (index < 0) throw new ArrayIndexOutOfBoundsException(index);
+        if (index < unchangedPrefix) unchangedPrefix = index;
+        int moved = elementCount - index - 1;
+        Object removed = load(index);
+        if (moved >= StackEvents.shiftThreshold) {
+            StackShiftEvent event = new StackShiftEvent();
+            event.begin();
+            move(index + 1, index, moved);
+            event.record(this, index, moved);
+        } else if (moved > 0) {
+            move(index + 1, index, moved);
+        }
+        if (metrics != null) metrics.shifted(moved);
+        truncate(elementCount - 1);
+        if (this.index != null && !indexStale) {
+            if (moved == 0) this.index.remove(removed, index);
+            else markIndexStale();
+        }
+        if (hashValid) {
+            if (moved == 0) hashRemovedLast(removed);
+            else hashValid = false;
+        }
+    }
+
+    /**
+     * Removes the components in [from, to), shifting the following components down once.
+     */
+    void removeRange(int from, int to){
+        if (from < 0 || to > elementCount || from > to) throw new ArrayIndexOutOfBoundsException();
+        int n = to - from;
+        if (n == 0) return;
+        if (from < unchangedPrefix) unchangedPrefix = from;
+        boolean atEnd = to == elementCount;
+        if (index != null && !indexStale) {
+            if (atEnd) {
+                for (int i = from; i < to; i++)
+                    index.remove(load(i), i);
+            } else {
+                markIndexStale();
+            }
+        }
+        if (hashValid) {
+            if (atEnd) {
+                for (int i = to - 1; i >= from; i--)
+                    hashRemovedLast(load(i));
+            } else {
+                hashValid = false;
+            }
+        }
+        move(to, from, elementCount - to);
+        if (metrics != null) metrics.shifted(elementCount - to);
+        truncate(elementCount - n);
+    }
+
+    /**
+     * Removes in a single pass the components in [from, to) whose membership in the given set differs from
+     * keepMembers, moving the survivors and the components after to down to close the gaps.
+     * @return the number of components removed.
+     */
+    int compact(int from, int to, PositionIndex set, boolean keepMembers){
+        if (to > elementCount) to = elementCount;
+        if (from < unchangedPrefix) unchangedPrefix = from;
+        int write = from;
+        for (int read = from; read < to; read++) {
+            Object e = load(read);
+            if (set.containsKey(e) == keepMembers) store(write++, e);
+        }
+        int removed = to - write;
+        if (removed == 0) return 0;
+        move(to, write, elementCount - to);
+        if (metrics != null) metrics.shifted(elementCount - to);
+        truncate(elementCount - removed);
+        if (index != null) markIndexStale();
+        hashValid = false;
+        return removed;
+    }
+
+    /**
+     * Removes in a single pass the components in [from, to) whose bit is set in marks, bit i - from standing for
+     * position i, moving the survivors and the components after to down to close the gaps.
+     * @return the number of components removed.
+     */
+    int compact(int from, int to, long[] marks){
+        if (to > elementCount) to = elementCount;
+        if (from < unchangedPrefix) unchangedPrefix = from;
+        int write = from;
+        for (int read = from; read < to; read++) {
+            int bit = read - from;
+            if ((marks[bit >>> 6] & (1L << bit)) == 0) {
+                if (write != read) store(write, load(read));
+                write++;
+            }
+        }
+        int removed = to - write;
+        if (removed == 0) return 0;
+        move(to, write, elementCount - to);
+        if (metrics != null) metrics.shifted(elementCount - to);
+        truncate(elementCount - removed);
+        if (index != null) markIndexStale();
+        hashValid = false;
+        return removed;
+    }
+
+    /**
+     * Replaces every component in [from, to) with the result of op. The index is not updated: the caller must call
+     * componentsReplaced(from) once all the ranges are done. Disjoint ranges may be replaced by different threads at the
+     * same time.
+     */
+    void replaceRange(int from, int to, UnaryOperator<Object> op){
+        for (int i = from; i < to; i++)
+            store(i, op.apply(load(i)));
+    }
+
+    /**
+     * Marks the index stale after replaceRange calls, the first of which started at position from.
+     */
+    void componentsReplaced(int from){
+        if (from < unchangedPrefix) unchangedPrefix = from;
+        if (index != null) markIndexStale();
+        hashValid = false;
+    }
+
+    public void setElementAt(Object obj, int index){
+        if (index >= elementCount) throw new ArrayIndexOutOfBoundsException(index + " >= " + elementCount);
+        Object old = load(index);
+        store(index, obj);
+        if (index < unchangedPrefix) unchangedPrefix = index;
+        if (this.index != null && !indexStale) {
+            this.index.remove(old, index);
+            this.index.add(obj, index);
+        }
+        if (hashValid) cachedHash += (hash(obj) - hash(old)) * pow31(elementCount - 1 - index);
+    }
+
+    public void setSize(int newSize){
+        if (newSize > capacity()) reserve(newSize);
+        if (elementCount < unchangedPrefix) unchangedPrefix = elementCount;
+        if (newSize < elementCount) truncate(newSize);
+        else elementCount = newSize;
+        if (metrics != null) metrics.depth(elementCount);
+        if (index != null) markIndexStale();
+        hashValid = false;
+    }
+
+    public int size(){
+        return elementCount;
+    }
+
+    public String toString(){
+        StringBuffer buf = new StringBuffer("[");
+        for (int i = 0; i < elementCount; i++) {
+            if (i > 0) buf.append(", ");
+            buf.append(String.valueOf(load(i)));
+        }
+        return buf.append("]").toString();
+    }
+
+    public void trimToSize(){
+        if (elementCount < elementData.length) resize(elementCount);
+    }
+
+    /**
+     * Sets the policy used to grow and shrink the array. With a policy the capacity is multiplied by its growth factor
+     * when the array is full, capacityIncrement is ignored, and the array is reallocated to a smaller one when the
+     * vector shrinks below the shrink fraction of the capacity. With null the vector goes back to the policy of
+     * java.util.Vector. {@link myAdapter.SegmentedVector} ignores the policy, since it releases its chunks by itself.
+     * @param policy the capacity policy, or null.
+     */
+    public void setCapacityPolicy(CapacityPolicy policy){
+        this.policy = policy;
+        if (policy != null) shrinkIfSparse();
+    }
+
+    /**
+     * @return the capacity policy of the vector, or null if it follows the policy of java.util.Vector.
+     */
+    public CapacityPolicy getCapacityPolicy(){
+        return policy;
+    }
+
+    /**
+     * Turns on indexed mode: indexOf, lastIndexOf and contains find a value in O(1) expected time instead of scanning
+     * the array, at the cost of a hash lookup on every change. The index covers at most maxEntries components; while
+     * the vector is larger the searches fall back to scanning. Components must not change their equals or hashCode
+     * while they are in the vector.
+     * @param maxEntries maximum number of components kept in the index.
+     * @throws IllegalArgumentException if maxEntries is negative.
+     */
+    public void enableIndex(int maxEntries){
+        if (maxEntries < 0) throw new IllegalArgumentException();
+        index = new PositionIndex();
+        indexLimit = maxEntries;
+        indexStale = false;
+        markIndexStale();
+    }
+
+    /**
+     * Turns off indexed mode and releases the index.
+     */
+    public void disableIndex(){
+        index = null;
+    }
+
+    /**
+     * @return true if indexed mode is on, even if the vector is currently too large for the index to be used.
+     */
+    public boolean isIndexed(){
+        return index != null;
+    }
+
+    /**
+     * Turns on hash caching: hashCode returns a cached value, which additions and removals at the end of the vector
+     * update in O(1) and setElementAt in O(log n). Any other change invalidates the cached value, and the next
+     * hashCode computes it again. Components must not change their hashCode while they are in the vector.
+     */
+    public void enableHashCache(){
+        hashCached = true;
+    }
+
+    /**
+     * Turns off hash caching: hashCode goes back to computing the hash of every component.
+     */
+    public void disableHashCache(){
+        hashCached = false;
+        hashValid = false;
+    }
+
+    /**
+     * @return true if the hash of the vector is cached.
+     */
+    public boolean isHashCached(){
+        return hashCached;
+    }
+
+    /**
+     * @return the number of leading components that have not been written since the last markUnchanged.
+     */
+    int unchangedPrefix(){
+        return Math.min(unchangedPrefix, elementCount);
+    }
+
+    /**
+     * Records that all the current components are unchanged from now on.
+     */
+    void markUnchanged(){
+        unchangedPrefix = elementCount;
+    }
+
+    private void hashAppended(Object obj) {
+        cachedHash = 31 * cachedHash + hash(obj);
+    }
+
+    private void hashRemovedLast(Object obj) {
+        cachedHash = (cachedHash - hash(obj)) * INVERSE_31;
+    }
+
+    private static int hash(Object obj) {
+        return obj == null ? 0 : obj.hashCode();
+    }
+
+    /**
+     * @return 31 to the power e, modulo 2^32.
+     */
+    private static int pow31(int e) {
+        int result = 1;
+        int base = 31;
+        while (e > 0) {
+            if ((e & 1) != 0) result *= base;
+            base *= base;
+            e >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Records in the index the component just appended at position elementCount - 1.
+     */
+    private void indexAppended(Object obj) {
+        if (indexStale) return;
+        if (elementCount > indexLimit) dropIndex();
+        else index.add(obj, elementCount - 1);
+    }
+
+    /**
+     * Frees the index of a vector that has outgrown indexLimit.
+     */
+    private void dropIndex() {
+        index.clear();
+        indexStale = true;
+        rebuildLimit = indexLimit / 2;
+    }
+
+    private void markIndexStale() {
+        if (indexStale) return;
+        index.clear();
+        indexStale = true;
+        rebuildLimit = indexLimit;
+    }
+
+    /**
+     * @return true if the index can answer searches, rebuilding it first if it is stale and the vector is small enough.
+     */
+    private boolean indexReady() {
+        if (index == null) return false;
+        if (!indexStale) return true;
+        if (elementCount > rebuildLimit) return false;
+        for (int i = 0; i < elementCount; i++)
+            index.add(load(i), i);
+        indexStale = false;
+        return true;
+    }
+
+    // Storage primitives
+
+    /**
+     * Returns the component at position i, without bounds checks.
+     */
+    Object load(int i) {
+        return elementData[i];
+    }
+
+    /**
+     * Sets the component at position i, without bounds checks.
+     */
+    void store(int i, Object obj) {
+        elementData[i] = obj;
+    }
+
+    /**
+     * Moves the n components starting at from to the positions starting at to; the two ranges may overlap.
+     */
+    void move(int from, int to, int n) {
+        if (n > 0) System.arraycopy(elementData, from, elementData, to, n);
+    }
+
+    /**
+     * Copies the n components starting at position from into dst[off], ..., dst[off + n - 1].
+     */
+    void copyOut(int from, Object[] dst, int off, int n) {
+        System.arraycopy(elementData, from, dst, off, n);
+    }
+
+    /**
+     * Copies src[off], ..., src[off + n - 1] into the positions starting at to.
+     */
+    void copyIn(Object[] src, int off, int to, int n) {
+        System.arraycopy(src, off, elementData, to, n);
+    }
+
+    /**
+     * Copies the n components of src starting at position from into the positions of this vector starting at to.
+     */
+    void copyFrom(ArrayVector src, int from, int to, int n) {
+        src.copyOut(from, elementData, to, n);
+    }
+
+    /**
+     * Makes room for at least minCapacity components.
+     */
+    void reserve(int minCapacity) {
+        if (minCapacity > elementData.length) grow(minCapacity);
+    }
+
+    /**
+     * Shrinks the vector to newCount components, clearing the slots that are no longer used.
+     */
+    void truncate(int newCount) {
+        for (int i = newCount; i < elementCount; i++)
+            elementData[i] = null;
+        elementCount = newCount;
+        if (policy != null) shrinkIfSparse();
+    }
+
+    /**
+     * Increases the capacity of the vector so that it can hold at least minCapacity components,
+     * following the capacity policy, or the same policy of java.util.Vector if there is none.
+     */
+    private void grow(int minCapacity) {
+        int oldCapacity = elementData.length;
+        int newCapacity;
+        if (policy != null) {
+            newCapacity = policy.grownCapacity(oldCapacity, minCapacity);
+        } else {
+            newCapacity = (capacityIncrement > 0) ? oldCapacity + capacityIncrement : oldCapacity * 2;
+            if (newCapacity < minCapacity) newCapacity = minCapacity;
+        }
+        resize(newCapacity);
+        if (metrics != null) metrics.grown();
+    }
+
+    /**
+     * Reallocates the array to the smaller capacity chosen by the policy, if the vector has become sparse enough.
+     */
+    private void shrinkIfSparse() {
+        int newCapacity = policy.shrunkCapacity(elementData.length, elementCount);
+        if (newCapacity < elementData.length) resize(newCapacity);
+    }
+
+    /**
+     * Moves the components to a new array of the given capacity, which is at least elementCount.
+     */
+    private void resize(int newCapacity) {
+        StackResizeEvent event = new StackResizeEvent();
+        event.begin();
+        int oldCapacity = elementData.length;
+        Object[] newData = new Object[newCapacity];
+        System.arraycopy(elementData, 0, newData, 0, elementCount);
+        elementData = newData;
+        event.record(this, oldCapacity, newCapacity);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ArrayVector)) return false;
+        ArrayVector other = (ArrayVector) o;
+        if (other.elementCount != elementCount) return false;
+        if (hashValid && other.hashValid && cachedHash != other.cachedHash) return false;
+        for (int i = 0; i < elementCount; i++) {
+            Object a = load(i);
+            Object b = other.load(i);
+            if (a == null ? b != null : !a.equals(b)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        if (hashValid) return cachedHash;
+        int hash = hashCode(0, elementCount);
+        if (hashCached) {
+            cachedHash = hash;
+            hashValid = true;
+        }
+        return hash;
+    }
+
+    /**
+     * @return the hash of the components in [from, to), computed as java.util.List.hashCode does.
+     */
+    int hashCode(int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++)
+            hash = 31 * hash + hash(load(i));
+        return hash;
+    }
+}
@@ -0,0 +1,633 @@
+package myAdapter;
+
+import java.util.EmptyStackException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stack thread-safe di capacità limitata, pensato come punto di scambio LIFO tra thread produttori e consumatori.
+ * Implementa l'interfaccia HCollection, i metodi di stack di StackAdapter (push, pop, peek, search, empty) e le
+ * operazioni bloccanti di java.util.concurrent.BlockingQueue: put e take attendono rispettivamente che si liberi un
+ * posto o che arrivi un elemento, offer e poll attendono al più il tempo indicato, drainTo trasferisce gli elementi in
+ * un'altra collezione.
+ * <p>
+ * Gli elementi sono memorizzati in uno StackAdapter protetto da un ReentrantLock, e le attese usano le due Condition
+ * notEmpty e notFull del lock. Un thread virtuale che attende su una Condition o sul lock viene sospeso senza occupare
+ * il proprio carrier thread, cosa che non avviene con synchronized e wait/notify nelle versioni di Java che bloccano
+ * (pinning) il thread virtuale dentro un blocco synchronized; lo stack può quindi essere usato da migliaia di thread
+ * virtuali senza ridurre il parallelismo.
+ * <p>
+ * Come in BlockingQueue, null non è ammesso come elemento: poll lo restituisce per indicare che lo stack è vuoto.
+ * I metodi di HCollection che aggiungono elementi (add, addAll, push) non attendono e lanciano IllegalStateException se
+ * lo stack è pieno. Gli iteratori percorrono, dal fondo alla cima, una copia dello stack presa alla loro creazione e
+ * non supportano remove.
+ *
+ * @see StackAdapter
+ * @see java.util.concurrent.BlockingQueue
+ */
+
+public class BlockingStackAdapter implements HCollection {
+
+	/**
+	 * Elementi dello stack, acceduti solo con il lock acquisito.
+	 */
+	private final StackAdapter items = new StackAdapter();
+
+	/**
+	 * Numero massimo di elementi nello stack.
+	 */
+	private final int capacity;
+
+	/**
+	 * Lock che protegge items.
+	 */
+	private final ReentrantLock lock;
+
+	/**
+	 * Condizione su cui attendono take e poll quando lo stack è vuoto.
+	 */
+	private final Condition notEmpty;
+
+	/**
+	 * Condizione su cui attendono put e offer quando lo stack è pieno.
+	 */
+	private final Condition notFull;
+
+	/**
+	 * Costruttore: crea uno stack vuoto di capacità illimitata (Integer.MAX_VALUE).
+	 */
+	public BlockingStackAdapter() {
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Costruttore: crea uno stack vuoto con la capacità indicata.
+	 * @param capacity numero massimo di elementi nello stack.
+	 * @throws IllegalArgumentException se capacity non è positiva.
+	 */
+	public BlockingStackAdapter(int capacity) {
+		this(capacity, false);
+	}
+
+	/**
+	 * Costruttore: crea uno stack vuoto con la capacità indicata.
+	 * @param capacity numero massimo di elementi nello stack.
+	 * @param fair se true, i thread in attesa del lock lo ottengono in ordine di arrivo; riduce il throughput ma evita
+	 *             che un thread attenda indefinitamente.
+	 * @throws IllegalArgumentException se capacity non è positiva.
+	 */
+	public BlockingStackAdapter(int capacity, boolean fair) {
+		if (capacity <= 0) throw new IllegalArgumentException();
+		this.capacity = capacity;
+		lock = new ReentrantLock(fair);
+		notEmpty = lock.newCondition();
+		notFull = lock.newCondition();
+	}
+
+	// Blocking Operations
+
+	/**
+	 * Inserisce l'elemento in cima allo stack, attendendo che si liberi un posto se lo stack è pieno.
+	 * @param obj elemento da inserire.
+	 * @throws NullPointerException se obj è null.
+	 * @throws InterruptedException se il thread viene interrotto durante l'attesa.
+	 */
+	public void put(Object obj) throws InterruptedException {
+		if (obj == null) throw new NullPointerException();
+		lock.lockInterruptibly();
+		try {
+			while (items.size() == capacity)
+				notFull.await();
+			insert(obj);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Rimuove l'elemento in cima allo stack e lo restituisce, attendendo che ne arrivi uno se lo stack è vuoto.
+	 * @throws InterruptedException se il thread viene interrotto durante l'attesa.
+	 * @return l'elemento rimosso.
+	 */
+	public Object take() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (items.isEmpty())
+				notEmpty.await();
+			return extract();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Inserisce l'elemento in cima allo stack se c'è posto, senza attendere.
+	 * @param obj elemento da inserire.
+	 * @throws NullPointerException se obj è null.
+	 * @return true se l'elemento è stato inserito, false se lo stack è pieno.
+	 */
+	public boolean offer(Object obj) {
+		if (obj == null) throw new NullPointerException();
+		lock.lock();
+		try {
+			if (items.size() == capacity) return false;
+			insert(obj);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Inserisce l'elemento in cima allo stack, attendendo al più il tempo indicato che si liberi un posto.
+	 * @param obj elemento da inserire.
+	 * @param timeout tempo massimo di attesa.
+	 * @param unit unità di misura di timeout.
+	 * @throws NullPointerException se obj o unit sono null.
+	 * @throws InterruptedException se il thread viene interrotto durante l'attesa.
+	 * @return true se l'elemento è stato inserito, false se il tempo è scaduto.
+	 */
+	public boolean offer(Object obj, long timeout, TimeUnit unit) throws InterruptedException {
+		if (obj == null) throw new NullPointerException();
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (items.size() == capacity) {
+				if (nanos <= 0L) return false;
+				nanos = notFull.awaitNanos(nanos);
+			}
+			insert(obj);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Rimuove l'elemento in cima allo stack e lo restituisce, senza attendere.
+	 * @return l'elemento rimosso, oppure null se lo stack è vuoto.
+	 */
+	public Object poll() {
+		lock.lock();
+		try {
+			return items.isEmpty() ? null : extract();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Rimuove l'elemento in cima allo stack e lo restituisce, attendendo al più il tempo indicato che ne arrivi uno.
+	 * @param timeout tempo massimo di attesa.
+	 * @param unit unità di misura di timeout.
+	 * @throws NullPointerException se unit è null.
+	 * @throws InterruptedException se il thread viene interrotto durante l'attesa.
+	 * @return l'elemento rimosso, oppure null se il tempo è scaduto.
+	 */
+	public Object poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (items.isEmpty()) {
+				if (nanos <= 0L) return null;
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return extract();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return il numero di elementi che possono ancora essere inseriti senza attendere.
+	 */
+	public int remainingCapacity() {
+		lock.lock();
+		try {
+			return capacity - items.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Rimuove tutti gli elementi dello stack e li aggiunge alla collezione target, come drainTo(target, max) senza
+	 * limite.
+	 * @param target collezione in cui trasferire gli elementi.
+	 * @throws NullPointerException se target è null.
+	 * @throws IllegalArgumentException se target è questo stack.
+	 * @return il numero di elementi trasferiti.
+	 */
+	public int drainTo(HCollection target) {
+		return drainTo(target, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Rimuove dalla cima dello stack fino a max elementi e li aggiunge alla collezione target, mantenendo l'ordine che
+	 * hanno nello stack come StackAdapter.drainTo: la vecchia cima è l'ultimo elemento aggiunto. Come in
+	 * ArrayBlockingQueue.drainTo, gli elementi vengono aggiunti a target tenendo il lock e dallo stack vengono rimossi
+	 * solo quelli aggiunti con successo: se add di target lancia un'eccezione, gli altri restano nello stack e
+	 * l'eccezione viene propagata. Se target è uno StackAdapter gli elementi vengono inseriti in blocco. Poiché il lock
+	 * resta acquisito durante le add, target non deve attendere un thread che usa questo stack.
+	 * @param target collezione in cui trasferire gli elementi.
+	 * @param max numero massimo di elementi da trasferire.
+	 * @throws NullPointerException se target è null.
+	 * @throws IllegalArgumentException se target è questo stack.
+	 * @throws IndexOutOfBoundsException se max è negativo.
+	 * @return il numero di elementi trasferiti.
+	 */
+	public int drainTo(HCollection target, int max) {
+		if (target == null) throw new NullPointerException();
+		if (target == this) throw new IllegalArgumentException();
+		if (max < 0) throw new IndexOutOfBoundsException();
+		lock.lock();
+		int before = items.size();
+		try {
+			return items.drainTo(target, max);
+		} finally {
+			if (items.size() < before) notFull.signalAll();
+			lock.unlock();
+		}
+	}
+
+	// Query Operations
+
+	/**
+	 * @return il numero di elementi nello stack.
+	 */
+	public int size() {
+		lock.lock();
+		try {
+			return items.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Verifica se lo stack è vuoto.
+	 * @return true se è vuoto, false altrimenti.
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * @return la capacità dello stack indicata al costruttore.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Ricerca l'oggetto obj nello stack.
+	 * @param obj elemento che viene ricercato.
+	 * @return true se esso è nello stack, altrimenti false.
+	 */
+	public boolean contains(Object obj) {
+		if (obj == null) return false;
+		lock.lock();
+		try {
+			return items.indexOf(obj) >= 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Crea un iteratore che percorre, dal fondo alla cima, una copia dello stack presa in questo momento.
+	 * @return iteratore.
+	 */
+	public HIterator iterator() {
+		return new SnapshotIterator(toArray());
+	}
+
+	/**
+	 * Crea un array contenente gli elementi dello stack, dal fondo alla cima.
+	 * @return array di tipo Object.
+	 */
+	public Object[] toArray() {
+		lock.lock();
+		try {
+			return items.toArray();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Copia gli elementi dello stack, dal fondo alla cima, all'interno dell'array fornito come parametro.
+	 * Se esso non è sufficientemente grande, viene creato un nuovo array; se è più grande, le celle rimanenti vengono
+	 * riempite con null.
+	 * @param arrayTarget array in cui verranno copiati gli elementi.
+	 * @throws NullPointerException se l'argomento inserito non è valido.
+	 * @return l'array che contiene gli elementi.
+	 */
+	public Object[] toArray(Object arrayTarget[]) {
+		if (arrayTarget == null) throw new NullPointerException();
+		lock.lock();
+		try {
+			return items.toArray(arrayTarget);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Modification Operations
+
+	/**
+	 * Inserisce l'elemento in cima allo stack, come push(Object), senza attendere.
+	 * @param obj elemento da inserire.
+	 * @throws NullPointerException se obj è null.
+	 * @throws IllegalStateException se lo stack è pieno.
+	 * @return true ad azione compiuta.
+	 */
+	public boolean add(Object obj) {
+		if (!offer(obj)) throw new IllegalStateException("Stack full");
+		return true;
+	}
+
+	/**
+	 * Rimuove la prima occorrenza dell'elemento a partire dal fondo dello stack.
+	 * @param obj elemento da rimuovere.
+	 * @return true se l'elemento era presente, altrimenti false.
+	 */
+	public boolean remove(Object obj) {
+		if (obj == null) return false;
+		lock.lock();
+		try {
+			if (!items.remove(obj)) return false;
+			notFull.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Bulk Operations
+
+	/**
+	 * Verifica che tutti gli elementi della collezione specificata siano presenti nello stack.
+	 * @param coll collezione di elementi che vengono cercati.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se tutti gli elementi sono presenti, altrimenti false.
+	 */
+	public boolean containsAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		Object[] array = coll.toArray();
+		lock.lock();
+		try {
+			for (int i = 0; i < array.length; i++) {
+				if (array[i] == null || items.indexOf(array[i]) < 0) return false;
+			}
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Inserisce in cima allo stack tutti gli elementi della collezione specificata, nell'ordine di toArray, senza
+	 * attendere. Gli elementi vengono inseriti tutti insieme oppure nessuno.
+	 * @param coll collezione i cui elementi verranno inseriti.
+	 * @throws NullPointerException se coll è null o contiene null.
+	 * @throws IllegalArgumentException se coll è questo stack.
+	 * @throws IllegalStateException se nello stack non c'è posto per tutti gli elementi.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean addAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		if (coll == this) throw new IllegalArgumentException();
+		Object[] array = coll.toArray();
+		for (int i = 0; i < array.length; i++) {
+			if (array[i] == null) throw new NullPointerException();
+		}
+		if (array.length == 0) return false;
+		lock.lock();
+		try {
+			if (array.length > capacity - items.size()) throw new IllegalStateException("Stack full");
+			items.pushAll(array, 0, array.length);
+			notEmpty.signalAll();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Elimina dallo stack tutti gli elementi contenuti nella collezione specificata.
+	 * @param coll collezione i cui elementi verranno rimossi.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean removeAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		lock.lock();
+		try {
+			if (!items.removeAll(coll)) return false;
+			notFull.signalAll();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Rimuove dallo stack tutti gli elementi che non sono presenti nella collezione specificata.
+	 * @param coll collezione di elementi che non verranno rimossi.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean retainAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		lock.lock();
+		try {
+			if (!items.retainAll(coll)) return false;
+			notFull.signalAll();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Elimina atomicamente tutti gli elementi dello stack e risveglia i thread in attesa di un posto libero.
+	 */
+	public void clear() {
+		lock.lock();
+		try {
+			items.clear();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Comparison and hashing
+
+	/**
+	 * Due BlockingStackAdapter sono uguali se contengono gli stessi elementi nello stesso ordine; la capacità non
+	 * viene confrontata. I due stack vengono copiati uno alla volta, senza acquisire insieme i due lock.
+	 * @param obj oggetto che viene comparato.
+	 * @return true se e solo se i due oggetti sono equivalenti, altrimenti false.
+	 */
+	public boolean equals(Object obj) {
+		if (obj == this) return true;
+		if (obj == null || obj.getClass() != getClass()) return false;
+		Object[] a = toArray();
+		Object[] b = ((BlockingStackAdapter) obj).toArray();
+		if (a.length != b.length) return false;
+		for (int i = 0; i < a.length; i++) {
+			if (!a[i].equals(b[i])) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Ritorna l'hashcode dello stack, calcolato come quello di uno StackAdapter con gli stessi elementi.
+	 * @return l'hashcode corrispondente allo stack.
+	 */
+	public int hashCode() {
+		lock.lock();
+		try {
+			return items.hashCode();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Ritorna gli elementi dello stack, dal fondo alla cima, nella forma [e1, e2, ...].
+	 * @return la rappresentazione testuale dello stack.
+	 */
+	public String toString() {
+		lock.lock();
+		try {
+			return items.toString();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	//stack methods
+
+	/**
+	 * Verifica che lo stack sia vuoto.
+	 * @return true se esso non contiene elementi, altrimenti ritorna false.
+	 */
+	public boolean empty() {
+		return isEmpty();
+	}
+
+	/**
+	 * Legge l'oggetto sulla cima dello stack, senza rimuoverlo e senza attendere.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto in cima allo stack.
+	 */
+	public Object peek() {
+		lock.lock();
+		try {
+			return items.peek();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Rimuove l'oggetto in cima allo stack e lo restituisce, senza attendere.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto in cima allo stack che è stato rimosso.
+	 */
+	public Object pop() {
+		lock.lock();
+		try {
+			if (items.isEmpty()) throw new EmptyStackException();
+			return extract();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Inserisce un elemento in cima allo stack, senza attendere.
+	 * @param item oggetto da inserire.
+	 * @throws NullPointerException se item è null.
+	 * @throws IllegalStateException se lo stack è pieno.
+	 * @return l'argomento della funzione, ovvero l'oggetto aggiunto in cima allo stack.
+	 */
+	public Object push(Object item) {
+		add(item);
+		return item;
+	}
+
+	/**
+	 * Cerca l'oggetto nello stack e restituisce la distanza dalla cima della occorrenza più vicina ad essa.
+	 * Se l'oggetto si trova in cima allo stack, la distanza risulta uno.
+	 * @param o l'oggetto desiderato.
+	 * @return la posizione (1-based) dalla cima dello stack, se l'oggetto non viene trovato ritorna -1.
+	 */
+	public int search(Object o) {
+		if (o == null) return -1;
+		lock.lock();
+		try {
+			return items.search(o);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Inserisce obj in cima e risveglia un thread in attesa di un elemento. Va chiamato con il lock acquisito e con
+	 * almeno un posto libero.
+	 */
+	private void insert(Object obj) {
+		items.push(obj);
+		notEmpty.signal();
+	}
+
+	/**
+	 * Rimuove la cima e risveglia un thread in attesa di un posto libero. Va chiamato con il lock acquisito e con lo
+	 * stack non vuoto.
+	 */
+	private Object extract() {
+		Object obj = items.pop();
+		notFull.signal();
+		return obj;
+	}
+
+	/**
+	 * Private class dell'iteratore: percorre una copia dello stack, dal fondo alla cima, in sola lettura.
+	 */
+	private static class SnapshotIterator implements HIterator {
+
+		private final Object[] snapshot;
+
+		/**
+		 * Indice dell'elemento che verrà restituito dalla prossima chiamata a next().
+		 */
+		private int cursor;
+
+		SnapshotIterator(Object[] snapshot) {
+			this.snapshot = snapshot;
+		}
+
+		public boolean hasNext() {
+			return cursor < snapshot.length;
+		}
+
+		public Object next() {
+			if (cursor >= snapshot.length) throw new NoSuchElementException();
+			return snapshot[cursor++];
+		}
+
+		/**
+		 * Operazione non supportata.
+		 * @throws UnsupportedOperationException sempre.
+		 */
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package myAdapter;
+
+/**
+ * Politica di gestione della capacità dell'array che contiene gli elementi di uno StackAdapter.
+ * <p>
+ * Quando l'array è pieno la capacità viene moltiplicata per growthFactor. Quando il numero di elementi scende sotto
+ * shrinkFraction volte la capacità, l'array viene ridotto a growthFactor volte il numero di elementi, senza scendere
+ * sotto minCapacity. Poiché shrinkFraction * growthFactor deve essere minore di 1, dopo una riduzione lo stack deve
+ * crescere di un fattore growthFactor prima di una nuova crescita, oppure ridursi ancora di un fattore
+ * shrinkFraction * growthFactor prima di una nuova riduzione: le sequenze di push e pop vicine a una soglia non causano
+ * crescite e riduzioni ripetute, e il costo delle copie resta costante in media per operazione.
+ * <p>
+ * Con shrinkFraction uguale a 0 l'array non viene mai ridotto, come avviene per un Vector.
+ * Gli oggetti di questa classe sono immutabili.
+ */
+public final class CapacityPolicy {
+
+	/**
+	 * Politica predefinita: la capacità raddoppia quando l'array è pieno e si dimezza (almeno) quando l'array è
+	 * occupato per meno di un quarto; la capacità minima è 10, come per un Vector.
+	 */
+	public static final CapacityPolicy DEFAULT = new CapacityPolicy(2.0, 10, 0.25);
+
+	/**
+	 * Politica di un Vector: la capacità raddoppia e non viene mai ridotta.
+	 */
+	public static final CapacityPolicy NEVER_SHRINK = new CapacityPolicy(2.0, 10, 0);
+
+	private final double growthFactor;
+	private final int minCapacity;
+	private final double shrinkFraction;
+
+	/**
+	 * Crea una politica di gestione della capacità.
+	 * @param growthFactor fattore di crescita della capacità, maggiore di 1.
+	 * @param minCapacity capacità sotto la quale l'array non viene ridotto.
+	 * @param shrinkFraction frazione della capacità sotto la quale l'array viene ridotto; 0 per non ridurlo mai.
+	 * @throws IllegalArgumentException se growthFactor non è maggiore di 1, se minCapacity è negativa, se
+	 *                                  shrinkFraction è negativa o se shrinkFraction * growthFactor non è minore di 1.
+	 */
+	public CapacityPolicy(double growthFactor, int minCapacity, double shrinkFraction) {
+		if (!(growthFactor > 1) || minCapacity < 0 || !(shrinkFraction >= 0) || !(shrinkFraction * growthFactor < 1))
+			throw new IllegalArgumentException();
+		this.growthFactor = growthFactor;
+		this.minCapacity = minCapacity;
+		this.shrinkFraction = shrinkFraction;
+	}
+
+	/**
+	 * @return il fattore di crescita della capacità.
+	 */
+	public double getGrowthFactor() {
+		return growthFactor;
+	}
+
+	/**
+	 * @return la capacità sotto la quale l'array non viene ridotto.
+	 */
+	public int getMinCapacity() {
+		return minCapacity;
+	}
+
+	/**
+	 * @return la frazione della capacità sotto la quale l'array viene ridotto.
+	 */
+	public double getShrinkFraction() {
+		return shrinkFraction;
+	}
+
+	/**
+	 * Capacità da usare quando l'array, di capacità capacity, deve contenere almeno required elementi.
+	 */
+	int grownCapacity(int capacity, int required) {
+		long grown = (long) Math.ceil(capacity * growthFactor);
+		if (grown < minCapacity) grown = minCapacity;
+		if (grown < required) grown = required;
+		return (int) Math.min(grown, Integer.MAX_VALUE - 8);
+	}
+
+	/**
+	 * Capacità a cui ridurre l'array, di capacità capacity, che contiene size elementi; capacity se non va ridotto.
+	 */
+	int shrunkCapacity(int capacity, int size) {
+		if (capacity <= minCapacity || size >= capacity * shrinkFraction) return capacity;
+		long shrunk = (long) Math.ceil(size * growthFactor);
+		if (shrunk < minCapacity) shrunk = minCapacity;
+		return (int) Math.min(shrunk, capacity);
+	}
+
+	public String toString() {
+		return "CapacityPolicy[growthFactor=" + growthFactor + ", minCapacity=" + minCapacity
+				+ ", shrinkFraction=" + shrinkFraction + "]";
+	}
+}
@@ -0,0 +1,369 @@
+package myAdapter;
+
+import java.util.EmptyStackException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stack thread-safe e lock-free (stack di Treiber) che implementa l'interfaccia HCollection e i metodi di stack di
+ * StackAdapter (push, pop, peek, search, empty).
+ * <p>
+ * La cima dello stack è un riferimento atomico ad una lista concatenata di nodi immutabili: push e pop preparano il
+ * nuovo valore della cima e lo pubblicano con una compareAndSet, ripetendo il tentativo se un altro thread li ha
+ * preceduti. Nessun nodo viene mai riutilizzato: finché un thread conserva il riferimento alla vecchia cima, il garbage
+ * collector non può riciclarla, quindi la compareAndSet non può confondere due nodi diversi (problema ABA).
+ * <p>
+ * I metodi di lettura di HCollection (size, contains, toArray, iterator, ...) sono <i>weakly consistent</i>: lavorano
+ * sulla cima letta all'inizio della chiamata e non vedono le modifiche successive, ma non lanciano mai
+ * ConcurrentModificationException. Gli elementi vengono restituiti dalla cima verso il fondo dello stack.
+ * <p>
+ * Le operazioni che rimuovono elementi da posizioni arbitrarie (remove(Object), removeAll, retainAll) non sono
+ * supportate e lanciano UnsupportedOperationException.
+ *
+ * @see StackAdapter
+ */
+
+public class ConcurrentStackAdapter implements HCollection {
+
+	/**
+	 * Nodo della lista concatenata che rappresenta lo stack. I nodi sono immutabili.
+	 */
+	static final class Node {
+		final Object item;
+		final Node next;
+
+		/**
+		 * Numero di elementi dello stack di cui questo nodo è la cima.
+		 */
+		final int size;
+
+		Node(Object item, Node next) {
+			this.item = item;
+			this.next = next;
+			this.size = (next == null) ? 1 : next.size + 1;
+		}
+	}
+
+	/**
+	 * Cima dello stack, null se lo stack è vuoto.
+	 */
+	private final AtomicReference<Node> head = new AtomicReference<Node>();
+
+	/**
+	 * Costruttore: crea uno stack vuoto.
+	 */
+	public ConcurrentStackAdapter() {
+	}
+
+	/**
+	 * Genera uno stack che contiene gli elementi della collezione specificata. Gli elementi vengono inseriti
+	 * nell'ordine restituito dall'iteratore della collezione, quindi l'ultimo si troverà in cima.
+	 * @param coll collezione i cui elementi verranno inseriti nello stack.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 */
+	public ConcurrentStackAdapter(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		addAll(coll);
+	}
+
+	// Query Operations
+
+	/**
+	 * Il metodo ritorna la dimensione dello stack nell'istante della chiamata, in tempo costante.
+	 * @return il numero di elementi nello stack.
+	 */
+	public int size() {
+		Node top = head.get();
+		return (top == null) ? 0 : top.size;
+	}
+
+	/**
+	 * Verifica se lo stack è vuoto.
+	 * @return true se è vuoto, false altrimenti.
+	 */
+	public boolean isEmpty() {
+		return head.get() == null;
+	}
+
+	/**
+	 * Ricerca l'oggetto obj nello stack, così come si trovava all'inizio della chiamata.
+	 * @param obj elemento che viene ricercato.
+	 * @return true se esso è nello stack, altrimenti false.
+	 */
+	public boolean contains(Object obj) {
+		for (Node n = head.get(); n != null; n = n.next) {
+			if (obj == null ? n.item == null : obj.equals(n.item)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Crea un iteratore weakly consistent che percorre lo stack dalla cima verso il fondo.
+	 * @return iteratore.
+	 */
+	public HIterator iterator() {
+		return new StackIterator(head.get());
+	}
+
+	/**
+	 * Crea un array contenente gli elementi dello stack, dalla cima verso il fondo.
+	 * @return array di tipo Object.
+	 */
+	public Object[] toArray() {
+		Node top = head.get();
+		if (top == null) return new Object[0];
+		Object[] array = new Object[top.size];
+		int i = 0;
+		for (Node n = top; n != null; n = n.next) {
+			array[i++] = n.item;
+		}
+		return array;
+	}
+
+	/**
+	 * Copia gli elementi dello stack, dalla cima verso il fondo, all'interno dell'array fornito come parametro.
+	 * Se esso non è sufficientemente grande, viene creato un nuovo array; se è più grande, le celle rimanenti vengono
+	 * riempite con null.
+	 * @param arrayTarget array in cui verranno copiati gli elementi.
+	 * @throws NullPointerException se l'argomento inserito non è valido.
+	 * @return l'array che contiene gli elementi.
+	 */
+	public Object[] toArray(Object arrayTarget[]) {
+		if (arrayTarget == null) throw new NullPointerException();
+		Object[] array = toArray();
+		if (arrayTarget.length < array.length) return array;
+		System.arraycopy(array, 0, arrayTarget, 0, array.length);
+		for (int i = array.length; i < arrayTarget.length; i++) {
+			arrayTarget[i] = null;
+		}
+		return arrayTarget;
+	}
+
+	// Modification Operations
+
+	/**
+	 * Inserisce l'elemento in cima allo stack, come push(Object).
+	 * @param obj elemento da inserire.
+	 * @return true ad azione compiuta.
+	 */
+	public boolean add(Object obj) {
+		push(obj);
+		return true;
+	}
+
+	/**
+	 * Operazione non supportata.
+	 * @throws UnsupportedOperationException sempre.
+	 */
+	public boolean remove(Object obj) {
+		throw new UnsupportedOperationException();
+	}
+
+	// Bulk Operations
+
+	/**
+	 * Verifica che tutti gli elementi della collezione specificata siano presenti nello stack.
+	 * @param coll collezione di elementi che vengono cercati.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se tutti gli elementi sono presenti, altrimenti false.
+	 */
+	public boolean containsAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		HIterator it = coll.iterator();
+		while (it.hasNext()) {
+			if (!contains(it.next())) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Inserisce in cima allo stack tutti gli elementi della collezione specificata, uno alla volta, nell'ordine
+	 * restituito dal suo iteratore. Altri thread possono inserire o rimuovere elementi tra un inserimento e l'altro.
+	 * @param coll collezione i cui elementi verranno inseriti.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean addAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		boolean changed = false;
+		HIterator it = coll.iterator();
+		while (it.hasNext()) {
+			push(it.next());
+			changed = true;
+		}
+		return changed;
+	}
+
+	/**
+	 * Operazione non supportata.
+	 * @throws UnsupportedOperationException sempre.
+	 */
+	public boolean removeAll(HCollection coll) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Operazione non supportata.
+	 * @throws UnsupportedOperationException sempre.
+	 */
+	public boolean retainAll(HCollection coll) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Elimina atomicamente tutti gli elementi dello stack.
+	 */
+	public void clear() {
+		head.set(null);
+	}
+
+	// Comparison and hashing
+
+	/**
+	 * Due ConcurrentStackAdapter sono uguali se contengono gli stessi elementi nello stesso ordine.
+	 * Il confronto avviene sulle cime lette all'inizio della chiamata.
+	 * @param obj oggetto che viene comparato.
+	 * @return true se e solo se i due oggetti sono equivalenti, altrimenti false.
+	 */
+	public boolean equals(Object obj) {
+		if (obj == this) return true;
+		if (obj == null || obj.getClass() != getClass()) return false;
+		Node a = head.get();
+		Node b = ((ConcurrentStackAdapter) obj).head.get();
+		if ((a == null ? 0 : a.size) != (b == null ? 0 : b.size)) return false;
+		while (a != null && b != null) {
+			if (a == b) return true;
+			if (a.item == null ? b.item != null : !a.item.equals(b.item)) return false;
+			a = a.next;
+			b = b.next;
+		}
+		return a == b;
+	}
+
+	/**
+	 * Ritorna l'hashcode dello stack, calcolato come quello di una lista degli elementi dalla cima verso il fondo.
+	 * @return l'hashcode corrispondente allo stack.
+	 */
+	public int hashCode() {
+		int hash = 1;
+		for (Node n = head.get(); n != null; n = n.next) {
+			hash = 31 * hash + (n.item == null ? 0 : n.item.hashCode());
+		}
+		return hash;
+	}
+
+	//stack methods
+
+	/**
+	 * Verifica che lo stack sia vuoto.
+	 * @return true se esso non contiene elementi, altrimenti ritorna false.
+	 */
+	public boolean empty() {
+		return isEmpty();
+	}
+
+	/**
+	 * Legge l'oggetto sulla cima dello stack, senza rimuoverlo.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto in cima allo stack.
+	 */
+	public Object peek() {
+		Node top = head.get();
+		if (top == null) throw new EmptyStackException();
+		return top.item;
+	}
+
+	/**
+	 * Rimuove l'oggetto in cima allo stack e lo restituisce.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto in cima allo stack che è stato rimosso.
+	 */
+	public Object pop() {
+		for (;;) {
+			Node top = tryPop();
+			if (top != null) return top.item;
+		}
+	}
+
+	/**
+	 * Inserisce un elemento in cima allo stack.
+	 * @param item oggetto da inserire.
+	 * @return l'argomento della funzione, ovvero l'oggetto aggiunto in cima allo stack.
+	 */
+	public Object push(Object item) {
+		while (!tryPush(item)) {
+		}
+		return item;
+	}
+
+	/**
+	 * Cerca l'oggetto nello stack, così come si trovava all'inizio della chiamata, e restituisce la distanza dalla cima
+	 * della occorrenza più vicina ad essa. Se l'oggetto si trova in cima allo stack, la distanza risulta uno.
+	 * @param o l'oggetto desiderato.
+	 * @return la posizione (1-based) dalla cima dello stack, se l'oggetto non viene trovato ritorna -1.
+	 */
+	public int search(Object o) {
+		int distance = 1;
+		for (Node n = head.get(); n != null; n = n.next) {
+			if (o == null ? n.item == null : o.equals(n.item)) return distance;
+			distance++;
+		}
+		return -1;
+	}
+
+	/**
+	 * Singolo tentativo di push: legge la cima e prova a sostituirla con un nuovo nodo.
+	 * @param item oggetto da inserire.
+	 * @return true se il nodo è stato pubblicato, false se un altro thread ha modificato la cima nel frattempo.
+	 */
+	boolean tryPush(Object item) {
+		Node top = head.get();
+		return head.compareAndSet(top, new Node(item, top));
+	}
+
+	/**
+	 * Singolo tentativo di pop: legge la cima e prova a sostituirla con il nodo successivo.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return il nodo rimosso, oppure null se un altro thread ha modificato la cima nel frattempo.
+	 */
+	Node tryPop() {
+		Node top = head.get();
+		if (top == null) throw new EmptyStackException();
+		if (head.compareAndSet(top, top.next)) return top;
+		return null;
+	}
+
+	/**
+	 * Private class dell'iteratore: percorre i nodi a partire dalla cima letta alla sua creazione.
+	 */
+	private static class StackIterator implements HIterator {
+
+		/**
+		 * Nodo che verrà restituito dalla prossima chiamata a next().
+		 */
+		private Node current;
+
+		StackIterator(Node top) {
+			current = top;
+		}
+
+		public boolean hasNext() {
+			return current != null;
+		}
+
+		public Object next() {
+			if (current == null) throw new NoSuchElementException();
+			Object item = current.item;
+			current = current.next;
+			return item;
+		}
+
+		/**
+		 * Operazione non supportata.
+		 * @throws UnsupportedOperationException sempre.
+		 */
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,1134 @@
+package myAdapter;
+
+import java.util.ConcurrentModificationException;
+import java.util.EmptyStackException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Stack thread-safe <i>copy-on-write</i> che implementa l'interfaccia HList e i metodi di stack di StackAdapter
+ * (push, pop, peek, search, empty), pensato per stack letti da molti thread e modificati raramente.
+ * <p>
+ * Gli elementi si trovano in un array, dal fondo alla cima, pubblicato tramite un campo volatile e mai più modificato
+ * dopo la pubblicazione. Le letture (get, peek, contains, search, size, toArray, ...) leggono il campo una sola volta
+ * e lavorano su quell'istantanea senza alcun lock, quindi thread diversi non si contendono nulla e la lettura scala
+ * con il numero di processori. Le modifiche vengono serializzate da un ReentrantLock: ognuna copia l'array, modifica
+ * la copia e la pubblica, con un costo O(size()) anche per push e pop.
+ * <p>
+ * Le operazioni bulk (addAll, removeAll, retainAll, removeIf, replaceAll, pushAll, popInto) fanno una sola copia
+ * qualunque sia il numero di elementi coinvolti. Una sequenza arbitraria di modifiche si raggruppa in una sola
+ * pubblicazione con update(Consumer), che i lettori vedono come un'unica modifica atomica.
+ * <p>
+ * Gli iteratori e listIterator percorrono l'istantanea presa alla loro creazione, non vedono le modifiche successive
+ * e non lanciano mai ConcurrentModificationException; remove, set e add degli iteratori non sono supportati.
+ * subList restituisce una vista che legge e modifica lo stack acquisendo il lock, ed è valida finché lo stack non
+ * viene modificato senza passare da essa.
+ *
+ * @see StackAdapter
+ * @see ConcurrentStackAdapter
+ */
+
+public class CopyOnWriteStackAdapter implements HList {
+
+	/**
+	 * Array vuoto condiviso da tutti gli stack vuoti.
+	 */
+	private static final Object[] EMPTY = new Object[0];
+
+	/**
+	 * Numero di elementi fino al quale containsAll cerca ogni elemento scorrendo lo stack invece di indicizzarli.
+	 */
+	private static final int SCAN_THRESHOLD = 8;
+
+	/**
+	 * Elementi dello stack, dal fondo alla cima; la lunghezza coincide con la dimensione dello stack.
+	 * Un array pubblicato non viene più modificato.
+	 */
+	private volatile Object[] array = EMPTY;
+
+	/**
+	 * Lock che serializza le modifiche. Le letture non lo usano.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Costruttore: crea uno stack vuoto.
+	 */
+	public CopyOnWriteStackAdapter() {
+	}
+
+	/**
+	 * Genera uno stack che contiene gli elementi della collezione specificata, nell'ordine di toArray: l'ultimo si
+	 * troverà in cima.
+	 * @param coll collezione i cui elementi verranno inseriti nello stack.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 */
+	public CopyOnWriteStackAdapter(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		Object[] elements = coll.toArray();
+		array = (elements.length == 0) ? EMPTY : copyOf(elements, elements.length);
+	}
+
+	// Query Operations
+
+	/**
+	 * @return il numero di elementi nello stack nell'istante della chiamata.
+	 */
+	public int size() {
+		return array.length;
+	}
+
+	/**
+	 * Verifica se lo stack è vuoto.
+	 * @return true se è vuoto, false altrimenti.
+	 */
+	public boolean isEmpty() {
+		return array.length == 0;
+	}
+
+	/**
+	 * Ricerca l'oggetto obj nello stack, così come si trovava all'inizio della chiamata.
+	 * @param obj elemento che viene ricercato.
+	 * @return true se esso è nello stack, altrimenti false.
+	 */
+	public boolean contains(Object obj) {
+		Object[] snapshot = array;
+		return indexOf(snapshot, obj, 0, snapshot.length) >= 0;
+	}
+
+	/**
+	 * Crea un iteratore che percorre, dal fondo alla cima, l'istantanea dello stack presa in questo momento.
+	 * @return iteratore.
+	 */
+	public HIterator iterator() {
+		return new SnapshotIterator(array, 0);
+	}
+
+	/**
+	 * Crea un array contenente gli elementi dello stack, dal fondo alla cima.
+	 * @return array di tipo Object.
+	 */
+	public Object[] toArray() {
+		Object[] snapshot = array;
+		return copyOf(snapshot, snapshot.length);
+	}
+
+	/**
+	 * Copia gli elementi dello stack, dal fondo alla cima, all'interno dell'array fornito come parametro.
+	 * Se esso non è sufficientemente grande, viene creato un nuovo array; se è più grande, le celle rimanenti vengono
+	 * riempite con null.
+	 * @param arrayTarget array in cui verranno copiati gli elementi.
+	 * @throws NullPointerException se l'argomento inserito non è valido.
+	 * @return l'array che contiene gli elementi.
+	 */
+	public Object[] toArray(Object arrayTarget[]) {
+		if (arrayTarget == null) throw new NullPointerException();
+		Object[] snapshot = array;
+		if (arrayTarget.length < snapshot.length) return copyOf(snapshot, snapshot.length);
+		System.arraycopy(snapshot, 0, arrayTarget, 0, snapshot.length);
+		for (int i = snapshot.length; i < arrayTarget.length; i++) {
+			arrayTarget[i] = null;
+		}
+		return arrayTarget;
+	}
+
+	// Modification Operations
+
+	/**
+	 * Inserisce l'elemento in cima allo stack, come push(Object).
+	 * @param obj elemento da inserire.
+	 * @return true ad azione compiuta.
+	 */
+	public boolean add(Object obj) {
+		push(obj);
+		return true;
+	}
+
+	/**
+	 * Rimuove la prima occorrenza dell'elemento a partire dal fondo dello stack.
+	 * @param obj elemento da rimuovere.
+	 * @return true se l'elemento era presente, altrimenti false.
+	 */
+	public boolean remove(Object obj) {
+		lock.lock();
+		try {
+			Object[] current = array;
+			int index = indexOf(current, obj, 0, current.length);
+			if (index < 0) return false;
+			array = removeAt(current, index);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Bulk Operations
+
+	/**
+	 * Verifica che tutti gli elementi della collezione specificata siano presenti nello stack, così come si trovava
+	 * all'inizio della chiamata. Se la collezione è piccola ogni suo elemento viene cercato scorrendo lo stack;
+	 * altrimenti gli elementi della collezione vengono raccolti in un insieme hash e lo stack viene scorso una sola
+	 * volta, togliendo dall'insieme gli elementi trovati. Non viene allocato nulla in proporzione alla dimensione dello
+	 * stack, quindi la lettura resta senza lock e scala con il numero di thread.
+	 * @param coll collezione di elementi che vengono cercati.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se tutti gli elementi sono presenti, altrimenti false.
+	 */
+	public boolean containsAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		Object[] snapshot = array;
+		return containsAll(snapshot, 0, snapshot.length, coll.toArray());
+	}
+
+	/**
+	 * Inserisce in cima allo stack tutti gli elementi della collezione specificata, nell'ordine di toArray, con una
+	 * sola copia.
+	 * @param coll collezione i cui elementi verranno inseriti.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean addAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		Object[] elements = coll.toArray();
+		lock.lock();
+		try {
+			return insert(array.length, elements, 0, elements.length);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Inserisce gli elementi della collezione specificata a partire dall'indice index, con una sola copia.
+	 * @param index indice di partenza.
+	 * @param coll  collezione contenente gli elementi che verranno inseriti.
+	 * @throws NullPointerException se la collezione specifica non è valida.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean addAll(int index, HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		Object[] elements = coll.toArray();
+		lock.lock();
+		try {
+			if (index < 0 || index > array.length) throw new IndexOutOfBoundsException();
+			return insert(index, elements, 0, elements.length);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Elimina dallo stack tutti gli elementi contenuti nella collezione specificata, con una sola copia.
+	 * @param coll collezione i cui elementi verranno rimossi.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean removeAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		final PositionIndex set = PositionIndex.of(coll.toArray());
+		return removeIf(new Predicate<Object>() {
+			public boolean test(Object obj) {
+				return set.containsKey(obj);
+			}
+		});
+	}
+
+	/**
+	 * Rimuove dallo stack tutti gli elementi che non sono presenti nella collezione specificata, con una sola copia.
+	 * @param coll collezione di elementi che non verranno rimossi.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean retainAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		final PositionIndex set = PositionIndex.of(coll.toArray());
+		return removeIf(new Predicate<Object>() {
+			public boolean test(Object obj) {
+				return !set.containsKey(obj);
+			}
+		});
+	}
+
+	/**
+	 * Elimina atomicamente tutti gli elementi dello stack.
+	 */
+	public void clear() {
+		lock.lock();
+		try {
+			array = EMPTY;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Comparison and hashing
+
+	/**
+	 * Due CopyOnWriteStackAdapter sono uguali se contengono gli stessi elementi nello stesso ordine.
+	 * Il confronto avviene sulle istantanee lette all'inizio della chiamata.
+	 * @param obj oggetto che viene comparato.
+	 * @return true se e solo se i due oggetti sono equivalenti, altrimenti false.
+	 */
+	public boolean equals(Object obj) {
+		if (obj == this) return true;
+		if (obj == null || obj.getClass() != getClass()) return false;
+		Object[] a = array;
+		Object[] b = ((CopyOnWriteStackAdapter) obj).array;
+		if (a == b) return true;
+		if (a.length != b.length) return false;
+		for (int i = 0; i < a.length; i++) {
+			if (a[i] == null ? b[i] != null : !a[i].equals(b[i])) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Ritorna l'hashcode dello stack, calcolato come quello di una lista degli elementi dal fondo alla cima, lo stesso
+	 * di uno StackAdapter con gli stessi elementi.
+	 * @return l'hashcode corrispondente allo stack.
+	 */
+	public int hashCode() {
+		int hash = 1;
+		Object[] snapshot = array;
+		for (int i = 0; i < snapshot.length; i++) {
+			hash = 31 * hash + (snapshot[i] == null ? 0 : snapshot[i].hashCode());
+		}
+		return hash;
+	}
+
+	/**
+	 * Ritorna gli elementi dello stack, dal fondo alla cima, nella forma [e1, e2, ...].
+	 * @return la rappresentazione testuale dello stack.
+	 */
+	public String toString() {
+		Object[] snapshot = array;
+		StringBuffer buf = new StringBuffer("[");
+		for (int i = 0; i < snapshot.length; i++) {
+			if (i > 0) buf.append(", ");
+			buf.append(String.valueOf(snapshot[i]));
+		}
+		return buf.append("]").toString();
+	}
+
+	// Positional Access Operations
+
+	/**
+	 * @param index posizione dell'elemento, 0 è il fondo dello stack.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return l'elemento in posizione index.
+	 */
+	public Object get(int index) {
+		Object[] snapshot = array;
+		if (index < 0 || index >= snapshot.length) throw new IndexOutOfBoundsException();
+		return snapshot[index];
+	}
+
+	/**
+	 * Sostituisce l'elemento in posizione index.
+	 * @param index posizione dell'elemento da sostituire.
+	 * @param element nuovo elemento.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return l'elemento sostituito.
+	 */
+	public Object set(int index, Object element) {
+		lock.lock();
+		try {
+			Object[] current = array;
+			if (index < 0 || index >= current.length) throw new IndexOutOfBoundsException();
+			Object old = current[index];
+			if (old != element) {
+				Object[] next = copyOf(current, current.length);
+				next[index] = element;
+				array = next;
+			}
+			return old;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Inserisce l'elemento in posizione index.
+	 * @param index posizione in cui inserire l'elemento.
+	 * @param element elemento da inserire.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 */
+	public void add(int index, Object element) {
+		lock.lock();
+		try {
+			if (index < 0 || index > array.length) throw new IndexOutOfBoundsException();
+			insert(index, new Object[]{element}, 0, 1);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Rimuove l'elemento in posizione index.
+	 * @param index posizione dell'elemento da rimuovere.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return l'elemento rimosso.
+	 */
+	public Object remove(int index) {
+		lock.lock();
+		try {
+			Object[] current = array;
+			if (index < 0 || index >= current.length) throw new IndexOutOfBoundsException();
+			Object old = current[index];
+			array = removeAt(current, index);
+			return old;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param obj elemento cercato.
+	 * @return l'indice della prima occorrenza a partire dal fondo, oppure -1.
+	 */
+	public int indexOf(Object obj) {
+		Object[] snapshot = array;
+		return indexOf(snapshot, obj, 0, snapshot.length);
+	}
+
+	/**
+	 * @param obj elemento cercato.
+	 * @return l'indice dell'occorrenza più vicina alla cima, oppure -1.
+	 */
+	public int lastIndexOf(Object obj) {
+		return lastIndexOf(array, obj);
+	}
+
+	/**
+	 * Crea un iteratore in sola lettura che parte dal fondo dell'istantanea dello stack presa in questo momento.
+	 * @return iteratore.
+	 */
+	public HListIterator listIterator() {
+		return new SnapshotIterator(array, 0);
+	}
+
+	/**
+	 * Crea un iteratore in sola lettura che parte dalla posizione index dell'istantanea dello stack presa in questo
+	 * momento.
+	 * @param index posizione del primo elemento restituito da next().
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return iteratore.
+	 */
+	public HListIterator listIterator(int index) {
+		Object[] snapshot = array;
+		if (index < 0 || index > snapshot.length) throw new IndexOutOfBoundsException();
+		return new SnapshotIterator(snapshot, index);
+	}
+
+	/**
+	 * Restituisce una vista degli elementi compresi tra fromIndex e toIndex escluso. Come in StackAdapter, le
+	 * modifiche fatte tramite la sottolista (anche strutturali, come clear o add) si ripercuotono sullo stack, e ogni
+	 * modifica pubblica un nuovo array con una sola copia.
+	 * <p>
+	 * A differenza dello stack, la sottolista acquisisce il lock anche per le letture. La vista ricorda l'array
+	 * pubblicato al momento della sua ultima operazione: se nel frattempo lo stack è stato modificato senza passare da
+	 * essa, ogni operazione sulla sottolista lancia ConcurrentModificationException. I suoi iteratori percorrono, in
+	 * sola lettura, una copia della sottolista presa alla loro creazione.
+	 * @param fromIndex indice di partenza della sottolista.
+	 * @param toIndex indice finale, non compreso.
+	 * @throws IndexOutOfBoundsException se gli indici passati come parametri non sono validi.
+	 * @return la sottolista.
+	 */
+	public HList subList(int fromIndex, int toIndex) {
+		lock.lock();
+		try {
+			Object[] current = array;
+			if (fromIndex < 0 || toIndex > current.length || fromIndex > toIndex) throw new IndexOutOfBoundsException();
+			return new SubList(current, fromIndex, toIndex - fromIndex);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	//stack methods
+
+	/**
+	 * Verifica che lo stack sia vuoto.
+	 * @return true se esso non contiene elementi, altrimenti ritorna false.
+	 */
+	public boolean empty() {
+		return isEmpty();
+	}
+
+	/**
+	 * Legge l'oggetto sulla cima dello stack, senza rimuoverlo e senza lock.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto in cima allo stack.
+	 */
+	public Object peek() {
+		Object[] snapshot = array;
+		if (snapshot.length == 0) throw new EmptyStackException();
+		return snapshot[snapshot.length - 1];
+	}
+
+	/**
+	 * Rimuove l'oggetto in cima allo stack e lo restituisce.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto in cima allo stack che è stato rimosso.
+	 */
+	public Object pop() {
+		lock.lock();
+		try {
+			Object[] current = array;
+			if (current.length == 0) throw new EmptyStackException();
+			Object item = current[current.length - 1];
+			array = copyOf(current, current.length - 1);
+			return item;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Inserisce un elemento in cima allo stack.
+	 * @param item oggetto da inserire.
+	 * @return l'argomento della funzione, ovvero l'oggetto aggiunto in cima allo stack.
+	 */
+	public Object push(Object item) {
+		lock.lock();
+		try {
+			Object[] current = array;
+			Object[] next = copyOf(current, current.length + 1);
+			next[current.length] = item;
+			array = next;
+			return item;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Cerca l'oggetto nello stack, così come si trovava all'inizio della chiamata, e restituisce la distanza dalla cima
+	 * della occorrenza più vicina ad essa. Se l'oggetto si trova in cima allo stack, la distanza risulta uno.
+	 * @param o l'oggetto desiderato.
+	 * @return la posizione (1-based) dalla cima dello stack, se l'oggetto non viene trovato ritorna -1.
+	 */
+	public int search(Object o) {
+		Object[] snapshot = array;
+		int index = lastIndexOf(snapshot, o);
+		return index < 0 ? -1 : snapshot.length - index;
+	}
+
+	/**
+	 * Inserisce in cima allo stack gli elementi src[off], ..., src[off + len - 1], nell'ordine, con una sola copia:
+	 * l'ultimo diventa la nuova cima.
+	 * @param src array che contiene gli elementi da inserire.
+	 * @param off indice del primo elemento da inserire.
+	 * @param len numero di elementi da inserire.
+	 * @throws NullPointerException se src è null.
+	 * @throws IndexOutOfBoundsException se off e len non individuano un intervallo valido di src.
+	 */
+	public void pushAll(Object[] src, int off, int len) {
+		if (src == null) throw new NullPointerException();
+		if (off < 0 || len < 0 || off > src.length - len) throw new IndexOutOfBoundsException();
+		lock.lock();
+		try {
+			insert(array.length, src, off, len);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Rimuove dalla cima dello stack fino a max elementi con una sola copia e li copia in dst a partire da dst[off],
+	 * nell'ordine che hanno nello stack, come StackAdapter.popInto.
+	 * @param dst array in cui copiare gli elementi.
+	 * @param off indice di dst in cui copiare il primo elemento.
+	 * @param max numero massimo di elementi da rimuovere.
+	 * @throws NullPointerException se dst è null.
+	 * @throws IndexOutOfBoundsException se off e max non individuano un intervallo valido di dst.
+	 * @return il numero di elementi rimossi, minore di max se lo stack ne contiene meno.
+	 */
+	public int popInto(Object[] dst, int off, int max) {
+		if (dst == null) throw new NullPointerException();
+		if (off < 0 || max < 0 || off > dst.length - max) throw new IndexOutOfBoundsException();
+		lock.lock();
+		try {
+			Object[] current = array;
+			int n = Math.min(max, current.length);
+			if (n == 0) return 0;
+			System.arraycopy(current, current.length - n, dst, off, n);
+			array = copyOf(current, current.length - n);
+			return n;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Bulk Operations with functions
+
+	/**
+	 * Esegue action su ogni elemento dell'istantanea dello stack presa in questo momento, dal fondo alla cima.
+	 * @param action azione da eseguire.
+	 * @throws NullPointerException se action è null.
+	 */
+	public void forEach(Consumer<? super Object> action) {
+		if (action == null) throw new NullPointerException();
+		Object[] snapshot = array;
+		for (int i = 0; i < snapshot.length; i++)
+			action.accept(snapshot[i]);
+	}
+
+	/**
+	 * Rimuove tutti gli elementi che soddisfano filter, con una sola copia. filter viene valutato mentre il lock è
+	 * acquisito, quindi non deve modificare lo stack.
+	 * @param filter predicato degli elementi da rimuovere.
+	 * @throws NullPointerException se filter è null.
+	 * @return true se almeno un elemento è stato rimosso.
+	 */
+	public boolean removeIf(Predicate<? super Object> filter) {
+		if (filter == null) throw new NullPointerException();
+		lock.lock();
+		try {
+			Object[] current = array;
+			Object[] kept = new Object[current.length];
+			int n = 0;
+			for (int i = 0; i < current.length; i++) {
+				if (!filter.test(current[i])) kept[n++] = current[i];
+			}
+			if (n == current.length) return false;
+			array = (n == 0) ? EMPTY : copyOf(kept, n);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Sostituisce ogni elemento con il risultato di op, con una sola copia. op viene valutato mentre il lock è
+	 * acquisito, quindi non deve modificare lo stack.
+	 * @param op funzione applicata ad ogni elemento.
+	 * @throws NullPointerException se op è null.
+	 */
+	public void replaceAll(UnaryOperator<Object> op) {
+		if (op == null) throw new NullPointerException();
+		lock.lock();
+		try {
+			Object[] current = array;
+			if (current.length == 0) return;
+			Object[] next = new Object[current.length];
+			for (int i = 0; i < current.length; i++)
+				next[i] = op.apply(current[i]);
+			array = next;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Esegue un gruppo di modifiche e le pubblica insieme. batch riceve uno StackAdapter con gli elementi dello stack
+	 * e può modificarlo liberamente; al termine il suo contenuto diventa il nuovo contenuto dello stack con una sola
+	 * pubblicazione, quindi i lettori vedono lo stack prima o dopo l'intero gruppo e mai a metà. Se batch lancia
+	 * un'eccezione lo stack resta invariato. Le altre modifiche attendono la fine di batch, che non deve modificare
+	 * questo stack direttamente né conservare lo StackAdapter ricevuto.
+	 * @param batch modifiche da eseguire.
+	 * @throws NullPointerException se batch è null.
+	 */
+	public void update(Consumer<? super StackAdapter> batch) {
+		if (batch == null) throw new NullPointerException();
+		lock.lock();
+		try {
+			StackAdapter work = new StackAdapter(this);
+			batch.accept(work);
+			int size = work.size();
+			array = (size == 0) ? EMPTY : work.toArray();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Pubblica un nuovo array con src[off], ..., src[off + len - 1] inseriti in posizione index. Va chiamato con il
+	 * lock acquisito e index già controllato.
+	 * @return true se è stato inserito almeno un elemento.
+	 */
+	private boolean insert(int index, Object[] src, int off, int len) {
+		if (len == 0) return false;
+		Object[] current = array;
+		Object[] next = new Object[current.length + len];
+		System.arraycopy(current, 0, next, 0, index);
+		System.arraycopy(src, off, next, index, len);
+		System.arraycopy(current, index, next, index + len, current.length - index);
+		array = next;
+		return true;
+	}
+
+	/**
+	 * Pubblica un nuovo array in cui gli elementi da from a to escluso sono sostituiti da src. Va chiamato con il
+	 * lock acquisito e gli indici già controllati.
+	 */
+	private void replaceRange(int from, int to, Object[] src) {
+		Object[] current = array;
+		int length = current.length - (to - from) + src.length;
+		if (length == 0) {
+			array = EMPTY;
+			return;
+		}
+		Object[] next = new Object[length];
+		System.arraycopy(current, 0, next, 0, from);
+		System.arraycopy(src, 0, next, from, src.length);
+		System.arraycopy(current, to, next, from + src.length, current.length - to);
+		array = next;
+	}
+
+	/**
+	 * @return una copia di current senza l'elemento in posizione index.
+	 */
+	private static Object[] removeAt(Object[] current, int index) {
+		if (current.length == 1) return EMPTY;
+		Object[] next = new Object[current.length - 1];
+		System.arraycopy(current, 0, next, 0, index);
+		System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+		return next;
+	}
+
+	/**
+	 * @return un array con i primi length elementi di src.
+	 */
+	private static Object[] copyOf(Object[] src, int length) {
+		if (length == 0) return EMPTY;
+		Object[] copy = new Object[length];
+		System.arraycopy(src, 0, copy, 0, Math.min(length, src.length));
+		return copy;
+	}
+
+	/**
+	 * Verifica che snapshot[from], ..., snapshot[to - 1] contengano tutti gli elementi di elements. Fino a
+	 * SCAN_THRESHOLD elementi ognuno viene cercato con indexOf; oltre, elements viene indicizzato e l'intervallo viene
+	 * scorso una volta sola, fermandosi quando tutti i valori distinti sono stati trovati.
+	 */
+	private static boolean containsAll(Object[] snapshot, int from, int to, Object[] elements) {
+		if (elements.length <= SCAN_THRESHOLD) {
+			for (int i = 0; i < elements.length; i++) {
+				if (indexOf(snapshot, elements[i], from, to) < 0) return false;
+			}
+			return true;
+		}
+		PositionIndex missing = PositionIndex.of(elements);
+		for (int i = from; i < to && missing.keyCount() > 0; i++)
+			missing.removeKey(snapshot[i]);
+		return missing.keyCount() == 0;
+	}
+
+	private static int indexOf(Object[] snapshot, Object obj, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (obj == null ? snapshot[i] == null : obj.equals(snapshot[i])) return i;
+		}
+		return -1;
+	}
+
+	private static int lastIndexOf(Object[] snapshot, Object obj) {
+		for (int i = snapshot.length - 1; i >= 0; i--) {
+			if (obj == null ? snapshot[i] == null : obj.equals(snapshot[i])) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Private class della sottolista: vista di un intervallo dello stack, che acquisisce il lock ad ogni operazione.
+	 */
+	private final class SubList implements HList {
+
+		/**
+		 * Array pubblicato dopo l'ultima operazione della sottolista; se l'array dello stack è un altro, lo stack è
+		 * stato modificato senza passare dalla sottolista.
+		 */
+		private Object[] expected;
+
+		/**
+		 * Posizione nello stack del primo elemento della sottolista.
+		 */
+		private final int offset;
+
+		private int size;
+
+		SubList(Object[] expected, int offset, int size) {
+			this.expected = expected;
+			this.offset = offset;
+			this.size = size;
+		}
+
+		/**
+		 * Va chiamato con il lock acquisito.
+		 * @throws ConcurrentModificationException se lo stack è stato modificato senza passare dalla sottolista.
+		 */
+		private void checkForComodification() {
+			if (array != expected) throw new ConcurrentModificationException();
+		}
+
+		/**
+		 * Va chiamato con il lock acquisito.
+		 * @return una copia degli elementi della sottolista.
+		 */
+		private Object[] elements() {
+			checkForComodification();
+			Object[] copy = new Object[size];
+			System.arraycopy(expected, offset, copy, 0, size);
+			return copy;
+		}
+
+		/**
+		 * Sostituisce gli elementi della sottolista da from a to escluso con src. Va chiamato con il lock acquisito e
+		 * gli indici già controllati.
+		 */
+		private void replace(int from, int to, Object[] src) {
+			replaceRange(offset + from, offset + to, src);
+			size += src.length - (to - from);
+			expected = array;
+		}
+
+		/**
+		 * @return una copia degli elementi della sottolista, letta con il lock acquisito.
+		 */
+		private Object[] snapshot() {
+			lock.lock();
+			try {
+				return elements();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Sostituisce gli elementi della sottolista con quelli che rispettano o meno l'appartenenza a coll.
+		 * @return true se almeno un elemento è stato rimosso.
+		 */
+		private boolean filter(HCollection coll, boolean retain) {
+			if (coll == null) throw new NullPointerException();
+			PositionIndex set = PositionIndex.of(coll.toArray());
+			lock.lock();
+			try {
+				Object[] current = elements();
+				Object[] kept = new Object[current.length];
+				int n = 0;
+				for (int i = 0; i < current.length; i++) {
+					if (set.containsKey(current[i]) == retain) kept[n++] = current[i];
+				}
+				if (n == current.length) return false;
+				replace(0, size, copyOf(kept, n));
+				return true;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public int size() {
+			lock.lock();
+			try {
+				checkForComodification();
+				return size;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public boolean isEmpty() {
+			return size() == 0;
+		}
+
+		public boolean contains(Object obj) {
+			return indexOf(obj) >= 0;
+		}
+
+		public HIterator iterator() {
+			return new SnapshotIterator(snapshot(), 0);
+		}
+
+		public Object[] toArray() {
+			return snapshot();
+		}
+
+		public Object[] toArray(Object arrayTarget[]) {
+			if (arrayTarget == null) throw new NullPointerException();
+			Object[] elements = snapshot();
+			if (arrayTarget.length < elements.length) return elements;
+			System.arraycopy(elements, 0, arrayTarget, 0, elements.length);
+			for (int i = elements.length; i < arrayTarget.length; i++) {
+				arrayTarget[i] = null;
+			}
+			return arrayTarget;
+		}
+
+		public boolean add(Object obj) {
+			lock.lock();
+			try {
+				checkForComodification();
+				replace(size, size, new Object[]{obj});
+				return true;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public boolean remove(Object obj) {
+			lock.lock();
+			try {
+				checkForComodification();
+				int index = CopyOnWriteStackAdapter.indexOf(expected, obj, offset, offset + size);
+				if (index < 0) return false;
+				replace(index - offset, index - offset + 1, EMPTY);
+				return true;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public boolean containsAll(HCollection coll) {
+			if (coll == null) throw new NullPointerException();
+			Object[] elements = coll.toArray();
+			Object[] snapshot;
+			int from, to;
+			lock.lock();
+			try {
+				checkForComodification();
+				snapshot = expected;
+				from = offset;
+				to = offset + size;
+			} finally {
+				lock.unlock();
+			}
+			// L'array non viene più modificato dopo essere stato pubblicato, quindi può essere letto senza lock.
+			return CopyOnWriteStackAdapter.containsAll(snapshot, from, to, elements);
+		}
+
+		public boolean addAll(HCollection coll) {
+			if (coll == null) throw new NullPointerException();
+			Object[] elements = coll.toArray();
+			lock.lock();
+			try {
+				checkForComodification();
+				if (elements.length == 0) return false;
+				replace(size, size, elements);
+				return true;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public boolean addAll(int index, HCollection coll) {
+			if (coll == null) throw new NullPointerException();
+			Object[] elements = coll.toArray();
+			lock.lock();
+			try {
+				checkForComodification();
+				if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+				if (elements.length == 0) return false;
+				replace(index, index, elements);
+				return true;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public boolean removeAll(HCollection coll) {
+			return filter(coll, false);
+		}
+
+		public boolean retainAll(HCollection coll) {
+			return filter(coll, true);
+		}
+
+		public void clear() {
+			lock.lock();
+			try {
+				checkForComodification();
+				if (size > 0) replace(0, size, EMPTY);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * La sottolista è uguale ad ogni HList che contiene gli stessi elementi nello stesso ordine.
+		 */
+		public boolean equals(Object obj) {
+			if (obj == this) return true;
+			if (!(obj instanceof HList)) return false;
+			Object[] a = snapshot();
+			Object[] b = ((HList) obj).toArray();
+			if (a.length != b.length) return false;
+			for (int i = 0; i < a.length; i++) {
+				if (a[i] == null ? b[i] != null : !a[i].equals(b[i])) return false;
+			}
+			return true;
+		}
+
+		public int hashCode() {
+			int hash = 1;
+			Object[] elements = snapshot();
+			for (int i = 0; i < elements.length; i++) {
+				hash = 31 * hash + (elements[i] == null ? 0 : elements[i].hashCode());
+			}
+			return hash;
+		}
+
+		public String toString() {
+			Object[] elements = snapshot();
+			StringBuffer buf = new StringBuffer("[");
+			for (int i = 0; i < elements.length; i++) {
+				if (i > 0) buf.append(", ");
+				buf.append(String.valueOf(elements[i]));
+			}
+			return buf.append("]").toString();
+		}
+
+		public Object get(int index) {
+			lock.lock();
+			try {
+				checkForComodification();
+				if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+				return expected[offset + index];
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public Object set(int index, Object element) {
+			lock.lock();
+			try {
+				checkForComodification();
+				if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+				Object old = expected[offset + index];
+				replace(index, index + 1, new Object[]{element});
+				return old;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public void add(int index, Object element) {
+			lock.lock();
+			try {
+				checkForComodification();
+				if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+				replace(index, index, new Object[]{element});
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public Object remove(int index) {
+			lock.lock();
+			try {
+				checkForComodification();
+				if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+				Object old = expected[offset + index];
+				replace(index, index + 1, EMPTY);
+				return old;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public int indexOf(Object obj) {
+			Object[] elements = snapshot();
+			return CopyOnWriteStackAdapter.indexOf(elements, obj, 0, elements.length);
+		}
+
+		public int lastIndexOf(Object obj) {
+			return CopyOnWriteStackAdapter.lastIndexOf(snapshot(), obj);
+		}
+
+		public HListIterator listIterator() {
+			return new SnapshotIterator(snapshot(), 0);
+		}
+
+		public HListIterator listIterator(int index) {
+			Object[] elements = snapshot();
+			if (index < 0 || index > elements.length) throw new IndexOutOfBoundsException();
+			return new SnapshotIterator(elements, index);
+		}
+
+		/**
+		 * Restituisce una vista di una parte di questa sottolista. Dopo una modifica fatta tramite la nuova vista,
+		 * questa sottolista lancia ConcurrentModificationException.
+		 */
+		public HList subList(int fromIndex, int toIndex) {
+			lock.lock();
+			try {
+				checkForComodification();
+				if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) throw new IndexOutOfBoundsException();
+				return new SubList(expected, offset + fromIndex, toIndex - fromIndex);
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Private class dell'iteratore: percorre un'istantanea dello stack, dal fondo alla cima, in sola lettura.
+	 */
+	private static class SnapshotIterator implements HListIterator {
+
+		private final Object[] snapshot;
+
+		/**
+		 * Indice dell'elemento che verrà restituito dalla prossima chiamata a next().
+		 */
+		private int cursor;
+
+		SnapshotIterator(Object[] snapshot, int cursor) {
+			this.snapshot = snapshot;
+			this.cursor = cursor;
+		}
+
+		public boolean hasNext() {
+			return cursor < snapshot.length;
+		}
+
+		public Object next() {
+			if (cursor >= snapshot.length) throw new NoSuchElementException();
+			return snapshot[cursor++];
+		}
+
+		public boolean hasPrevious() {
+			return cursor > 0;
+		}
+
+		public Object previous() {
+			if (cursor <= 0) throw new NoSuchElementException();
+			return snapshot[--cursor];
+		}
+
+		public int nextIndex() {
+			return cursor;
+		}
+
+		public int previousIndex() {
+			return cursor - 1;
+		}
+
+		/**
+		 * Operazione non supportata.
+		 * @throws UnsupportedOperationException sempre.
+		 */
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Operazione non supportata.
+		 * @throws UnsupportedOperationException sempre.
+		 */
+		public void set(Object obj) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Operazione non supportata.
+		 * @throws UnsupportedOperationException sempre.
+		 */
+		public void add(Object obj) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
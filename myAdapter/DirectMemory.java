@@ -0,0 +1,85 @@
+package myAdapter;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Allocazione, rilascio e confronto dei buffer diretti (memoria nativa, fuori dallo heap).
+ * <p>
+ * Un ByteBuffer diretto viene normalmente liberato solo quando il garbage collector si accorge che non è più
+ * raggiungibile. free(ByteBuffer) libera subito la memoria tramite sun.misc.Unsafe.invokeCleaner, se disponibile;
+ * altrimenti il buffer viene lasciato al garbage collector.
+ */
+final class DirectMemory {
+
+	/**
+	 * Istanza di sun.misc.Unsafe, null se non è accessibile.
+	 */
+	private static final Object UNSAFE;
+
+	/**
+	 * Metodo invokeCleaner(ByteBuffer) di sun.misc.Unsafe, null se non è accessibile.
+	 */
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			unsafe = theUnsafe.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", new Class<?>[]{ByteBuffer.class});
+		} catch (Exception e) {
+			unsafe = null;
+			invokeCleaner = null;
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private DirectMemory() {
+	}
+
+	/**
+	 * Alloca un buffer diretto, con l'ordine dei byte nativo della piattaforma.
+	 * @param bytes dimensione del buffer.
+	 * @return il buffer allocato, con i byte azzerati.
+	 */
+	static ByteBuffer allocate(int bytes) {
+		return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Libera subito la memoria nativa del buffer. Il buffer non deve più essere usato, né da chi lo libera né
+	 * tramite altri buffer che ne condividono il contenuto (duplicate, slice).
+	 * @param buffer buffer diretto da liberare; se null o non diretto il metodo non fa nulla.
+	 */
+	static void free(ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect() || INVOKE_CLEANER == null) return;
+		try {
+			INVOKE_CLEANER.invoke(UNSAFE, new Object[]{buffer});
+		} catch (Exception e) {
+			// il buffer verrà liberato dal garbage collector
+		}
+	}
+
+	/**
+	 * Confronta len byte dei due buffer, a blocchi di 8 byte, senza modificarne la position.
+	 * I due buffer devono avere lo stesso ordine dei byte.
+	 * @return true se i byte coincidono.
+	 */
+	static boolean equalBytes(ByteBuffer a, int aOffset, ByteBuffer b, int bOffset, int len) {
+		int i = 0;
+		for (; i + 8 <= len; i += 8) {
+			if (a.getLong(aOffset + i) != b.getLong(bOffset + i)) return false;
+		}
+		for (; i < len; i++) {
+			if (a.get(aOffset + i) != b.get(bOffset + i)) return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,385 @@
+package myAdapter;
+
+import java.util.EmptyStackException;
+import java.util.NoSuchElementException;
+
+/**
+ * Generato da templates/TypeStack.template tramite templates/generate.sh: non modificare a mano.
+ * <p>
+ * Stack di elementi di tipo double, con gli stessi metodi di StackAdapter (push, pop, peek, search, empty) e le
+ * operazioni posizionali di HList.
+ * Gli elementi sono salvati direttamente in un array double[]: nessun elemento viene convertito in Double.
+ * Come StackAdapter, la classe non è thread-safe.
+ *
+ * @see StackAdapter
+ * @see DoubleListIterator
+ */
+
+public class DoubleStack {
+
+	/**
+	 * Array che contiene gli elementi dello stack; la cima dello stack si trova nella posizione size-1.
+	 */
+	private double[] elements;
+
+	/**
+	 * Numero di elementi presenti nello stack.
+	 */
+	private int size;
+
+	/**
+	 * Costruttore: crea uno DoubleStack vuoto.
+	 */
+	public DoubleStack() {
+		this(10);
+	}
+
+	/**
+	 * Costruttore: crea uno DoubleStack vuoto con la capacità iniziale specificata.
+	 * @param initialCapacity numero di elementi che lo stack può contenere prima di dover crescere.
+	 * @throws IllegalArgumentException se la capacità è negativa.
+	 */
+	public DoubleStack(int initialCapacity) {
+		if (initialCapacity < 0) throw new IllegalArgumentException();
+		elements = new double[initialCapacity];
+		size = 0;
+	}
+
+	// Query Operations
+
+	/**
+	 * Il metodo ritorna la dimensione dello stack.
+	 * @return il numero di elementi nello stack.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Verifica se lo stack è vuoto.
+	 * @return true se è vuoto, false altrimenti.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Ricerca all'interno dello stack il valore specificato.
+	 * @param value valore cercato.
+	 * @return true se esso è nello stack, altrimenti false.
+	 */
+	public boolean contains(double value) {
+		return indexOf(value) >= 0;
+	}
+
+	/**
+	 * Crea un array contenente gli elementi dello stack, dal fondo alla cima.
+	 * @return array di tipo double.
+	 */
+	public double[] toArray() {
+		double[] array = new double[size];
+		System.arraycopy(elements, 0, array, 0, size);
+		return array;
+	}
+
+	// Modification Operations
+
+	/**
+	 * Aggiunge un elemento in cima allo stack.
+	 * @param value elemento da inserire.
+	 * @return true ad azione compiuta.
+	 */
+	public boolean add(double value) {
+		push(value);
+		return true;
+	}
+
+	/**
+	 * Rimuove la prima occorrenza del valore specificato. Se esso non è presente, lo stack rimane invariato.
+	 * @param value valore da rimuovere.
+	 * @return true se il valore era presente, altrimenti false.
+	 */
+	public boolean removeElement(double value) {
+		int index = indexOf(value);
+		if (index < 0) return false;
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Elimina tutti gli elementi dello stack. La capacità non viene modificata.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	// Comparison and hashing
+
+	/**
+	 * Due DoubleStack sono uguali se contengono gli stessi valori nello stesso ordine.
+	 * I valori vengono confrontati come farebbe Double.equals.
+	 * @param obj oggetto che viene comparato.
+	 * @return true se e solo se i due oggetti sono equivalenti, altrimenti false.
+	 */
+	public boolean equals(Object obj) {
+		if (obj == this) return true;
+		if (obj == null || obj.getClass() != getClass()) return false;
+		DoubleStack other = (DoubleStack) obj;
+		if (other.size != size) return false;
+		for (int i = 0; i < size; i++) {
+			if (Double.compare(elements[i], other.elements[i]) != 0) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Ritorna l'hashcode dello stack, calcolato come quello di una lista degli stessi elementi in forma Double.
+	 * @return l'hashcode corrispondente allo stack.
+	 */
+	public int hashCode() {
+		int hash = 1;
+		for (int i = 0; i < size; i++) {
+			hash = 31 * hash + Double.hashCode(elements[i]);
+		}
+		return hash;
+	}
+
+	// Positional Access Operations
+
+	/**
+	 * Ritorna l'elemento corrispondente allo specifico index.
+	 * @param index indice dell'elemento da restituire.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return l'elemento nella posizione index.
+	 */
+	public double get(int index) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+		return elements[index];
+	}
+
+	/**
+	 * Sostituisce l'elemento presente nell'indice specificato.
+	 * @param index indice dell'elemento da sostituire.
+	 * @param value nuovo valore.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return il valore che si trovava precedentemente nella posizione index.
+	 */
+	public double set(int index, double value) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+		double old = elements[index];
+		elements[index] = value;
+		return old;
+	}
+
+	/**
+	 * Inserisce l'elemento nell'index specificato, shiftando a dx gli elementi successivi.
+	 * @param index indice di inserimento.
+	 * @param value valore da inserire.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 */
+	public void add(int index, double value) {
+		if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+		ensureCapacity(size + 1);
+		System.arraycopy(elements, index, elements, index + 1, size - index);
+		elements[index] = value;
+		size++;
+	}
+
+	/**
+	 * Rimuove l'elemento nella posizione specificata, shiftando a sx gli elementi successivi.
+	 * @param index indice dell'elemento da rimuovere.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return il valore rimosso.
+	 */
+	public double remove(int index) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+		double old = elements[index];
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		size--;
+		return old;
+	}
+
+	// Search Operations
+
+	/**
+	 * Il metodo restituisce l'indice della prima occorrenza del valore specificato.
+	 * @param value valore cercato.
+	 * @return l'indice della prima occorrenza, se non presente restituisce -1.
+	 */
+	public int indexOf(double value) {
+		for (int i = 0; i < size; i++) {
+			if (Double.compare(elements[i], value) == 0) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Il metodo restituisce l'indice dell'ultima occorrenza del valore specificato.
+	 * @param value valore cercato.
+	 * @return l'indice dell'ultima occorrenza, se non presente restituisce -1.
+	 */
+	public int lastIndexOf(double value) {
+		for (int i = size - 1; i >= 0; i--) {
+			if (Double.compare(elements[i], value) == 0) return i;
+		}
+		return -1;
+	}
+
+	// List Iterators
+
+	/**
+	 * Il metodo genera un list iterator posizionato all'inizio dello stack.
+	 * @return l'iteratore agli elementi dello stack.
+	 */
+	public DoubleListIterator listIterator() {
+		return new StackIterator(0);
+	}
+
+	/**
+	 * Il metodo genera un list iterator posizionato all'indice specificato.
+	 * @param index indice del primo elemento restituito da una chiamata di next().
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return l'iteratore posizionato alla posizione specificata.
+	 */
+	public DoubleListIterator listIterator(int index) {
+		if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+		return new StackIterator(index);
+	}
+
+	// stack methods
+
+	/**
+	 * Verifica che lo stack sia vuoto.
+	 * @return true se esso non contiene elementi, altrimenti ritorna false.
+	 */
+	public boolean empty() {
+		return size == 0;
+	}
+
+	/**
+	 * Legge l'elemento sulla cima dello stack, senza rimuoverlo.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'elemento in cima allo stack.
+	 */
+	public double peek() {
+		if (size == 0) throw new EmptyStackException();
+		return elements[size - 1];
+	}
+
+	/**
+	 * Rimuove l'elemento in cima allo stack e lo restituisce.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'elemento in cima allo stack che è stato rimosso.
+	 */
+	public double pop() {
+		if (size == 0) throw new EmptyStackException();
+		return elements[--size];
+	}
+
+	/**
+	 * Inserisce un elemento in cima allo stack.
+	 * @param value elemento da inserire.
+	 * @return l'argomento della funzione.
+	 */
+	public double push(double value) {
+		if (size == elements.length) ensureCapacity(size + 1);
+		elements[size++] = value;
+		return value;
+	}
+
+	/**
+	 * Cerca il valore all'interno dello stack e restituisce la distanza dalla cima della occorrenza più vicina ad essa.
+	 * Se il valore si trova in cima allo stack, la distanza risulta uno.
+	 * @param value il valore desiderato.
+	 * @return la posizione (1-based) dalla cima dello stack, se il valore non viene trovato ritorna -1.
+	 */
+	public int search(double value) {
+		int i = lastIndexOf(value);
+		if (i < 0) return -1;
+		return size - i;
+	}
+
+	/**
+	 * Aumenta la capacità dello stack, se necessario, così che possa contenere almeno minCapacity elementi.
+	 * La capacità raddoppia, senza superare Integer.MAX_VALUE - 8 come in CapacityPolicy, così che anche oltre 2^30
+	 * elementi le crescite restino poche.
+	 * @param minCapacity numero minimo di elementi che lo stack deve poter contenere.
+	 */
+	public void ensureCapacity(int minCapacity) {
+		if (minCapacity <= elements.length) return;
+		long grown = Math.min(elements.length * 2L, Integer.MAX_VALUE - 8);
+		int newCapacity = (int) Math.max(grown, minCapacity);
+		double[] newElements = new double[newCapacity];
+		System.arraycopy(elements, 0, newElements, 0, size);
+		elements = newElements;
+	}
+
+	/**
+	 * Private class dell'iteratore, che implementa DoubleListIterator.
+	 */
+	private class StackIterator implements DoubleListIterator {
+
+		/**
+		 * Posizione del cursore.
+		 */
+		private int cursor;
+
+		/**
+		 * Indice dell'ultimo elemento restituito da next() o previous(); -1 se remove() e set() non sono validi.
+		 */
+		private int lastReturned = -1;
+
+		/**
+		 * Costruttore con parametri.
+		 * @param index posizione iniziale del cursore.
+		 */
+		StackIterator(int index) {
+			cursor = index;
+		}
+
+		public boolean hasNext() {
+			return cursor < size;
+		}
+
+		public double next() {
+			if (cursor >= size) throw new NoSuchElementException();
+			lastReturned = cursor;
+			return elements[cursor++];
+		}
+
+		public boolean hasPrevious() {
+			return cursor > 0;
+		}
+
+		public double previous() {
+			if (cursor <= 0) throw new NoSuchElementException();
+			lastReturned = --cursor;
+			return elements[cursor];
+		}
+
+		public int nextIndex() {
+			return cursor;
+		}
+
+		public int previousIndex() {
+			return cursor - 1;
+		}
+
+		public void remove() {
+			if (lastReturned < 0) throw new IllegalStateException();
+			DoubleStack.this.remove(lastReturned);
+			if (lastReturned < cursor) cursor--;
+			lastReturned = -1;
+		}
+
+		public void set(double value) {
+			if (lastReturned < 0) throw new IllegalStateException();
+			elements[lastReturned] = value;
+		}
+
+		public void add(double value) {
+			DoubleStack.this.add(cursor++, value);
+			lastReturned = -1;
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package myAdapter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ConcurrentStackAdapter con uno strato di <i>elimination backoff</i>.
+ * <p>
+ * Quando la compareAndSet sulla cima fallisce perché un altro thread l'ha modificata, l'operazione non riprova subito:
+ * passa per un array di eliminazione. Un push lascia il proprio elemento in una cella scelta a caso e attende per un
+ * breve tempo; un pop che trova un elemento in una cella lo prende con una compareAndSet sulla cella. In questo modo un
+ * push e un pop concorrenti si annullano a vicenda senza toccare la cima dello stack, che smette di essere un punto di
+ * serializzazione quando il numero di thread cresce. Se nessuno si presenta entro il tempo di attesa, il push ritira il
+ * proprio elemento e riprova sulla cima.
+ * <p>
+ * Un push e un pop eliminati sono equivalenti ad un push immediatamente seguito dal pop dello stesso elemento, quindi
+ * il contratto di push, pop e peek resta quello di StackAdapter. I contatori eliminatedCount() e collisionCount()
+ * usano LongAdder, che distribuisce gli incrementi tra più celle per non diventare essi stessi un punto di contesa.
+ *
+ * @see ConcurrentStackAdapter
+ */
+
+public class EliminationStackAdapter extends ConcurrentStackAdapter {
+
+	/**
+	 * Elemento lasciato da un push in una cella dell'array di eliminazione.
+	 * Ogni offerta è un oggetto distinto, così che il push possa riconoscere la propria anche se la cella è stata
+	 * svuotata e riempita di nuovo da altri thread.
+	 */
+	private static final class Offer {
+		final Object item;
+
+		Offer(Object item) {
+			this.item = item;
+		}
+	}
+
+	/**
+	 * Numero di celle dell'array di eliminazione usato dal costruttore di default.
+	 */
+	static final int DEFAULT_SLOTS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+	/**
+	 * Numero di iterazioni di attesa di un push nell'array di eliminazione usato dal costruttore di default.
+	 */
+	static final int DEFAULT_SPINS = 128;
+
+	/**
+	 * Array di eliminazione: ogni cella è null oppure contiene l'offerta di un push in attesa.
+	 */
+	private final AtomicReferenceArray<Object> slots;
+
+	/**
+	 * Numero di iterazioni per cui un push attende che un pop prenda la sua offerta.
+	 */
+	private final int spins;
+
+	/**
+	 * Numero di operazioni (push e pop) completate tramite l'array di eliminazione.
+	 */
+	private final LongAdder eliminated = new LongAdder();
+
+	/**
+	 * Numero di compareAndSet sulla cima fallite a causa di un altro thread.
+	 */
+	private final LongAdder collisions = new LongAdder();
+
+	/**
+	 * Costruttore: crea uno stack vuoto con un array di eliminazione proporzionato al numero di processori.
+	 */
+	public EliminationStackAdapter() {
+		this(DEFAULT_SLOTS, DEFAULT_SPINS);
+	}
+
+	/**
+	 * Costruttore: crea uno stack vuoto con un array di eliminazione della dimensione specificata.
+	 * @param slots numero di celle dell'array di eliminazione.
+	 * @param spins numero di iterazioni per cui un push attende nell'array di eliminazione.
+	 * @throws IllegalArgumentException se slots non è positivo o spins è negativo.
+	 */
+	public EliminationStackAdapter(int slots, int spins) {
+		if (slots <= 0 || spins < 0) throw new IllegalArgumentException();
+		this.slots = new AtomicReferenceArray<Object>(slots);
+		this.spins = spins;
+	}
+
+	//stack methods
+
+	/**
+	 * Inserisce un elemento in cima allo stack, oppure lo consegna direttamente ad un pop concorrente.
+	 * @param item oggetto da inserire.
+	 * @return l'argomento della funzione.
+	 */
+	public Object push(Object item) {
+		while (!tryPush(item)) {
+			collisions.increment();
+			if (offer(item)) {
+				eliminated.add(2);
+				return item;
+			}
+		}
+		return item;
+	}
+
+	/**
+	 * Rimuove l'oggetto in cima allo stack, oppure prende l'elemento di un push concorrente, e lo restituisce.
+	 * @throws java.util.EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto rimosso.
+	 */
+	public Object pop() {
+		for (;;) {
+			Node top = tryPop();
+			if (top != null) return top.item;
+			collisions.increment();
+			Offer offer = take();
+			if (offer != null) return offer.item;
+		}
+	}
+
+	/**
+	 * Numero di operazioni completate senza toccare la cima dello stack. Ogni eliminazione conta due operazioni:
+	 * il push e il pop che si sono incontrati.
+	 * @return numero di operazioni eliminate dalla creazione dello stack.
+	 */
+	public long eliminatedCount() {
+		return eliminated.sum();
+	}
+
+	/**
+	 * Numero di tentativi di push o pop falliti perché un altro thread aveva modificato la cima.
+	 * @return numero di collisioni sulla cima dalla creazione dello stack.
+	 */
+	public long collisionCount() {
+		return collisions.sum();
+	}
+
+	/**
+	 * Lascia l'elemento in una cella libera dell'array di eliminazione e attende che un pop lo prenda.
+	 * @param item elemento offerto.
+	 * @return true se un pop ha preso l'elemento, false se l'offerta è stata ritirata.
+	 */
+	private boolean offer(Object item) {
+		int i = ThreadLocalRandom.current().nextInt(slots.length());
+		Offer offer = new Offer(item);
+		if (!slots.compareAndSet(i, null, offer)) return false;
+		for (int n = 0; n < spins; n++) {
+			if (slots.get(i) != offer) return true;
+			Thread.onSpinWait();
+		}
+		// Se la cella non contiene più la nostra offerta, un pop l'ha presa prima del ritiro.
+		return !slots.compareAndSet(i, offer, null);
+	}
+
+	/**
+	 * Prende l'offerta presente in una cella dell'array di eliminazione, se c'è.
+	 * @return l'offerta presa, oppure null se la cella era vuota o un altro pop l'ha presa prima.
+	 */
+	private Offer take() {
+		int i = ThreadLocalRandom.current().nextInt(slots.length());
+		Object offer = slots.get(i);
+		if (offer != null && slots.compareAndSet(i, offer, null)) {
+			return (Offer) offer;
+		}
+		return null;
+	}
+}
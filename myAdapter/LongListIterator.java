@@ -0,0 +1,87 @@
+package myAdapter;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Generato da templates/TypeListIterator.template tramite templates/generate.sh: non modificare a mano.
+ * <p>
+ * Iteratore bidirezionale per gli elementi di tipo long di uno {@link LongStack}, con lo stesso contratto di
+ * {@link HListIterator}, ma senza boxing degli elementi.
+ * Il cursore si trova sempre tra l'elemento che verrebbe restituito da previous() e quello che verrebbe restituito
+ * da next().
+ *
+ * @see HListIterator
+ * @see LongStack
+ */
+
+public interface LongListIterator {
+
+    /**
+     * Verifica se ci sono elementi proseguendo in avanti lungo lo stack.
+     *
+     * @return true se next() restituirebbe un elemento, false altrimenti.
+     */
+    boolean hasNext();
+
+    /**
+     * Restituisce l'elemento successivo al cursore e sposta il cursore in avanti.
+     *
+     * @return l'elemento successivo.
+     * @exception NoSuchElementException se il cursore è alla fine dello stack.
+     */
+    long next();
+
+    /**
+     * Verifica se ci sono elementi che precedono il cursore.
+     *
+     * @return true se previous() restituirebbe un elemento, false altrimenti.
+     */
+    boolean hasPrevious();
+
+    /**
+     * Restituisce l'elemento che precede il cursore e sposta il cursore indietro.
+     *
+     * @return l'elemento precedente.
+     * @exception NoSuchElementException se il cursore è all'inizio dello stack.
+     */
+    long previous();
+
+    /**
+     * Restituisce l'indice dell'elemento che verrebbe restituito da next().
+     *
+     * @return l'indice del cursore, oppure size() se il cursore è alla fine dello stack.
+     */
+    int nextIndex();
+
+    /**
+     * Restituisce l'indice dell'elemento che verrebbe restituito da previous().
+     *
+     * @return l'indice precedente al cursore, oppure -1 se il cursore è all'inizio dello stack.
+     */
+    int previousIndex();
+
+    /**
+     * Rimuove l'ultimo elemento restituito da next() o previous().
+     *
+     * @exception IllegalStateException se né next() né previous() sono stati chiamati, oppure se dopo l'ultima
+     *                                  chiamata sono stati invocati remove() o add().
+     */
+    void remove();
+
+    /**
+     * Sostituisce l'ultimo elemento restituito da next() o previous().
+     *
+     * @param value il nuovo valore.
+     * @exception IllegalStateException se né next() né previous() sono stati chiamati, oppure se dopo l'ultima
+     *                                  chiamata sono stati invocati remove() o add().
+     */
+    void set(long value);
+
+    /**
+     * Inserisce l'elemento nella posizione del cursore: una successiva chiamata a next() non viene influenzata,
+     * mentre previous() restituirebbe il nuovo elemento.
+     *
+     * @param value elemento da inserire.
+     */
+    void add(long value);
+}
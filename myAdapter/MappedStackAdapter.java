@@ -0,0 +1,382 @@
+package myAdapter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.EmptyStackException;
+
+/**
+ * Stack persistente, salvato in un file mappato in memoria, con gli stessi metodi di stack di StackAdapter
+ * (push, pop, peek, search, size, empty).
+ * <p>
+ * Gli elementi vengono codificati da un {@link RecordCodec} in record di larghezza fissa. Il file è composto da
+ * un'intestazione di HEADER_SIZE byte, seguita dai record raggruppati in blocchi (chunk) di dimensione fissa: ogni
+ * blocco viene mappato con FileChannel.map quando lo stack cresce, così il file si allunga un blocco alla volta e un
+ * record non si trova mai a cavallo di due blocchi.
+ * <p>
+ * L'intestazione contiene, tra l'altro, il numero di elementi dello stack (la cima). push scrive prima il record e
+ * solo dopo aggiorna il numero di elementi, con una singola scrittura allineata di 8 byte; pop aggiorna solo il numero
+ * di elementi. Se il processo termina in qualsiasi momento, il file contiene quindi uno stack valido: quello prima o
+ * quello dopo l'ultima operazione. Per avere la stessa garanzia anche in caso di caduta del sistema operativo si apre
+ * lo stack in modalità durable, che forza su disco il record prima di aggiornare l'intestazione (più lento), oppure
+ * si chiama sync() nei punti in cui serve.
+ * <p>
+ * Riaprire uno stack costa O(1) rispetto al numero di elementi: si legge l'intestazione e si mappano i blocchi, senza
+ * leggere né ricostruire i record. La classe non è thread-safe e un file non deve essere aperto da due istanze.
+ *
+ * @see RecordCodec
+ * @see StackAdapter
+ */
+
+public class MappedStackAdapter implements Closeable {
+
+	/**
+	 * Valore che identifica i file creati da questa classe.
+	 */
+	static final int MAGIC = 0x4D53544B;
+
+	/**
+	 * Versione del formato del file.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * Dimensione dell'intestazione; i record iniziano a questo offset.
+	 */
+	static final int HEADER_SIZE = 4096;
+
+	/**
+	 * Dimensione indicativa di un blocco di record, usata dal costruttore di default.
+	 */
+	static final int DEFAULT_CHUNK_BYTES = 64 * 1024 * 1024;
+
+	// Offset dei campi dell'intestazione
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int WIDTH_OFFSET = 8;
+	private static final int CHUNK_RECORDS_OFFSET = 12;
+	private static final int SIZE_OFFSET = 16;
+
+	/**
+	 * Codifica degli elementi.
+	 */
+	private final RecordCodec codec;
+
+	/**
+	 * Numero di byte occupati da ogni elemento.
+	 */
+	private final int width;
+
+	/**
+	 * Numero di record contenuti in un blocco.
+	 */
+	private final int chunkRecords;
+
+	/**
+	 * Se true, ogni modifica viene forzata su disco prima di essere resa visibile nell'intestazione.
+	 */
+	private final boolean durable;
+
+	private RandomAccessFile file;
+	private FileChannel channel;
+
+	/**
+	 * Mappatura dell'intestazione; vale null dopo la chiusura.
+	 */
+	private MappedByteBuffer header;
+
+	/**
+	 * Mappature dei blocchi di record; solo le prime chunkCount sono valide.
+	 */
+	private MappedByteBuffer[] chunks;
+	private int chunkCount;
+
+	/**
+	 * Numero di elementi, copia in memoria del valore salvato nell'intestazione.
+	 */
+	private long size;
+
+	/**
+	 * Apre lo stack salvato nel file, oppure lo crea se il file non esiste o è vuoto.
+	 * @param file file che contiene lo stack.
+	 * @param codec codifica degli elementi.
+	 * @throws IOException se il file non può essere aperto o non contiene uno stack compatibile con la codifica.
+	 */
+	public MappedStackAdapter(File file, RecordCodec codec) throws IOException {
+		this(file, codec, false);
+	}
+
+	/**
+	 * Apre lo stack salvato nel file, oppure lo crea se il file non esiste o è vuoto.
+	 * @param file file che contiene lo stack.
+	 * @param codec codifica degli elementi.
+	 * @param durable se true, ogni modifica viene forzata su disco prima di aggiornare l'intestazione.
+	 * @throws IOException se il file non può essere aperto o non contiene uno stack compatibile con la codifica.
+	 */
+	public MappedStackAdapter(File file, RecordCodec codec, boolean durable) throws IOException {
+		this(file, codec, durable, DEFAULT_CHUNK_BYTES);
+	}
+
+	/**
+	 * Apre lo stack salvato nel file, oppure lo crea se il file non esiste o è vuoto.
+	 * @param file file che contiene lo stack.
+	 * @param codec codifica degli elementi.
+	 * @param durable se true, ogni modifica viene forzata su disco prima di aggiornare l'intestazione.
+	 * @param chunkBytes dimensione indicativa dei blocchi di un nuovo file; un file esistente mantiene i propri.
+	 * @throws IOException se il file non può essere aperto o non contiene uno stack compatibile con la codifica.
+	 */
+	public MappedStackAdapter(File file, RecordCodec codec, boolean durable, int chunkBytes) throws IOException {
+		if (file == null || codec == null) throw new NullPointerException();
+		if (codec.width() <= 0 || chunkBytes <= 0) throw new IllegalArgumentException();
+		this.codec = codec;
+		this.width = codec.width();
+		this.durable = durable;
+		this.file = new RandomAccessFile(file, "rw");
+		try {
+			this.channel = this.file.getChannel();
+			boolean created = channel.size() == 0;
+			if (!created && channel.size() < HEADER_SIZE) throw new IOException("Not a stack file: " + file);
+			header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+			if (created) {
+				header.putInt(MAGIC_OFFSET, MAGIC);
+				header.putInt(VERSION_OFFSET, VERSION);
+				header.putInt(WIDTH_OFFSET, width);
+				header.putInt(CHUNK_RECORDS_OFFSET, Math.max(1, chunkBytes / width));
+				header.putLong(SIZE_OFFSET, 0);
+				header.force();
+			} else if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+				throw new IOException("Not a stack file: " + file);
+			} else if (header.getInt(WIDTH_OFFSET) != width) {
+				throw new IOException("Record width " + header.getInt(WIDTH_OFFSET) + " does not match codec width " + width);
+			}
+			chunkRecords = header.getInt(CHUNK_RECORDS_OFFSET);
+			size = header.getLong(SIZE_OFFSET);
+			long dataBytes = channel.size() - HEADER_SIZE;
+			if (chunkRecords <= 0 || chunkRecords > Integer.MAX_VALUE / width || size < 0 || size > dataBytes / width) {
+				throw new IOException("Corrupted stack file: " + file);
+			}
+			chunks = new MappedByteBuffer[4];
+			long existing = (dataBytes + chunkBytes() - 1) / chunkBytes();
+			for (long i = 0; i < existing; i++) {
+				mapChunk();
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	// Query Operations
+
+	/**
+	 * Il metodo ritorna la dimensione dello stack.
+	 * @throws IllegalStateException se lo stack contiene più di Integer.MAX_VALUE elementi; in tal caso si usa longSize().
+	 * @return il numero di elementi nello stack.
+	 */
+	public int size() {
+		long n = longSize();
+		if (n > Integer.MAX_VALUE) throw new IllegalStateException("size exceeds Integer.MAX_VALUE");
+		return (int) n;
+	}
+
+	/**
+	 * Il metodo ritorna la dimensione dello stack, anche oltre Integer.MAX_VALUE.
+	 * @return il numero di elementi nello stack.
+	 */
+	public long longSize() {
+		checkOpen();
+		return size;
+	}
+
+	/**
+	 * Verifica se lo stack è vuoto.
+	 * @return true se è vuoto, false altrimenti.
+	 */
+	public boolean isEmpty() {
+		return longSize() == 0;
+	}
+
+	/**
+	 * Decodifica l'elemento corrispondente allo specifico index, contato dal fondo dello stack.
+	 * @param index indice dell'elemento da restituire.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return l'elemento posizionato nell'indice passato come parametro.
+	 */
+	public Object get(long index) {
+		checkOpen();
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+		return codec.decode(chunk(index), offset(index));
+	}
+
+	/**
+	 * Elimina tutti gli elementi dello stack. Il file mantiene la sua dimensione.
+	 */
+	public void clear() {
+		checkOpen();
+		writeSize(0);
+	}
+
+	//stack methods
+
+	/**
+	 * Verifica che lo stack sia vuoto.
+	 * @return true se esso non contiene elementi, altrimenti ritorna false.
+	 */
+	public boolean empty() {
+		return isEmpty();
+	}
+
+	/**
+	 * Decodifica l'oggetto sulla cima dello stack, senza rimuoverlo.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto in cima allo stack.
+	 */
+	public Object peek() {
+		checkOpen();
+		if (size == 0) throw new EmptyStackException();
+		return codec.decode(chunk(size - 1), offset(size - 1));
+	}
+
+	/**
+	 * Rimuove l'oggetto in cima allo stack e lo restituisce.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto in cima allo stack che è stato rimosso.
+	 */
+	public Object pop() {
+		Object top = peek();
+		writeSize(size - 1);
+		return top;
+	}
+
+	/**
+	 * Codifica un elemento in cima allo stack e poi aggiorna l'intestazione.
+	 * @param item oggetto da inserire.
+	 * @throws NullPointerException se l'elemento è null.
+	 * @throws UncheckedIOException se il file non può essere allungato.
+	 * @return l'argomento della funzione.
+	 */
+	public Object push(Object item) {
+		if (item == null) throw new NullPointerException();
+		checkOpen();
+		long index = size;
+		if (index == (long) chunkCount * chunkRecords) {
+			try {
+				mapChunk();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		MappedByteBuffer chunk = chunk(index);
+		codec.encode(item, chunk, offset(index));
+		if (durable) chunk.force();
+		writeSize(index + 1);
+		return item;
+	}
+
+	/**
+	 * Cerca l'oggetto nello stack e restituisce la distanza dalla cima della occorrenza più vicina ad essa.
+	 * Se l'oggetto si trova in cima allo stack, la distanza risulta uno.
+	 * @param o l'oggetto desiderato.
+	 * @return la posizione (1-based) dalla cima dello stack, se l'oggetto non viene trovato ritorna -1.
+	 */
+	public int search(Object o) {
+		checkOpen();
+		if (o == null) return -1;
+		ByteBuffer probe = ByteBuffer.allocate(width);
+		try {
+			codec.encode(o, probe, 0);
+		} catch (ClassCastException e) {
+			return -1;
+		}
+		for (long i = size - 1; i >= 0 && size - i <= Integer.MAX_VALUE; i--) {
+			if (DirectMemory.equalBytes(chunk(i), offset(i), probe, 0, width)) return (int) (size - i);
+		}
+		return -1;
+	}
+
+	/**
+	 * Forza su disco tutti i record e l'intestazione.
+	 */
+	public void sync() {
+		checkOpen();
+		for (int i = 0; i < chunkCount; i++) {
+			chunks[i].force();
+		}
+		header.force();
+	}
+
+	/**
+	 * Forza su disco le modifiche, rilascia le mappature e chiude il file. Chiamate successive non hanno effetto.
+	 * @throws IOException se il file non può essere chiuso.
+	 */
+	public void close() throws IOException {
+		if (header != null) {
+			sync();
+		}
+		for (int i = 0; i < chunkCount; i++) {
+			DirectMemory.free(chunks[i]);
+			chunks[i] = null;
+		}
+		chunkCount = 0;
+		DirectMemory.free(header);
+		header = null;
+		if (file != null) {
+			file.close();
+			file = null;
+			channel = null;
+		}
+	}
+
+	/**
+	 * Mappa il blocco successivo all'ultimo, allungando il file se necessario.
+	 */
+	private void mapChunk() throws IOException {
+		if (chunkCount == chunks.length) {
+			MappedByteBuffer[] newChunks = new MappedByteBuffer[chunks.length * 2];
+			System.arraycopy(chunks, 0, newChunks, 0, chunkCount);
+			chunks = newChunks;
+		}
+		long position = HEADER_SIZE + (long) chunkCount * chunkBytes();
+		chunks[chunkCount] = channel.map(FileChannel.MapMode.READ_WRITE, position, chunkBytes());
+		chunkCount++;
+	}
+
+	/**
+	 * Aggiorna il numero di elementi, in memoria e nell'intestazione.
+	 */
+	private void writeSize(long newSize) {
+		size = newSize;
+		header.putLong(SIZE_OFFSET, newSize);
+		if (durable) header.force();
+	}
+
+	private int chunkBytes() {
+		return chunkRecords * width;
+	}
+
+	/**
+	 * Blocco che contiene il record di indice index.
+	 */
+	private MappedByteBuffer chunk(long index) {
+		return chunks[(int) (index / chunkRecords)];
+	}
+
+	/**
+	 * Offset del record di indice index all'interno del suo blocco.
+	 */
+	private int offset(long index) {
+		return (int) (index % chunkRecords) * width;
+	}
+
+	/**
+	 * @throws IllegalStateException se lo stack è stato chiuso.
+	 */
+	private void checkOpen() {
+		if (header == null) throw new IllegalStateException("stack closed");
+	}
+}
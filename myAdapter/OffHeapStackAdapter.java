@@ -0,0 +1,666 @@
+package myAdapter;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.EmptyStackException;
+import java.util.NoSuchElementException;
+
+/**
+ * Stack che implementa le interfacce HList e HCollection mantenendo gli elementi fuori dallo heap.
+ * <p>
+ * Ogni elemento viene codificato da un {@link RecordCodec} in un record di larghezza fissa, all'interno di un
+ * ByteBuffer diretto: lo heap contiene solo questo oggetto, quindi anche decine di milioni di elementi non pesano sul
+ * garbage collector. push, pop, peek e get codificano e decodificano l'elemento direttamente nella memoria nativa; gli
+ * elementi vengono confrontati byte per byte, senza decodificarli.
+ * Quando lo spazio finisce, viene allocato un buffer di capacità doppia e il buffer precedente viene liberato subito.
+ * <p>
+ * La memoria viene liberata in modo deterministico da close(); dopo la chiusura ogni operazione lancia
+ * IllegalStateException. Gli elementi null non possono essere codificati e non sono ammessi.
+ * Come StackAdapter, la classe non è thread-safe.
+ *
+ * @see RecordCodec
+ * @see StackAdapter
+ */
+
+public class OffHeapStackAdapter implements HList, HCollection, Closeable {
+
+	/**
+	 * Codifica degli elementi.
+	 */
+	private final RecordCodec codec;
+
+	/**
+	 * Numero di byte occupati da ogni elemento.
+	 */
+	private final int width;
+
+	/**
+	 * Memoria nativa che contiene i record; l'elemento di indice i occupa i byte [i*width, (i+1)*width).
+	 * Vale null dopo la chiusura.
+	 */
+	private ByteBuffer data;
+
+	/**
+	 * Numero di elementi presenti nello stack.
+	 */
+	private int size;
+
+	/**
+	 * Numero di elementi che data può contenere.
+	 */
+	private int capacity;
+
+	/**
+	 * Costruttore: crea uno stack vuoto con la capacità iniziale di default.
+	 * @param codec codifica degli elementi.
+	 * @throws NullPointerException se la codifica non è valida.
+	 */
+	public OffHeapStackAdapter(RecordCodec codec) {
+		this(codec, 16);
+	}
+
+	/**
+	 * Costruttore: crea uno stack vuoto in grado di contenere initialCapacity elementi prima di dover crescere.
+	 * @param codec codifica degli elementi.
+	 * @param initialCapacity numero iniziale di record allocati.
+	 * @throws NullPointerException se la codifica non è valida.
+	 * @throws IllegalArgumentException se la capacità è negativa o la larghezza della codifica non è positiva.
+	 */
+	public OffHeapStackAdapter(RecordCodec codec, int initialCapacity) {
+		if (codec == null) throw new NullPointerException();
+		if (initialCapacity < 0 || codec.width() <= 0) throw new IllegalArgumentException();
+		this.codec = codec;
+		this.width = codec.width();
+		this.capacity = Math.max(initialCapacity, 1);
+		this.data = DirectMemory.allocate(bytes(capacity));
+		this.size = 0;
+	}
+
+	// Query Operations
+
+	/**
+	 * Verifica se lo stack è vuoto.
+	 * @return true se è vuoto, false altrimenti.
+	 */
+	public boolean isEmpty() {
+		checkOpen();
+		return size == 0;
+	}
+
+	/**
+	 * Il metodo ritorna la dimensione dello stack.
+	 * @return il numero di elementi nello stack.
+	 */
+	public int size() {
+		checkOpen();
+		return size;
+	}
+
+	/**
+	 * Ricerca all'interno dello stack l'oggetto obj.
+	 * @param obj elemento che viene ricercato.
+	 * @return true se esso è nello stack, altrimenti false.
+	 */
+	public boolean contains(Object obj) {
+		return indexOf(obj) >= 0;
+	}
+
+	/**
+	 * Crea un iteratore, che punta al primo elemento dello stack.
+	 * @return iteratore.
+	 */
+	public HIterator iterator() {
+		return listIterator(0);
+	}
+
+	/**
+	 * Crea un array contenente gli elementi decodificati dello stack, dal fondo alla cima.
+	 * @return array di tipo Object.
+	 */
+	public Object[] toArray() {
+		checkOpen();
+		Object[] array = new Object[size];
+		for (int i = 0; i < size; i++) {
+			array[i] = codec.decode(data, bytes(i));
+		}
+		return array;
+	}
+
+	/**
+	 * Copia gli elementi decodificati dello stack all'interno dell'array fornito come parametro.
+	 * Se esso non è sufficientemente grande, viene creato un nuovo array; se è più grande, le celle rimanenti vengono
+	 * riempite con null.
+	 * @param arrayTarget array in cui verranno copiati gli elementi.
+	 * @throws NullPointerException se l'argomento inserito non è valido.
+	 * @return l'array che contiene gli elementi.
+	 */
+	public Object[] toArray(Object arrayTarget[]) {
+		if (arrayTarget == null) throw new NullPointerException();
+		checkOpen();
+		if (arrayTarget.length < size) return toArray();
+		for (int i = 0; i < size; i++) {
+			arrayTarget[i] = codec.decode(data, bytes(i));
+		}
+		for (int i = size; i < arrayTarget.length; i++) {
+			arrayTarget[i] = null;
+		}
+		return arrayTarget;
+	}
+
+	// Modification Operations
+
+	/**
+	 * Aggiunge un elemento in cima allo stack.
+	 * @param obj elemento da inserire.
+	 * @throws NullPointerException se l'elemento è null.
+	 * @return true ad azione compiuta.
+	 */
+	public boolean add(Object obj) {
+		push(obj);
+		return true;
+	}
+
+	/**
+	 * Rimuove la prima occorrenza dell'oggetto obj. Se esso non è presente, lo stack rimane invariato.
+	 * @param obj elemento da rimuovere.
+	 * @return true se l'elemento era presente, altrimenti false.
+	 */
+	public boolean remove(Object obj) {
+		int index = indexOf(obj);
+		if (index < 0) return false;
+		remove(index);
+		return true;
+	}
+
+	// Bulk Modification Operations
+
+	/**
+	 * Verifica che tutti gli elementi della collezione specificata siano presenti nello stack.
+	 * @param coll collezione di elementi che vengono cercati.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se tutti gli elementi sono presenti, altrimenti false.
+	 */
+	public boolean containsAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		HIterator it = coll.iterator();
+		while (it.hasNext()) {
+			if (!contains(it.next())) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Aggiunge in cima allo stack tutti gli elementi della collezione specificata, allocando lo spazio una sola volta.
+	 * @param coll collezione i cui elementi verranno inseriti.
+	 * @throws NullPointerException se l'argomento della funzione non è valido o contiene elementi null.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean addAll(HCollection coll) {
+		return addAll(size(), coll);
+	}
+
+	/**
+	 * Inserisce gli elementi della collezione specificata a partire dall'indice index, spostando una sola volta gli
+	 * elementi successivi.
+	 * @param index indice di partenza.
+	 * @param coll collezione contenente gli elementi che verranno inseriti.
+	 * @throws NullPointerException se la collezione non è valida o contiene elementi null.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean addAll(int index, HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		checkOpen();
+		if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+		Object[] array = coll.toArray();
+		int n = array.length;
+		if (n == 0) return false;
+		for (int i = 0; i < n; i++) {
+			if (array[i] == null) throw new NullPointerException();
+		}
+		ensureCapacity(size + n);
+		move(index, index + n, size - index);
+		try {
+			for (int i = 0; i < n; i++) {
+				codec.encode(array[i], data, bytes(index + i));
+			}
+		} catch (RuntimeException e) {
+			move(index + n, index, size - index);
+			throw e;
+		}
+		size += n;
+		return true;
+	}
+
+	/**
+	 * Elimina dallo stack tutti gli elementi contenuti nella collezione specificata, compattando i record in un solo
+	 * passaggio.
+	 * @param coll collezione i cui elementi verranno rimossi.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean removeAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		return compact(coll, false);
+	}
+
+	/**
+	 * Rimuove dallo stack tutti gli elementi che non sono presenti nella collezione specificata, compattando i record
+	 * in un solo passaggio.
+	 * @param coll collezione di elementi da mantenere.
+	 * @throws NullPointerException se l'argomento della funzione non è valido.
+	 * @return true se lo stack è stato modificato, altrimenti false.
+	 */
+	public boolean retainAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		return compact(coll, true);
+	}
+
+	/**
+	 * Elimina tutti gli elementi dello stack. La memoria allocata non viene liberata.
+	 */
+	public void clear() {
+		checkOpen();
+		size = 0;
+	}
+
+	// Comparison and hashing
+
+	/**
+	 * Due OffHeapStackAdapter sono uguali se contengono gli stessi elementi nello stesso ordine.
+	 * Se usano la stessa codifica, il confronto avviene direttamente sui byte.
+	 * @param obj oggetto che viene comparato.
+	 * @return true se e solo se i due oggetti sono equivalenti, altrimenti false.
+	 */
+	public boolean equals(Object obj) {
+		if (obj == this) return true;
+		if (obj == null || obj.getClass() != getClass()) return false;
+		OffHeapStackAdapter other = (OffHeapStackAdapter) obj;
+		checkOpen();
+		other.checkOpen();
+		if (other.size != size) return false;
+		if (other.codec == codec) {
+			return DirectMemory.equalBytes(data, 0, other.data, 0, bytes(size));
+		}
+		for (int i = 0; i < size; i++) {
+			if (!get(i).equals(other.get(i))) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Ritorna l'hashcode dello stack, calcolato come quello di una lista degli elementi decodificati.
+	 * @return l'hashcode corrispondente allo stack.
+	 */
+	public int hashCode() {
+		checkOpen();
+		int hash = 1;
+		for (int i = 0; i < size; i++) {
+			hash = 31 * hash + codec.decode(data, bytes(i)).hashCode();
+		}
+		return hash;
+	}
+
+	// Positional Access Operations
+
+	/**
+	 * Decodifica l'elemento corrispondente allo specifico index.
+	 * @param index indice dell'elemento da restituire.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return l'elemento posizionato nell'indice passato come parametro.
+	 */
+	public Object get(int index) {
+		checkOpen();
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+		return codec.decode(data, bytes(index));
+	}
+
+	/**
+	 * Sostituisce l'elemento presente nell'indice specificato, codificandolo al posto del precedente.
+	 * @param index indice dell'elemento da sostituire.
+	 * @param element elemento da inserire.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @throws NullPointerException se l'elemento è null.
+	 * @return l'elemento che si trovava precedentemente nella posizione index.
+	 */
+	public Object set(int index, Object element) {
+		if (element == null) throw new NullPointerException();
+		Object old = get(index);
+		codec.encode(element, data, bytes(index));
+		return old;
+	}
+
+	/**
+	 * Inserisce l'elemento nell'index specificato, shiftando a dx i record successivi.
+	 * @param index indice di inserimento.
+	 * @param element elemento da inserire.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @throws NullPointerException se l'elemento è null.
+	 */
+	public void add(int index, Object element) {
+		if (element == null) throw new NullPointerException();
+		checkOpen();
+		if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+		ensureCapacity(size + 1);
+		move(index, index + 1, size - index);
+		try {
+			codec.encode(element, data, bytes(index));
+		} catch (RuntimeException e) {
+			move(index + 1, index, size - index);
+			throw e;
+		}
+		size++;
+	}
+
+	/**
+	 * Rimuove l'elemento nella posizione specificata, shiftando a sx i record successivi.
+	 * @param index indice dell'elemento da rimuovere.
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return l'elemento rimosso.
+	 */
+	public Object remove(int index) {
+		Object old = get(index);
+		move(index + 1, index, size - index - 1);
+		size--;
+		return old;
+	}
+
+	// Search Operations
+
+	/**
+	 * Il metodo restituisce l'indice della prima occorrenza dell'elemento specificato.
+	 * @param obj elemento che viene cercato.
+	 * @return l'indice della prima occorrenza, se non presente restituisce -1.
+	 */
+	public int indexOf(Object obj) {
+		checkOpen();
+		ByteBuffer probe = probe(obj);
+		if (probe == null) return -1;
+		for (int i = 0; i < size; i++) {
+			if (DirectMemory.equalBytes(data, bytes(i), probe, 0, width)) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Il metodo ritorna l'indice dell'ultima occorrenza dell'elemento specificato.
+	 * @param obj elemento che viene cercato.
+	 * @return l'indice dell'ultima occorrenza, se non presente restituisce -1.
+	 */
+	public int lastIndexOf(Object obj) {
+		checkOpen();
+		ByteBuffer probe = probe(obj);
+		if (probe == null) return -1;
+		for (int i = size - 1; i >= 0; i--) {
+			if (DirectMemory.equalBytes(data, bytes(i), probe, 0, width)) return i;
+		}
+		return -1;
+	}
+
+	// List Iterators
+
+	/**
+	 * Il metodo genera un list iterator degli elementi dello stack.
+	 * @return l'iteratore agli elementi dello stack.
+	 */
+	public HListIterator listIterator() {
+		return listIterator(0);
+	}
+
+	/**
+	 * Il metodo genera un list iterator posizionato all'indice specificato.
+	 * @param index indice del primo elemento restituito da una chiamata di next().
+	 * @throws IndexOutOfBoundsException se l'indice non è valido.
+	 * @return l'iteratore posizionato alla posizione specificata.
+	 */
+	public HListIterator listIterator(int index) {
+		checkOpen();
+		if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+		return new StackIterator(index);
+	}
+
+	// View
+
+	/**
+	 * Operazione non supportata: una vista condividerebbe la memoria nativa, che può essere liberata da close() in
+	 * qualsiasi momento. Per ottenere una copia degli elementi si usa toArray().
+	 * @throws UnsupportedOperationException sempre.
+	 */
+	public HList subList(int fromIndex, int toIndex) {
+		throw new UnsupportedOperationException();
+	}
+
+	//stack methods
+
+	/**
+	 * Verifica che lo stack sia vuoto.
+	 * @return true se esso non contiene elementi, altrimenti ritorna false.
+	 */
+	public boolean empty() {
+		return isEmpty();
+	}
+
+	/**
+	 * Decodifica l'oggetto sulla cima dello stack, senza rimuoverlo.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto in cima allo stack.
+	 */
+	public Object peek() {
+		checkOpen();
+		if (size == 0) throw new EmptyStackException();
+		return codec.decode(data, bytes(size - 1));
+	}
+
+	/**
+	 * Rimuove l'oggetto in cima allo stack e lo restituisce.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto in cima allo stack che è stato rimosso.
+	 */
+	public Object pop() {
+		Object top = peek();
+		size--;
+		return top;
+	}
+
+	/**
+	 * Codifica un elemento in cima allo stack.
+	 * @param item oggetto da inserire.
+	 * @throws NullPointerException se l'elemento è null.
+	 * @return l'argomento della funzione.
+	 */
+	public Object push(Object item) {
+		if (item == null) throw new NullPointerException();
+		checkOpen();
+		if (size == capacity) ensureCapacity(size + 1);
+		codec.encode(item, data, bytes(size));
+		size++;
+		return item;
+	}
+
+	/**
+	 * Cerca l'oggetto nello stack e restituisce la distanza dalla cima della occorrenza più vicina ad essa.
+	 * Se l'oggetto si trova in cima allo stack, la distanza risulta uno.
+	 * @param o l'oggetto desiderato.
+	 * @return la posizione (1-based) dalla cima dello stack, se l'oggetto non viene trovato ritorna -1.
+	 */
+	public int search(Object o) {
+		int i = lastIndexOf(o);
+		if (i < 0) return -1;
+		return size - i;
+	}
+
+	/**
+	 * Libera la memoria nativa dello stack. Chiamate successive non hanno effetto.
+	 */
+	public void close() {
+		if (data == null) return;
+		ByteBuffer old = data;
+		data = null;
+		size = 0;
+		capacity = 0;
+		DirectMemory.free(old);
+	}
+
+	/**
+	 * Numero di byte di memoria nativa attualmente allocati dallo stack.
+	 * @return dimensione del buffer, 0 dopo la chiusura.
+	 */
+	public long allocatedBytes() {
+		return (data == null) ? 0 : data.capacity();
+	}
+
+	/**
+	 * Aumenta la capacità, raddoppiandola, così che lo stack possa contenere almeno minCapacity elementi.
+	 * Il buffer precedente viene liberato subito dopo la copia.
+	 * @param minCapacity numero minimo di elementi.
+	 * @throws OutOfMemoryError se i record non possono essere contenuti in un singolo buffer.
+	 */
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity <= capacity) return;
+		long newCapacity = Math.max((long) capacity * 2, minCapacity);
+		long maxCapacity = Integer.MAX_VALUE / width;
+		if (minCapacity > maxCapacity) throw new OutOfMemoryError("Off-heap stack too large");
+		if (newCapacity > maxCapacity) newCapacity = maxCapacity;
+		ByteBuffer newData = DirectMemory.allocate(bytes((int) newCapacity));
+		ByteBuffer src = data.duplicate();
+		src.position(0);
+		src.limit(bytes(size));
+		newData.put(src);
+		ByteBuffer old = data;
+		data = newData;
+		capacity = (int) newCapacity;
+		DirectMemory.free(old);
+	}
+
+	/**
+	 * Sposta count record dalla posizione from alla posizione to, anche se le due zone si sovrappongono.
+	 */
+	private void move(int from, int to, int count) {
+		if (count <= 0 || from == to) return;
+		int src = bytes(from);
+		int dst = bytes(to);
+		int len = bytes(count);
+		if (dst < src) {
+			int i = 0;
+			for (; i + 8 <= len; i += 8) data.putLong(dst + i, data.getLong(src + i));
+			for (; i < len; i++) data.put(dst + i, data.get(src + i));
+		} else {
+			int i = len;
+			for (; i >= 8; i -= 8) data.putLong(dst + i - 8, data.getLong(src + i - 8));
+			for (; i > 0; i--) data.put(dst + i - 1, data.get(src + i - 1));
+		}
+	}
+
+	/**
+	 * Rimuove in un solo passaggio gli elementi che sono (retain false) o non sono (retain true) contenuti nella
+	 * collezione, spostando i record mantenuti verso il fondo.
+	 */
+	private boolean compact(HCollection coll, boolean retain) {
+		checkOpen();
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			if (coll.contains(codec.decode(data, bytes(i))) == retain) {
+				if (kept != i) move(i, kept, 1);
+				kept++;
+			}
+		}
+		boolean changed = kept != size;
+		size = kept;
+		return changed;
+	}
+
+	/**
+	 * Codifica l'elemento cercato in un buffer temporaneo, per confrontarlo con i record.
+	 * @return il buffer, oppure null se l'elemento non può essere codificato e quindi non può essere nello stack.
+	 */
+	private ByteBuffer probe(Object obj) {
+		if (obj == null) return null;
+		ByteBuffer probe = ByteBuffer.allocate(width).order(ByteOrder.nativeOrder());
+		try {
+			codec.encode(obj, probe, 0);
+		} catch (ClassCastException e) {
+			return null;
+		}
+		return probe;
+	}
+
+	/**
+	 * Offset in byte del record di indice index.
+	 */
+	private int bytes(int index) {
+		return index * width;
+	}
+
+	/**
+	 * @throws IllegalStateException se lo stack è stato chiuso.
+	 */
+	private void checkOpen() {
+		if (data == null) throw new IllegalStateException("stack closed");
+	}
+
+	/**
+	 * Private class dell'iteratore, che implementa le interfacce HListIterator e HIterator.
+	 */
+	private class StackIterator implements HListIterator {
+
+		/**
+		 * Posizione del cursore.
+		 */
+		private int cursor;
+
+		/**
+		 * Indice dell'ultimo elemento restituito da next() o previous(); -1 se remove() e set() non sono validi.
+		 */
+		private int lastReturned = -1;
+
+		StackIterator(int index) {
+			cursor = index;
+		}
+
+		public boolean hasNext() {
+			return cursor < size();
+		}
+
+		public Object next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			lastReturned = cursor;
+			return get(cursor++);
+		}
+
+		public boolean hasPrevious() {
+			return cursor > 0;
+		}
+
+		public Object previous() {
+			if (!hasPrevious()) throw new NoSuchElementException();
+			lastReturned = --cursor;
+			return get(cursor);
+		}
+
+		public int nextIndex() {
+			return cursor;
+		}
+
+		public int previousIndex() {
+			return cursor - 1;
+		}
+
+		public void remove() {
+			if (lastReturned < 0) throw new IllegalStateException();
+			OffHeapStackAdapter.this.remove(lastReturned);
+			if (lastReturned < cursor) cursor--;
+			lastReturned = -1;
+		}
+
+		public void set(Object obj) {
+			if (lastReturned < 0) throw new IllegalStateException();
+			OffHeapStackAdapter.this.set(lastReturned, obj);
+		}
+
+		public void add(Object obj) {
+			OffHeapStackAdapter.this.add(cursor++, obj);
+			lastReturned = -1;
+		}
+	}
+}
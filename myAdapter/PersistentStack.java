@@ -0,0 +1,377 @@
+package myAdapter;
+
+import java.util.EmptyStackException;
+import java.util.NoSuchElementException;
+
+/**
+ * Stack immutabile e persistente che implementa i metodi di lettura dell'interfaccia HList.
+ * <p>
+ * Lo stack è una lista concatenata di nodi immutabili che parte dalla cima: push e pop non modificano lo stack ma
+ * restituiscono in tempo costante una nuova versione, che condivide con quella di partenza tutti i nodi sotto la cima.
+ * Ogni versione può quindi essere conservata come istantanea senza copiare gli elementi, e più versioni occupano in
+ * memoria solo i nodi in cui differiscono. Essendo immutabile, lo stack può essere letto da più thread senza
+ * sincronizzazione.
+ * <p>
+ * Come in StackAdapter, l'indice 0 corrisponde al fondo dello stack e l'indice size() - 1 alla cima; gli iteratori e
+ * toArray restituiscono gli elementi dal fondo alla cima. L'accesso posizionale costa O(size() - index), quindi è
+ * immediato vicino alla cima. Ogni nodo memorizza la dimensione e l'hash della lista che termina in esso, quindi
+ * size e hashCode costano O(1) ed equals scarta in tempo costante due stack con hash diverso e si ferma appena trova un
+ * nodo condiviso.
+ * <p>
+ * I metodi che modificano la lista (add, remove, set, clear, ...) lanciano UnsupportedOperationException.
+ * Una versione di uno StackAdapter si ottiene con StackAdapter.snapshot().
+ *
+ * @see StackAdapter
+ */
+
+public final class PersistentStack implements HList {
+
+	/**
+	 * Nodo della lista concatenata che rappresenta lo stack. I nodi sono immutabili.
+	 */
+	private static final class Node {
+		final Object item;
+		final Node next;
+
+		/**
+		 * Numero di elementi dello stack di cui questo nodo è la cima.
+		 */
+		final int size;
+
+		/**
+		 * Hash, calcolato come java.util.List.hashCode, degli elementi dal fondo fino a questo nodo.
+		 */
+		final int hash;
+
+		Node(Object item, Node next) {
+			this.item = item;
+			this.next = next;
+			this.size = (next == null) ? 1 : next.size + 1;
+			this.hash = 31 * ((next == null) ? 1 : next.hash) + (item == null ? 0 : item.hashCode());
+		}
+	}
+
+	/**
+	 * Lo stack vuoto.
+	 */
+	public static final PersistentStack EMPTY = new PersistentStack(null);
+
+	/**
+	 * Cima dello stack, null se lo stack è vuoto.
+	 */
+	private final Node top;
+
+	private PersistentStack(Node top) {
+		this.top = top;
+	}
+
+	/**
+	 * Crea uno stack che contiene gli elementi della collezione, nell'ordine di toArray: l'ultimo sarà la cima.
+	 * @param coll collezione di partenza.
+	 * @throws NullPointerException se coll è null.
+	 * @return lo stack.
+	 */
+	public static PersistentStack of(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		if (coll instanceof PersistentStack) return (PersistentStack) coll;
+		Object[] array = coll.toArray();
+		return EMPTY.pushAll(array, 0, array.length);
+	}
+
+	// Stack Operations
+
+	/**
+	 * @return una nuova versione dello stack, con item in cima.
+	 */
+	public PersistentStack push(Object item) {
+		return new PersistentStack(new Node(item, top));
+	}
+
+	/**
+	 * Inserisce in cima gli elementi src[off], ..., src[off + len - 1], nell'ordine: l'ultimo diventa la nuova cima.
+	 * @param src array che contiene gli elementi da inserire.
+	 * @param off indice del primo elemento da inserire.
+	 * @param len numero di elementi da inserire.
+	 * @throws NullPointerException se src è null.
+	 * @throws IndexOutOfBoundsException se off e len non individuano un intervallo valido di src.
+	 * @return la nuova versione dello stack.
+	 */
+	public PersistentStack pushAll(Object[] src, int off, int len) {
+		if (src == null) throw new NullPointerException();
+		if (off < 0 || len < 0 || off > src.length - len) throw new IndexOutOfBoundsException();
+		Node n = top;
+		for (int i = off; i < off + len; i++)
+			n = new Node(src[i], n);
+		return n == top ? this : new PersistentStack(n);
+	}
+
+	/**
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return la versione dello stack senza l'elemento in cima.
+	 */
+	public PersistentStack pop() {
+		if (top == null) throw new EmptyStackException();
+		return top.next == null ? EMPTY : new PersistentStack(top.next);
+	}
+
+	/**
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'elemento in cima allo stack.
+	 */
+	public Object peek() {
+		if (top == null) throw new EmptyStackException();
+		return top.item;
+	}
+
+	/**
+	 * @return true se lo stack è vuoto.
+	 */
+	public boolean empty() {
+		return top == null;
+	}
+
+	/**
+	 * @param o l'oggetto desiderato.
+	 * @return la distanza (1-based) dalla cima dell'occorrenza più vicina alla cima, oppure -1.
+	 */
+	public int search(Object o) {
+		int distance = 1;
+		for (Node n = top; n != null; n = n.next, distance++) {
+			if (o == null ? n.item == null : o.equals(n.item)) return distance;
+		}
+		return -1;
+	}
+
+	/**
+	 * Restituisce la cima dello stack formato dai primi size elementi a partire dal fondo, i cui nodi sono condivisi
+	 * con questo stack; null se size è 0.
+	 */
+	private Node prefix(int size) {
+		Node n = top;
+		for (int i = size(); i > size; i--)
+			n = n.next;
+		return n;
+	}
+
+	// Query Operations
+
+	public int size() {
+		return top == null ? 0 : top.size;
+	}
+
+	public boolean isEmpty() {
+		return top == null;
+	}
+
+	public boolean contains(Object obj) {
+		return search(obj) > 0;
+	}
+
+	/**
+	 * Crea un iteratore che percorre lo stack dal fondo alla cima. Poiché i nodi sono collegati dalla cima verso il
+	 * fondo, l'iteratore copia prima gli elementi in un array.
+	 */
+	public HIterator iterator() {
+		return new Iterator(toArray(), 0);
+	}
+
+	public Object[] toArray() {
+		Object[] array = new Object[size()];
+		int i = array.length;
+		for (Node n = top; n != null; n = n.next)
+			array[--i] = n.item;
+		return array;
+	}
+
+	public Object[] toArray(Object arrayTarget[]) {
+		if (arrayTarget == null) throw new NullPointerException();
+		int size = size();
+		if (arrayTarget.length < size) return toArray();
+		int i = size;
+		for (Node n = top; n != null; n = n.next)
+			arrayTarget[--i] = n.item;
+		for (i = size; i < arrayTarget.length; i++)
+			arrayTarget[i] = null;
+		return arrayTarget;
+	}
+
+	public boolean containsAll(HCollection coll) {
+		if (coll == null) throw new NullPointerException();
+		HIterator it = coll.iterator();
+		while (it.hasNext()) {
+			if (!contains(it.next())) return false;
+		}
+		return true;
+	}
+
+	// Comparison and hashing
+
+	/**
+	 * Due PersistentStack sono uguali se contengono gli stessi elementi nello stesso ordine. Il confronto termina
+	 * subito se gli hash sono diversi, e con true appena i due stack raggiungono un nodo condiviso.
+	 */
+	public boolean equals(Object obj) {
+		if (!(obj instanceof PersistentStack)) return false;
+		Node a = top;
+		Node b = ((PersistentStack) obj).top;
+		if (size() != ((PersistentStack) obj).size()) return false;
+		while (a != b) {
+			if (a.hash != b.hash) return false;
+			if (a.item == null ? b.item != null : !a.item.equals(b.item)) return false;
+			a = a.next;
+			b = b.next;
+		}
+		return true;
+	}
+
+	public int hashCode() {
+		return top == null ? 1 : top.hash;
+	}
+
+	public String toString() {
+		StringBuffer buf = new StringBuffer("[");
+		Object[] array = toArray();
+		for (int i = 0; i < array.length; i++) {
+			if (i > 0) buf.append(", ");
+			buf.append(String.valueOf(array[i]));
+		}
+		return buf.append("]").toString();
+	}
+
+	// Positional Access Operations
+
+	public Object get(int index) {
+		if (index < 0 || index >= size()) throw new IndexOutOfBoundsException();
+		return prefix(index + 1).item;
+	}
+
+	public int indexOf(Object obj) {
+		int found = -1;
+		int i = size() - 1;
+		for (Node n = top; n != null; n = n.next, i--) {
+			if (obj == null ? n.item == null : obj.equals(n.item)) found = i;
+		}
+		return found;
+	}
+
+	public int lastIndexOf(Object obj) {
+		int distance = search(obj);
+		return distance < 0 ? -1 : size() - distance;
+	}
+
+	public HListIterator listIterator() {
+		return new Iterator(toArray(), 0);
+	}
+
+	public HListIterator listIterator(int index) {
+		if (index < 0 || index > size()) throw new IndexOutOfBoundsException();
+		return new Iterator(toArray(), index);
+	}
+
+	/**
+	 * Restituisce lo stack degli elementi compresi tra fromIndex e toIndex escluso. Gli elementi sotto toIndex
+	 * vengono condivisi se fromIndex è 0, altrimenti vengono copiati.
+	 */
+	public HList subList(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) throw new IndexOutOfBoundsException();
+		Node n = prefix(toIndex);
+		if (fromIndex == 0) return n == top ? this : new PersistentStack(n);
+		Object[] items = new Object[toIndex - fromIndex];
+		for (int i = items.length - 1; i >= 0; i--, n = n.next)
+			items[i] = n.item;
+		return EMPTY.pushAll(items, 0, items.length);
+	}
+
+	// Unsupported Operations
+
+	public boolean add(Object obj) {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean remove(Object obj) {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean addAll(HCollection coll) {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean addAll(int index, HCollection coll) {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean removeAll(HCollection coll) {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean retainAll(HCollection coll) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void clear() {
+		throw new UnsupportedOperationException();
+	}
+
+	public Object set(int index, Object element) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void add(int index, Object element) {
+		throw new UnsupportedOperationException();
+	}
+
+	public Object remove(int index) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Iteratore in sola lettura su una copia degli elementi, dal fondo alla cima.
+	 */
+	private static final class Iterator implements HListIterator {
+		private final Object[] items;
+		private int cursor;
+
+		Iterator(Object[] items, int cursor) {
+			this.items = items;
+			this.cursor = cursor;
+		}
+
+		public boolean hasNext() {
+			return cursor < items.length;
+		}
+
+		public Object next() {
+			if (cursor >= items.length) throw new NoSuchElementException();
+			return items[cursor++];
+		}
+
+		public boolean hasPrevious() {
+			return cursor > 0;
+		}
+
+		public Object previous() {
+			if (cursor <= 0) throw new NoSuchElementException();
+			return items[--cursor];
+		}
+
+		public int nextIndex() {
+			return cursor;
+		}
+
+		public int previousIndex() {
+			return cursor - 1;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		public void set(Object obj) {
+			throw new UnsupportedOperationException();
+		}
+
+		public void add(Object obj) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
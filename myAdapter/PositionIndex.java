@@ -0,0 +1,234 @@
+package myAdapter;
+
+/**
+ * Indice hash che associa ad ogni valore le posizioni in cui si trova all'interno di un ArrayVector.
+ * <p>
+ * Le posizioni di ogni valore sono mantenute in un array ordinato, quindi la prima e l'ultima occorrenza in un
+ * intervallo di posizioni si trovano con una ricerca binaria. I valori sono confrontati con equals e distribuiti
+ * con hashCode, come fa ArrayVector nella scansione lineare; null è ammesso.
+ * <p>
+ * L'indice non segue da solo le modifiche del vettore: è ArrayVector a chiamare add e remove ad ogni modifica.
+ * Costruito con of(Object[]), viene usato anche come insieme temporaneo dalle operazioni bulk di StackAdapter.
+ */
+final class PositionIndex {
+
+	/**
+	 * Capacità iniziale della tabella, potenza di 2.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Un valore e le sue posizioni, in ordine crescente.
+	 */
+	private static final class Entry {
+		final Object key;
+		final int hash;
+		int[] positions;
+		int count;
+		Entry next;
+
+		Entry(Object key, int hash, Entry next) {
+			this.key = key;
+			this.hash = hash;
+			this.positions = new int[2];
+			this.next = next;
+		}
+	}
+
+	/**
+	 * Tabella hash a liste di trabocco.
+	 */
+	private Entry[] table;
+
+	/**
+	 * Numero di valori distinti nell'indice.
+	 */
+	private int keys;
+
+	/**
+	 * Numero totale di posizioni nell'indice.
+	 */
+	private int size;
+
+	PositionIndex() {
+		table = new Entry[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Crea l'indice delle posizioni degli elementi dell'array.
+	 */
+	static PositionIndex of(Object[] values) {
+		PositionIndex index = new PositionIndex();
+		for (int i = 0; i < values.length; i++)
+			index.add(values[i], i);
+		return index;
+	}
+
+	/**
+	 * @return true se key si trova in almeno una posizione.
+	 */
+	boolean containsKey(Object key) {
+		return find(key, hash(key)) != null;
+	}
+
+	/**
+	 * @return il numero di valori distinti nell'indice.
+	 */
+	int keyCount() {
+		return keys;
+	}
+
+	/**
+	 * @return il numero totale di posizioni nell'indice.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Svuota l'indice e rilascia la tabella.
+	 */
+	void clear() {
+		table = new Entry[INITIAL_CAPACITY];
+		keys = 0;
+		size = 0;
+	}
+
+	/**
+	 * Registra che il valore key si trova nella posizione pos.
+	 * Se pos è maggiore di tutte le posizioni già note per key, come avviene per push e add in coda, il costo è O(1).
+	 */
+	void add(Object key, int pos) {
+		int hash = hash(key);
+		Entry e = find(key, hash);
+		if (e == null) {
+			if (keys >= table.length - (table.length >> 2)) resize();
+			int bucket = hash & (table.length - 1);
+			e = new Entry(key, hash, table[bucket]);
+			table[bucket] = e;
+			keys++;
+		}
+		if (e.count == e.positions.length) {
+			int[] grown = new int[e.count * 2];
+			System.arraycopy(e.positions, 0, grown, 0, e.count);
+			e.positions = grown;
+		}
+		int i = e.count;
+		if (i > 0 && e.positions[i - 1] > pos) {
+			i = lowerBound(e, pos);
+			System.arraycopy(e.positions, i, e.positions, i + 1, e.count - i);
+		}
+		e.positions[i] = pos;
+		e.count++;
+		size++;
+	}
+
+	/**
+	 * Rimuove la posizione pos del valore key.
+	 * Se pos è la maggiore delle posizioni di key, come avviene per pop, il costo è O(1).
+	 */
+	void remove(Object key, int pos) {
+		int hash = hash(key);
+		Entry e = find(key, hash);
+		if (e == null) return;
+		int i = e.count - 1;
+		if (e.positions[i] != pos) {
+			i = lowerBound(e, pos);
+			if (i == e.count || e.positions[i] != pos) return;
+			System.arraycopy(e.positions, i + 1, e.positions, i, e.count - i - 1);
+		}
+		e.count--;
+		size--;
+		if (e.count == 0) unlink(e);
+	}
+
+	/**
+	 * Rimuove key con tutte le sue posizioni.
+	 * @return true se key era presente nell'indice.
+	 */
+	boolean removeKey(Object key) {
+		Entry e = find(key, hash(key));
+		if (e == null) return false;
+		size -= e.count;
+		unlink(e);
+		return true;
+	}
+
+	/**
+	 * @return la minore posizione di key compresa in [from, to), oppure -1.
+	 */
+	int first(Object key, int from, int to) {
+		Entry e = find(key, hash(key));
+		if (e == null) return -1;
+		int i = lowerBound(e, from);
+		if (i < e.count && e.positions[i] < to) return e.positions[i];
+		return -1;
+	}
+
+	/**
+	 * @return la maggiore posizione di key compresa in [from, to), oppure -1.
+	 */
+	int last(Object key, int from, int to) {
+		Entry e = find(key, hash(key));
+		if (e == null) return -1;
+		int i = e.count - 1;
+		if (e.positions[i] >= to) i = lowerBound(e, to) - 1;
+		if (i >= 0 && e.positions[i] >= from) return e.positions[i];
+		return -1;
+	}
+
+	private static int hash(Object key) {
+		if (key == null) return 0;
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private Entry find(Object key, int hash) {
+		for (Entry e = table[hash & (table.length - 1)]; e != null; e = e.next) {
+			if (e.hash == hash && (key == null ? e.key == null : key.equals(e.key))) return e;
+		}
+		return null;
+	}
+
+	/**
+	 * @return l'indice della prima posizione di e maggiore o uguale a pos.
+	 */
+	private static int lowerBound(Entry e, int pos) {
+		int low = 0;
+		int high = e.count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (e.positions[mid] < pos) low = mid + 1;
+			else high = mid;
+		}
+		return low;
+	}
+
+	private void unlink(Entry target) {
+		int bucket = target.hash & (table.length - 1);
+		Entry prev = null;
+		for (Entry e = table[bucket]; e != null; prev = e, e = e.next) {
+			if (e == target) {
+				if (prev == null) table[bucket] = e.next;
+				else prev.next = e.next;
+				keys--;
+				return;
+			}
+		}
+	}
+
+	private void resize() {
+		Entry[] newTable = new Entry[table.length * 2];
+		for (int i = 0; i < table.length; i++) {
+			Entry e = table[i];
+			while (e != null) {
+				Entry next = e.next;
+				int bucket = e.hash & (newTable.length - 1);
+				e.next = newTable[bucket];
+				newTable[bucket] = e;
+				e = next;
+			}
+		}
+		table = newTable;
+	}
+}
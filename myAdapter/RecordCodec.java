@@ -0,0 +1,100 @@
+package myAdapter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codifica a larghezza fissa degli elementi di uno {@link OffHeapStackAdapter}.
+ * <p>
+ * Ogni elemento occupa esattamente width() byte. La codifica deve essere canonica: due elementi sono uguali secondo
+ * equals se e solo se le loro codifiche sono identiche byte per byte, perché lo stack confronta gli elementi
+ * direttamente in memoria, senza decodificarli.
+ * <p>
+ * La stessa codifica è usata da StackAdapter.writeTo e StackAdapter.readFrom per il formato binario degli stack.
+ * <p>
+ * Sono disponibili le codifiche per Integer, Long e Double; per record composti si implementa questa interfaccia
+ * leggendo e scrivendo i campi con i metodi assoluti di ByteBuffer (getInt(int), putLong(int, long), ...).
+ *
+ * @see OffHeapStackAdapter
+ */
+
+public interface RecordCodec {
+
+    /**
+     * Numero di byte occupati da ogni elemento.
+     *
+     * @return larghezza di un elemento codificato, maggiore di zero.
+     */
+    int width();
+
+    /**
+     * Scrive l'elemento nel buffer a partire dalla posizione specificata, senza modificare la position del buffer.
+     *
+     * @param value  elemento da codificare.
+     * @param buffer buffer di destinazione.
+     * @param offset indice del primo byte da scrivere.
+     * @exception NullPointerException se l'elemento è null.
+     * @exception ClassCastException   se l'elemento non è del tipo gestito dalla codifica.
+     */
+    void encode(Object value, ByteBuffer buffer, int offset);
+
+    /**
+     * Legge l'elemento dal buffer a partire dalla posizione specificata, senza modificare la position del buffer.
+     *
+     * @param buffer buffer di origine.
+     * @param offset indice del primo byte da leggere.
+     * @return l'elemento decodificato.
+     */
+    Object decode(ByteBuffer buffer, int offset);
+
+    /**
+     * Codifica degli Integer in 4 byte.
+     */
+    RecordCodec INTEGER = new RecordCodec() {
+        public int width() {
+            return 4;
+        }
+
+        public void encode(Object value, ByteBuffer buffer, int offset) {
+            buffer.putInt(offset, ((Integer) value).intValue());
+        }
+
+        public Object decode(ByteBuffer buffer, int offset) {
+            return Integer.valueOf(buffer.getInt(offset));
+        }
+    };
+
+    /**
+     * Codifica dei Long in 8 byte.
+     */
+    RecordCodec LONG = new RecordCodec() {
+        public int width() {
+            return 8;
+        }
+
+        public void encode(Object value, ByteBuffer buffer, int offset) {
+            buffer.putLong(offset, ((Long) value).longValue());
+        }
+
+        public Object decode(ByteBuffer buffer, int offset) {
+            return Long.valueOf(buffer.getLong(offset));
+        }
+    };
+
+    /**
+     * Codifica dei Double in 8 byte. I NaN vengono normalizzati, così che la codifica resti canonica come
+     * Double.equals.
+     */
+    RecordCodec DOUBLE = new RecordCodec() {
+        public int width() {
+            return 8;
+        }
+
+        public void encode(Object value, ByteBuffer buffer, int offset) {
+            buffer.putLong(offset, Double.doubleToLongBits(((Double) value).doubleValue()));
+        }
+
+        public Object decode(ByteBuffer buffer, int offset) {
+            return Double.valueOf(Double.longBitsToDouble(buffer.getLong(offset)));
+        }
+    };
+}
@@ -0,0 +1,185 @@
+package myAdapter;
+
+import java.util.Arrays;
+
+/**
+ * Unsynchronized, segmented implementation of the Vector of Java Micro Edition, CLDC1.1<br>
+ *
+ *
+ * The object {@link myAdapter.SegmentedVector} behaves like {@link myAdapter.ArrayVector}, but keeps the components in
+ * a directory of fixed-size chunks instead of a single array. The component at position i is found in
+ * chunk i &gt;&gt; shift at offset i &amp; mask. Growing the vector allocates a new chunk and shrinking it releases the
+ * chunks that are no longer used, so the components are never copied to a bigger array: only the directory, which
+ * holds one reference per chunk, is reallocated.
+ * <p>
+ * One empty chunk is kept above the last used one, so that a stack pushing and popping across a chunk boundary does
+ * not allocate and release a chunk at every operation. The elementData and capacityIncrement fields of ArrayVector
+ * and its capacity policy are not used.
+ *
+ *
+ *
+ */
+public class SegmentedVector extends ArrayVector {
+
+    /**
+     * Default number of components of a chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    /**
+     * Directory of the chunks; the entries from chunkCount on are null.
+     */
+    private Object[][] chunks;
+
+    /**
+     * Number of allocated chunks.
+     */
+    private int chunkCount;
+
+    /**
+     * log2 of the chunk size.
+     */
+    private final int shift;
+
+    /**
+     * Chunk size - 1.
+     */
+    private final int mask;
+
+    public SegmentedVector() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize number of components of a chunk, rounded up to a power of 2.
+     * @throws IllegalArgumentException if chunkSize is not positive or greater than 2^30.
+     */
+    public SegmentedVector(int chunkSize) {
+        super(0);
+        if (chunkSize <= 0 || chunkSize > 1 << 30) throw new IllegalArgumentException();
+        int s = 0;
+        while (1 << s < chunkSize) s++;
+        shift = s;
+        mask = (1 << s) - 1;
+        chunks = new Object[8][];
+    }
+
+    /**
+     * @return the number of components of a chunk.
+     */
+    public int chunkSize() {
+        return mask + 1;
+    }
+
+    public int capacity() {
+        return chunkCount << shift;
+    }
+
+    /**
+     * Releases every chunk that holds no component, including the spare one.
+     */
+    public void trimToSize() {
+        releaseChunksFrom((elementCount + mask) >>> shift);
+    }
+
+    // Storage primitives
+
+    Object load(int i) {
+        return chunks[i >>> shift][i & mask];
+    }
+
+    void store(int i, Object obj) {
+        chunks[i >>> shift][i & mask] = obj;
+    }
+
+    void move(int from, int to, int n) {
+        if (n <= 0 || from == to) return;
+        if (to < from) {
+            int done = 0;
+            while (done < n) {
+                int s = from + done;
+                int d = to + done;
+                int len = Math.min(n - done, Math.min(mask + 1 - (s & mask), mask + 1 - (d & mask)));
+                System.arraycopy(chunks[s >>> shift], s & mask, chunks[d >>> shift], d & mask, len);
+                done += len;
+            }
+        } else {
+            int left = n;
+            while (left > 0) {
+                int s = from + left - 1;
+                int d = to + left - 1;
+                int len = Math.min(left, Math.min((s & mask) + 1, (d & mask) + 1));
+                System.arraycopy(chunks[s >>> shift], (s & mask) - len + 1, chunks[d >>> shift], (d & mask) - len + 1, len);
+                left -= len;
+            }
+        }
+    }
+
+    void copyOut(int from, Object[] dst, int off, int n) {
+        int done = 0;
+        while (done < n) {
+            int s = from + done;
+            int len = Math.min(n - done, mask + 1 - (s & mask));
+            System.arraycopy(chunks[s >>> shift], s & mask, dst, off + done, len);
+            done += len;
+        }
+    }
+
+    void copyIn(Object[] src, int off, int to, int n) {
+        int done = 0;
+        while (done < n) {
+            int d = to + done;
+            int len = Math.min(n - done, mask + 1 - (d & mask));
+            System.arraycopy(src, off + done, chunks[d >>> shift], d & mask, len);
+            done += len;
+        }
+    }
+
+    void copyFrom(ArrayVector src, int from, int to, int n) {
+        int done = 0;
+        while (done < n) {
+            int d = to + done;
+            int len = Math.min(n - done, mask + 1 - (d & mask));
+            src.copyOut(from + done, chunks[d >>> shift], d & mask, len);
+            done += len;
+        }
+    }
+
+    void reserve(int minCapacity) {
+        int needed = (int) (((long) minCapacity + mask) >>> shift);
+        if (needed > chunks.length) {
+            Object[][] newChunks = new Object[Math.max(needed, chunks.length * 2)][];
+            System.arraycopy(chunks, 0, newChunks, 0, chunkCount);
+            chunks = newChunks;
+        }
+        if (chunkCount >= needed) return;
+        if (metrics != null) metrics.grown();
+        StackResizeEvent event = new StackResizeEvent();
+        event.begin();
+        int oldCapacity = capacity();
+        while (chunkCount < needed) {
+            chunks[chunkCount++] = new Object[mask + 1];
+        }
+        event.record(this, oldCapacity, capacity());
+    }
+
+    void truncate(int newCount) {
+        int i = newCount;
+        while (i < elementCount) {
+            int len = Math.min(elementCount - i, mask + 1 - (i & mask));
+            Arrays.fill(chunks[i >>> shift], i & mask, (i & mask) + len, null);
+            i += len;
+        }
+        elementCount = newCount;
+        releaseChunksFrom(((newCount + mask) >>> shift) + 1);
+    }
+
+    /**
+     * Releases the chunks from the given position of the directory on.
+     */
+    private void releaseChunksFrom(int first) {
+        while (chunkCount > first) {
+            chunks[--chunkCount] = null;
+        }
+    }
+}
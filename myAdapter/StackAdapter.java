@@ -1,6 +1,22 @@
 package myAdapter;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ConcurrentModificationException;
+import java.util.EmptyStackException;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.lang.NullPointerException;
 
 /**
@@ -11,8 +27,10 @@ import java.lang.NullPointerException;
 public class StackAdapter implements HList, HCollection {
 	/**
 	 * Vector che emula lo stack.
+	 * Si usa ArrayVector, che non è sincronizzato: lo StackAdapter non è thread-safe e non paga il costo di un monitor
+	 * per ogni push, pop, peek o next() dell'iteratore.
 	 */
-	private Vector stack;
+	private ArrayVector stack;
 
 	/**
 	 * Indice dell'elemento successivo l'ultimo elemento della Collection.
@@ -33,12 +51,55 @@ public class StackAdapter implements HList, HCollection {
 	 */
 	private StackAdapter root;
 
+	/**
+	 * Numero di modifiche strutturali (che cambiano il numero di elementi) fatte tramite questo stack o tramite una
+	 * sua sottolista. Gli iteratori e le sottoliste lo confrontano con il valore che si aspettano per accorgersi delle
+	 * modifiche fatte da altri e lanciare ConcurrentModificationException.
+	 */
+	private int modCount;
+
+	/**
+	 * Valore di root.modCount atteso da una sottolista; se root.modCount è diverso, lo stack di partenza è stato
+	 * modificato senza passare da questa sottolista.
+	 */
+	private int expectedModCount;
+
+	/**
+	 * Ultima istantanea restituita da snapshot(), null se non ne è mai stata chiesta una o se lo stack è una
+	 * sottolista.
+	 */
+	private PersistentStack snapshot;
+
 
 	/**
 	 * Costruttore: crea uno StackAdapter vuoto.
 	 */
 	public StackAdapter() {
-		stack = new Vector();
+		stack = new ArrayVector();
+		stack.setCapacityPolicy(CapacityPolicy.DEFAULT);
+		end = 0;
+		start = 0;
+		root = null;
+	}
+
+	/**
+	 * Crea uno StackAdapter vuoto i cui elementi sono memorizzati in blocchi di dimensione fissa (SegmentedVector)
+	 * invece che in un unico array: quando lo stack cresce viene allocato un nuovo blocco e quando si svuota i blocchi
+	 * inutilizzati vengono rilasciati, senza mai copiare gli elementi. È adatto a stack molto grandi, per i quali la
+	 * copia dell'array durante una crescita causerebbe una pausa lunga e un raddoppio temporaneo della memoria.
+	 * @param chunkSize numero di elementi di un blocco, arrotondato alla potenza di 2 successiva.
+	 * @throws IllegalArgumentException se chunkSize non è positivo o è maggiore di 2^30.
+	 * @return lo stack vuoto.
+	 */
+	public static StackAdapter segmented(int chunkSize) {
+		return new StackAdapter(new SegmentedVector(chunkSize));
+	}
+
+	/**
+	 * Crea uno StackAdapter vuoto che usa il vettore indicato.
+	 */
+	private StackAdapter(ArrayVector store) {
+		stack = store;
 		end = 0;
 		start = 0;
 		root = null;
@@ -53,12 +114,10 @@ public class StackAdapter implements HList, HCollection {
 
 	public StackAdapter(HCollection coll) {
 		if (coll == null) throw new NullPointerException();
-		stack = new Vector();
-		Object[] arr = ((StackAdapter) coll).toArray();
-		int i;
-		for (i = 0; i < arr.length; i++) {
-			stack.addElement(arr[i]);
-		}
+		Object[] arr = coll.toArray();
+		stack = new ArrayVector(Math.max(10, arr.length));
+		stack.setCapacityPolicy(CapacityPolicy.DEFAULT);
+		stack.insertElementsAt(arr, 0);
 		end = arr.length;
 		start =0;
 		root = null;
@@ -72,6 +131,7 @@ public class StackAdapter implements HList, HCollection {
 	 * @return true se è vuoto, false altrimenti.
 	 */
 	public boolean isEmpty() {
+		checkForComodification();
 		return (start == end);
 	}
 
@@ -81,6 +141,7 @@ public class StackAdapter implements HList, HCollection {
 	 * @return il numero di elementi nello stack.
 	 */
 	public int size() {
+		checkForComodification();
 		return (end-start);
 	}
 
@@ -91,17 +152,32 @@ public class StackAdapter implements HList, HCollection {
 	 * @return true se esso è nello stack, altrimenti ritorna false.
 	 */
 	public boolean contains(Object obj) {
+		checkForComodification();
 		if (this.isEmpty()) return false;
-		else {
-			for (int i = start; i < size(); i++) {
-				if (stack.elementAt(i)==null){
-					if (obj==null) return true;
-					else return false;
+		else if (stack.isIndexed()) {
+			// stesso risultato della scansione, che si ferma al primo elemento null
+			int firstNull = stack.indexOf(null, start, size());
+			if (obj == null) return firstNull >= 0;
+			int found = stack.indexOf(obj, start, size());
+			return found >= 0 && (firstNull < 0 || found < firstNull);
+		} else {
+			StackSearchEvent event = new StackSearchEvent();
+			event.begin();
+			boolean found = false;
+			int i = start;
+			while (i < size()) {
+				Object e = stack.elementAt(i++);
+				if (e == null) {
+					found = obj == null;
+					break;
 				}
-				if ((stack.elementAt(i)).equals(obj))
-					return true;
-				
-			}return false;
+				if (e.equals(obj)) {
+					found = true;
+					break;
+				}
+			}
+			event.record(stack, "contains", i - start);
+			return found;
 		}
 	}
 
@@ -111,6 +187,7 @@ public class StackAdapter implements HList, HCollection {
 	 * @return iteratore.
 	 */
 	public HIterator iterator() {
+		checkForComodification();
 		return new StackIteratorAdapter();
 	}
 
@@ -120,6 +197,7 @@ public class StackAdapter implements HList, HCollection {
 	 * @return array di tipo Object riempito con gli elementi dello StackAdapter.
 	 */
 	public Object[] toArray() {
+		checkForComodification();
 		Object[] array = new Object[size()];
 		for (int index = start; index < end; index++) {
 			array[index-start] = stack.elementAt(index);
@@ -138,6 +216,7 @@ public class StackAdapter implements HList, HCollection {
 	*/
 	 public Object[] toArray(Object arrayTarget[]) {
 		if (arrayTarget == null) throw new NullPointerException();
+		checkForComodification();
 		if (arrayTarget.length >= end) {
 			int i;
 			for (i = start; i < end; i++) {
@@ -162,8 +241,10 @@ public class StackAdapter implements HList, HCollection {
 	 * @return  true ad azione compiuta.
 	*/
 	 public boolean add(Object obj) {
+		checkForComodification();
 		stack.insertElementAt(obj,end);
 		end++;
+		structuralChange(1);
 		return true;
 	}
 
@@ -174,8 +255,12 @@ public class StackAdapter implements HList, HCollection {
 	 * @return  true se l'elemento era presente, altrimenti false.
 	*/
 	 public boolean remove(Object obj) {
-		 if(stack.removeElement(obj)){
+		 checkForComodification();
+		 int i = stack.indexOf(obj, start, end);
+		 if (i >= 0) {
+			 stack.removeElementAt(i);
 			 end--;
+			 structuralChange(-1);
 			 return true;
 		 } else
 			return false;
@@ -185,6 +270,10 @@ public class StackAdapter implements HList, HCollection {
 
 	/**
 	 * 	Il metodo verifica che tutti gli elementi presenti in questa specifica collezione siano presenti nello StackAdapter.
+	 * 	Il risultato è lo stesso che si otterrebbe chiamando contains per ogni elemento: vengono considerati solo gli
+	 * 	elementi che precedono il primo null dello stack, oltre a null stesso.
+	 * 	Gli elementi dello StackAdapter vengono raccolti in un insieme hash, così ogni elemento della collezione viene
+	 * 	cercato in tempo costante; in modalità indicizzata si usa direttamente l'indice.
 	 *  @param coll collezione di elementi che vengono cercati all'interno dello StackAdapter.
 	 *  @throws NullPointerException se l'argomento della funzione non è valido.
 	 * 	@return true se ciò viene verificato, altrimenti ritorna false.
@@ -192,24 +281,45 @@ public class StackAdapter implements HList, HCollection {
 	public boolean containsAll(HCollection coll) {
 
 		if (coll == null) throw new NullPointerException();
-
-		StackAdapter collstack = (StackAdapter) coll;
-		Object[] array = collstack.toArray();
-		int i = 0;
-		boolean found = true;
-		while (i < size() && found ) {
-			if (contains(array[i])) {
-				i++;
-			}else {
-				found = false;
-
+		checkForComodification();
+
+		Object[] array = coll.toArray();
+		int limit = containsLimit();
+		boolean hasNull = limit < size();
+		if (stack.isIndexed()) {
+			for (int i = 0; i < array.length; i++) {
+				if (array[i] == null ? !hasNull : stack.indexOf(array[i], start, limit) < 0) return false;
 			}
+			return true;
+		}
+		PositionIndex elements = new PositionIndex();
+		for (int i = start; i < limit; i++)
+			elements.add(stack.elementAt(i), i);
+		for (int i = 0; i < array.length; i++) {
+			if (array[i] == null ? !hasNull : !elements.containsKey(array[i])) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Restituisce la posizione in cui si ferma la scansione di contains: quella del primo elemento null a partire da
+	 * start, oppure size() se non ce ne sono.
+	 */
+	private int containsLimit() {
+		int bound = size();
+		if (stack.isIndexed()) {
+			int firstNull = stack.indexOf(null, start, bound);
+			return firstNull < 0 ? bound : firstNull;
+		}
+		for (int i = start; i < bound; i++) {
+			if (stack.elementAt(i) == null) return i;
 		}
-		return found;
+		return bound;
 	}
 
 	/**
 	 *  Aggiunge in coda tutti gli elementi della Collection specificata nell'argomento del metodo.
+	 *  Gli elementi vengono copiati in blocco, riservando lo spazio una sola volta.
 	 *  @param coll collezione specifica i cui elementi verranno inseriti nello StackAdapter.
 	 *  @throws NullPointerException se l'argomento della funzione non è valido.
 	 *  @return true se ciò avviene con successo, altrimenti false.
@@ -217,20 +327,21 @@ public class StackAdapter implements HList, HCollection {
 	*/
 	public boolean addAll(HCollection coll) {
 		if (coll == null) throw new NullPointerException();
+		checkForComodification();
 
-		StackAdapter collstack = (StackAdapter) coll;
-		Object[] array = collstack.toArray();
+		Object[] array = coll.toArray();
 		if (array.length== 0) return false;
-		for (int i = 0; i < array.length; i++) {
-			add(array[i]);
-		}
+		stack.insertElementsAt(array, end);
+		end += array.length;
+		structuralChange(array.length);
 		return true;
 
 	}
 
 	/**
 	 * Il metodo inserisce gli elementi della Collection specificata a partire dall'indice index.
-	 * Se vi sono già degli elementi, essi vengono shiftati a dx.
+	 * Se vi sono già degli elementi, essi vengono shiftati a dx una sola volta, di tante posizioni quanti sono gli
+	 * elementi inseriti, e gli elementi della collezione vengono copiati in blocco.
 	 * @param index indice di partenza.
 	 * @param coll  collezione contenente gli elementi che verranno inseriti.
 	 * @throws NullPointerException se la collezione specifica non è valida.
@@ -240,100 +351,96 @@ public class StackAdapter implements HList, HCollection {
 	public boolean addAll(int index, HCollection coll) {
 		if (coll == null) throw new NullPointerException();
 		if (index > end || index < 0) throw new IndexOutOfBoundsException();
+		checkForComodification();
 
-		StackAdapter collstack = (StackAdapter) coll;
-		Object[] array = collstack.toArray();
+		Object[] array = coll.toArray();
 		if (array.length == 0) return false;
 		else {
-			int n = array.length;
-			for (int i = 0; i < n; i++) {
-				add(index, array[i]);
-				index++;
-			}
+			stack.insertElementsAt(array, index);
+			end += array.length;
+			structuralChange(array.length);
 			return true;
 		}
 	}
 
 	/**
 	 * Elimina dallo StackAdapter tutti gli elementi contenuti nella Collection specificata.
+	 * Gli elementi della collezione vengono raccolti in un insieme hash e lo stack viene compattato con una sola passata.
 	 * @param coll collezione i cui elementi verranno rimossi dallo StackAdapter.
 	 * @throws NullPointerException se l'argomento della funzione non è valido.
 	 * @return true se l'operazione avviene con successo, altrimenti restituisce false.
 	 */
 	public boolean removeAll(HCollection coll) {
 		if (coll==null) throw new NullPointerException();
-		boolean changed = false;
-		if (coll.size()==0) return false;
-		else{
-			StackAdapter collAd = (StackAdapter) coll;
-			Object[] array = coll.toArray();
-			for(int i=0; i < collAd.size() ;i++){
-				if (contains(array[i])) {
-					remove(array[i]);
-					changed=true;
-				}
-			}
-		}return changed;
+		if (coll.size()==0 || isEmpty()) return false;
+		int removed = stack.compact(start, end, PositionIndex.of(coll.toArray()), false);
+		if (removed == 0) return false;
+		end -= removed;
+		structuralChange(-removed);
+		return true;
 	}
 
 	/**
 	 * Rimuove dallo StackAdapter tutti gli elementi che non sono presenti nella Collection specifica.
+	 * Gli elementi della collezione vengono raccolti in un insieme hash e lo stack viene compattato con una sola passata.
 	 * @param coll collezione di elementi che, se prenti nello StackAdapter, non verranno rimossi.
 	 * @throws NullPointerException se l'argomento della funzione non è valido.
 	 * @return true se l'operazione avviene con successo, altrimenti false.
 	 */
 	public boolean retainAll(HCollection coll) {
-		boolean changed = false;
-
 		if (coll == null) throw new NullPointerException();
 		if (isEmpty()) return false;
-		else{
-			StackAdapter collad = (StackAdapter) coll;
-			Object[] arr = toArray();
-			for(int i =0; i< arr.length; i++){
-				if (!collad.contains(arr[i])){
-					remove(arr[i]);
-					changed=true;
-				}
-			}
-		}
-		return changed;
+		int removed = stack.compact(start, end, PositionIndex.of(coll.toArray()), true);
+		if (removed == 0) return false;
+		end -= removed;
+		structuralChange(-removed);
+		return true;
 	}
 
 	/**
 	 * Elimina tutti gli elementi dello StackAdapter.
+	 * Su una sottolista vengono eliminati solo i suoi elementi dallo stack di partenza.
 	 */
 	public void clear() {
+		checkForComodification();
+		if (root != null) {
+			int removed = end - start;
+			stack.removeRange(start, end);
+			end = start;
+			structuralChange(-removed);
+			return;
+		}
 		end =0;
 		start=0;
 		stack.removeAllElements();
+		structuralChange(0);
 	}
 
 	// Comparison and hashing
 
 	/**
 	 * Confronta tue elementi della stessa classe per verificare che sono uguali.
+	 * Gli elementi vengono confrontati direttamente nei due vettori, senza copiarli. Se i due stack hanno l'hash in
+	 * cache (enableHashCache) e gli hash sono diversi, il confronto termina senza leggere gli elementi.
 	 * @param obj oggetto che viene comparato.
 	 * @return true se e solo se i due oggetti confrontati sono equivalenti, altrimenti false.
 	 */
 	public boolean equals(Object obj) {
 		if (obj == null || obj.getClass()!=getClass()) return false;
-
-		if (((StackAdapter) obj).size() != size()) return false;
-
-		if (((StackAdapter) obj).size() == size() && size()==0) return true;
-
-		Object[] arr = ((StackAdapter) obj).toArray();
-		boolean valido = true;
-		int i = 0;
-		while (valido && i<size()){
-			if (arr[i].equals(stack.elementAt(i))){
-				i++;
-			}else{
-				valido =false;
-			}
+		checkForComodification();
+		StackAdapter other = (StackAdapter) obj;
+		other.checkForComodification();
+		int n = end - start;
+		if (other.end - other.start != n) return false;
+		if (other == this) return true;
+		if (root == null && other.root == null && stack.isHashCached() && other.stack.isHashCached()
+				&& stack.hashCode() != other.stack.hashCode()) return false;
+		for (int i = 0; i < n; i++) {
+			Object a = stack.load(start + i);
+			Object b = other.stack.load(other.start + i);
+			if (a == null ? b != null : !a.equals(b)) return false;
 		}
-		return valido;
+		return true;
 	}
 
 	/**
@@ -341,7 +448,9 @@ public class StackAdapter implements HList, HCollection {
  	 * @return l'hashcode corrispondente allo stack
 	 */
 	public int hashCode() {
-		return stack.hashCode();
+		checkForComodification();
+		if (root == null) return stack.hashCode();
+		return stack.hashCode(start, end);
 	}
 
 	// Positional Access Operations
@@ -353,6 +462,7 @@ public class StackAdapter implements HList, HCollection {
 	 * @return l'elemento posizionato nell'indice passato come parametro.
 	 */
 	public Object get(int index) {
+		checkForComodification();
 		if (index<start || index>=size()) throw new IndexOutOfBoundsException();
 		return stack.elementAt(index);
 	}
@@ -365,6 +475,7 @@ public class StackAdapter implements HList, HCollection {
 	 * @return l'elemento che si trovava precedentemente nella posizione index.
 	 */
 	public Object set(int index, Object element) {
+		checkForComodification();
 		if (index <start || index >=size()) throw new IndexOutOfBoundsException();
 		Object o = stack.elementAt(index);
 		stack.setElementAt(element, index);
@@ -379,10 +490,13 @@ public class StackAdapter implements HList, HCollection {
 	 * @param element oggetto che deve essere inserito.
 	 */
 	public void add(int index, Object element) {
+		checkForComodification();
 		if (index > size() || index<0) throw new IndexOutOfBoundsException();
+		if (stack.metrics != null) stack.metrics.positionalAdd();
 
 		stack.insertElementAt(element, index);
 		end++;
+		structuralChange(1);
 	}
 
 	/**
@@ -392,10 +506,13 @@ public class StackAdapter implements HList, HCollection {
 	 * @return l'elemento rimosso.
 	 */
 	public Object remove(int index) {
+		checkForComodification();
 		if ( index < 0 || index >=size()) throw new IndexOutOfBoundsException();
+		if (stack.metrics != null) stack.metrics.positionalRemove();
 		Object obj = stack.elementAt(index+start);
 		stack.removeElementAt(index+start);
 		end--;
+		structuralChange(-1);
 		return obj;
 	}
 
@@ -407,7 +524,8 @@ public class StackAdapter implements HList, HCollection {
 	 * @return l'indice della prima occorrenza, se non presente restituisce -1.
 	 */
 	public int indexOf(Object obj) {
-		return stack.indexOf(obj);
+		checkForComodification();
+		return stack.indexOf(obj, start, end);
 	}
 
 	/**
@@ -416,7 +534,8 @@ public class StackAdapter implements HList, HCollection {
 	 * @return l'indice dell'ultima occorrenza, se non presente restituisce -1.
 	 */
 	public int lastIndexOf(Object obj) {
-		return stack.lastIndexOf(obj);
+		checkForComodification();
+		return stack.lastIndexOf(obj, start, end);
 	}
 
 	// List Iterators
@@ -426,6 +545,7 @@ public class StackAdapter implements HList, HCollection {
 	 * @return l'iteratore agli elementi dello stack.
 	 */
 	public HListIterator listIterator() {
+		checkForComodification();
 		return new StackIteratorAdapter();
 	}
 
@@ -436,15 +556,396 @@ public class StackAdapter implements HList, HCollection {
 	 * @return l'iteratore posizionato alla posizione specificata.
 	 */
 	public HListIterator listIterator(int index) {
+		checkForComodification();
 		if (index <start || index>size() ) throw new IndexOutOfBoundsException();
 		return new StackIteratorAdapter(index);
 	}
 
+	// Snapshots
+
+	/**
+	 * Restituisce un'istantanea immutabile dello stack, che non cambia con le modifiche successive.
+	 * <p>
+	 * Lo stack ricorda l'ultima istantanea e il vettore tiene traccia della posizione più bassa modificata da allora:
+	 * l'istantanea successiva condivide con la precedente i nodi degli elementi sottostanti e crea solo quelli degli
+	 * elementi cambiati. Per uno stack usato con push e pop il costo di un'istantanea è quindi proporzionale alle
+	 * operazioni fatte dalla precedente, e non alla dimensione dello stack; anche la memoria occupata da più istantanee
+	 * cresce solo con gli elementi cambiati. Finché non viene chiesta l'istantanea successiva, l'ultima mantiene un
+	 * riferimento agli elementi che nel frattempo sono stati rimossi dallo stack.
+	 * <p>
+	 * L'istantanea di una sottolista viene invece costruita da capo, in tempo proporzionale alla sua dimensione.
+	 * @return l'istantanea dello stack.
+	 */
+	public PersistentStack snapshot() {
+		checkForComodification();
+		if (root != null) {
+			PersistentStack snap = PersistentStack.EMPTY;
+			for (int i = start; i < end; i++)
+				snap = snap.push(stack.load(i));
+			return snap;
+		}
+		PersistentStack snap = (snapshot == null) ? PersistentStack.EMPTY : snapshot;
+		int keep = Math.min(stack.unchangedPrefix(), snap.size());
+		while (snap.size() > keep)
+			snap = snap.pop();
+		for (int i = keep; i < end; i++)
+			snap = snap.push(stack.load(i));
+		stack.markUnchanged();
+		snapshot = snap;
+		return snap;
+	}
+
+	// Binary Import/Export
+
+	/**
+	 * Valore dei primi 4 byte del formato binario di writeTo ("STKS").
+	 */
+	static final int STREAM_MAGIC = 0x53544B53;
+
+	/**
+	 * Versione del formato binario di writeTo.
+	 */
+	static final int STREAM_VERSION = 1;
+
+	/**
+	 * Dimensione dell'intestazione del formato binario: magic, versione, larghezza dei record (int) e numero di
+	 * elementi (long).
+	 */
+	static final int STREAM_HEADER_SIZE = 20;
+
+	/**
+	 * Dimensione massima del buffer diretto usato da writeTo e readFrom.
+	 */
+	private static final int STREAM_BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Scrive gli elementi dello stack, dal fondo alla cima, nel canale specificato.
+	 * <p>
+	 * Il formato è composto da un'intestazione di 20 byte (magic "STKS", versione, larghezza dei record e numero di
+	 * elementi, in big-endian) seguita dagli elementi, ciascuno codificato da codec in codec.width() byte. Gli elementi
+	 * vengono codificati direttamente dal vettore in un buffer diretto di al più 1 MiB, che viene scritto nel canale
+	 * ogni volta che è pieno: non viene creata nessuna copia dello stack. Il buffer viene liberato al termine.
+	 * Lo stack viene controllato prima di scrivere, quindi se contiene null nel canale non viene scritto nulla; se
+	 * invece un elemento non è del tipo gestito da codec, il contenuto già scritto nel canale non è un flusso valido.
+	 * @param channel canale in cui scrivere.
+	 * @param codec codifica degli elementi.
+	 * @throws NullPointerException se channel o codec sono null, o se lo stack contiene null.
+	 * @throws ClassCastException se un elemento non è del tipo gestito da codec.
+	 * @throws IOException se la scrittura nel canale fallisce.
+	 * @return il numero di elementi scritti.
+	 */
+	public int writeTo(WritableByteChannel channel, RecordCodec codec) throws IOException {
+		if (channel == null || codec == null) throw new NullPointerException();
+		checkForComodification();
+		for (int i = start; i < end; i++) {
+			if (stack.load(i) == null) throw new NullPointerException("null element at index " + (i - start));
+		}
+		int width = codec.width();
+		int n = end - start;
+		ByteBuffer buffer = streamBuffer((long) n * width, width);
+		try {
+			buffer.putInt(STREAM_MAGIC);
+			buffer.putInt(STREAM_VERSION);
+			buffer.putInt(width);
+			buffer.putLong(n);
+			for (int i = start; i < end; i++) {
+				if (buffer.remaining() < width) flush(channel, buffer);
+				int position = buffer.position();
+				codec.encode(stack.load(i), buffer, position);
+				buffer.position(position + width);
+			}
+			flush(channel, buffer);
+		} finally {
+			DirectMemory.free(buffer);
+		}
+		return n;
+	}
+
+	/**
+	 * Legge dal canale specificato uno stack scritto da writeTo e ne inserisce gli elementi in cima a questo stack,
+	 * nello stesso ordine: la cima dello stack letto diventa la cima di questo stack.
+	 * Dal canale vengono letti esattamente i byte dello stack, quindi più stack possono essere scritti e letti uno
+	 * dopo l'altro sullo stesso canale. Gli elementi vengono decodificati da un buffer diretto di al più 1 MiB, liberato
+	 * al termine, e inseriti a blocchi. Se la lettura fallisce lo stack non viene modificato.
+	 * @param channel canale da cui leggere.
+	 * @param codec codifica degli elementi, con la stessa larghezza di quella usata da writeTo.
+	 * @throws NullPointerException se channel o codec sono null.
+	 * @throws StreamCorruptedException se il canale non contiene uno stack in questo formato, o se è stato scritto
+	 *                                  con una codifica di larghezza diversa.
+	 * @throws EOFException se il canale termina prima della fine dello stack.
+	 * @throws IOException se la lettura dal canale fallisce.
+	 * @return il numero di elementi letti.
+	 */
+	public int readFrom(ReadableByteChannel channel, RecordCodec codec) throws IOException {
+		if (channel == null || codec == null) throw new NullPointerException();
+		checkForComodification();
+		int width = codec.width();
+		ByteBuffer header = ByteBuffer.allocate(STREAM_HEADER_SIZE);
+		readFully(channel, header);
+		header.flip();
+		if (header.getInt() != STREAM_MAGIC) throw new StreamCorruptedException("Not a stack stream");
+		int version = header.getInt();
+		if (version != STREAM_VERSION) throw new StreamCorruptedException("Unsupported version " + version);
+		int recordWidth = header.getInt();
+		if (recordWidth != width) throw new StreamCorruptedException("Record width " + recordWidth + " != " + width);
+		long count = header.getLong();
+		if (count < 0 || count > Integer.MAX_VALUE - 8 - (end - start))
+			throw new StreamCorruptedException("Invalid element count " + count);
+
+		ByteBuffer buffer = streamBuffer(count * width, width);
+		Object[] batch = new Object[(int) Math.min(count, buffer.capacity() / width)];
+		int before = end;
+		try {
+			long remaining = count;
+			while (remaining > 0) {
+				int n = (int) Math.min(remaining, batch.length);
+				buffer.clear();
+				buffer.limit(n * width);
+				readFully(channel, buffer);
+				for (int k = 0; k < n; k++)
+					batch[k] = codec.decode(buffer, k * width);
+				pushAll(batch, 0, n);
+				remaining -= n;
+			}
+		} catch (IOException | RuntimeException e) {
+			int added = end - before;
+			if (added > 0) {
+				stack.removeRange(before, end);
+				end = before;
+				structuralChange(-added);
+			}
+			throw e;
+		} finally {
+			DirectMemory.free(buffer);
+		}
+		return (int) count;
+	}
+
+	/**
+	 * Alloca il buffer diretto per writeTo e readFrom: abbastanza grande per l'intestazione e per dataBytes byte di
+	 * record, ma non oltre STREAM_BUFFER_SIZE, e comunque capace di almeno un record. Il formato è big-endian.
+	 * Il buffer va liberato con DirectMemory.free.
+	 */
+	private static ByteBuffer streamBuffer(long dataBytes, int width) {
+		long size = Math.min(STREAM_HEADER_SIZE + dataBytes, STREAM_BUFFER_SIZE);
+		return DirectMemory.allocate((int) Math.max(size, STREAM_HEADER_SIZE + width)).order(ByteOrder.BIG_ENDIAN);
+	}
+
+	/**
+	 * Scrive nel canale il contenuto del buffer e lo svuota.
+	 */
+	private static void flush(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Legge dal canale fino a riempire il buffer.
+	 * @throws EOFException se il canale termina prima.
+	 */
+	private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) throw new EOFException("Truncated stack stream");
+		}
+	}
+
+	// Stream
+
+	/**
+	 * Restituisce uno Spliterator sugli elementi dello stack, dal fondo alla cima, con le caratteristiche ORDERED,
+	 * SIZED e SUBSIZED. Gli elementi vengono letti direttamente dal vettore e lo Spliterator si divide sempre a metà,
+	 * quindi un parallelStream distribuisce lo stack in parti uguali tra i thread del ForkJoinPool.
+	 * Gli elementi da attraversare sono fissati alla creazione; se lo stack viene modificato strutturalmente durante
+	 * l'attraversamento viene lanciata ConcurrentModificationException.
+	 * @return lo Spliterator sugli elementi dello stack.
+	 */
+	public Spliterator<Object> spliterator() {
+		checkForComodification();
+		return new StackSpliterator(start, end);
+	}
+
+	/**
+	 * @return uno Stream sequenziale degli elementi dello stack, dal fondo alla cima.
+	 */
+	public Stream<Object> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * @return uno Stream parallelo degli elementi dello stack, dal fondo alla cima.
+	 */
+	public Stream<Object> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	// Bulk Operations with functions
+
+	/**
+	 * Dimensione delle parti in cui le varianti parallele dividono lo stack; sotto questa dimensione esse eseguono
+	 * l'operazione nel thread chiamante. È un multiplo di 64, così le parti non condividono parole della maschera di
+	 * removeIf.
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+	/**
+	 * Esegue action su ogni elemento dello stack, dal fondo alla cima.
+	 * @param action azione da eseguire.
+	 * @throws NullPointerException se action è null.
+	 * @throws ConcurrentModificationException se action modifica strutturalmente lo stack.
+	 */
+	public void forEach(Consumer<? super Object> action) {
+		if (action == null) throw new NullPointerException();
+		spliterator().forEachRemaining(action);
+	}
+
+	/**
+	 * Come forEach, ma se lo stack contiene più di PARALLEL_THRESHOLD elementi le parti dello stack vengono elaborate
+	 * in parallelo dal ForkJoinPool comune, senza un ordine definito. action deve poter essere eseguita da più thread
+	 * contemporaneamente e non deve modificare lo stack.
+	 * @param action azione da eseguire.
+	 * @throws NullPointerException se action è null.
+	 */
+	public void parallelForEach(Consumer<? super Object> action) {
+		if (action == null) throw new NullPointerException();
+		checkForComodification();
+		if (end - start <= PARALLEL_THRESHOLD) {
+			forEach(action);
+			return;
+		}
+		int expected = modCount;
+		inParallel((from, to) -> {
+			for (int i = from; i < to; i++)
+				action.accept(stack.load(i));
+		});
+		if (modCount != expected) throw new ConcurrentModificationException();
+	}
+
+	/**
+	 * Rimuove gli elementi che soddisfano filter. Il filtro viene prima valutato su tutti gli elementi, segnando in una
+	 * maschera di bit quelli da rimuovere, poi lo stack viene compattato con una sola passata: il costo è O(n) qualunque
+	 * sia il numero di elementi rimossi. Se filter lancia un'eccezione lo stack non viene modificato.
+	 * @param filter predicato che individua gli elementi da rimuovere.
+	 * @return true se almeno un elemento è stato rimosso.
+	 * @throws NullPointerException se filter è null.
+	 * @throws ConcurrentModificationException se filter modifica strutturalmente lo stack.
+	 */
+	public boolean removeIf(Predicate<? super Object> filter) {
+		if (filter == null) throw new NullPointerException();
+		checkForComodification();
+		int expected = modCount;
+		long[] marks = new long[(end - start + 63) >>> 6];
+		mark(filter, marks, start, end);
+		if (modCount != expected) throw new ConcurrentModificationException();
+		return removeMarked(marks);
+	}
+
+	/**
+	 * Come removeIf, ma se lo stack contiene più di PARALLEL_THRESHOLD elementi il filtro viene valutato in parallelo
+	 * dal ForkJoinPool comune; la compattazione resta una sola passata. filter deve poter essere eseguito da più
+	 * thread contemporaneamente e non deve modificare lo stack.
+	 * @param filter predicato che individua gli elementi da rimuovere.
+	 * @return true se almeno un elemento è stato rimosso.
+	 * @throws NullPointerException se filter è null.
+	 */
+	public boolean parallelRemoveIf(Predicate<? super Object> filter) {
+		if (filter == null) throw new NullPointerException();
+		checkForComodification();
+		if (end - start <= PARALLEL_THRESHOLD) return removeIf(filter);
+		int expected = modCount;
+		long[] marks = new long[(end - start + 63) >>> 6];
+		inParallel((from, to) -> mark(filter, marks, from, to));
+		if (modCount != expected) throw new ConcurrentModificationException();
+		return removeMarked(marks);
+	}
+
+	/**
+	 * Sostituisce ogni elemento dello stack con il risultato di op applicato ad esso.
+	 * Non è una modifica strutturale: gli iteratori e le sottoliste restano validi.
+	 * @param op funzione da applicare agli elementi; non deve modificare lo stack.
+	 * @throws NullPointerException se op è null.
+	 */
+	public void replaceAll(UnaryOperator<Object> op) {
+		if (op == null) throw new NullPointerException();
+		checkForComodification();
+		int expected = modCount;
+		try {
+			stack.replaceRange(start, end, op);
+		} finally {
+			stack.componentsReplaced(start);
+		}
+		if (modCount != expected) throw new ConcurrentModificationException();
+	}
+
+	/**
+	 * Come replaceAll, ma se lo stack contiene più di PARALLEL_THRESHOLD elementi le parti dello stack vengono
+	 * elaborate in parallelo dal ForkJoinPool comune. op deve poter essere eseguita da più thread contemporaneamente.
+	 * @param op funzione da applicare agli elementi; non deve modificare lo stack.
+	 * @throws NullPointerException se op è null.
+	 */
+	public void parallelReplaceAll(UnaryOperator<Object> op) {
+		if (op == null) throw new NullPointerException();
+		checkForComodification();
+		if (end - start <= PARALLEL_THRESHOLD) {
+			replaceAll(op);
+			return;
+		}
+		int expected = modCount;
+		try {
+			inParallel((from, to) -> stack.replaceRange(from, to, op));
+		} finally {
+			stack.componentsReplaced(start);
+		}
+		if (modCount != expected) throw new ConcurrentModificationException();
+	}
+
+	/**
+	 * Divide [start, end) in parti di PARALLEL_THRESHOLD elementi e le passa a task nel ForkJoinPool comune.
+	 * Il metodo ritorna quando tutte le parti sono state elaborate.
+	 */
+	private void inParallel(RangeTask task) {
+		int from = start;
+		int to = end;
+		int parts = (to - from + PARALLEL_THRESHOLD - 1) / PARALLEL_THRESHOLD;
+		IntStream.range(0, parts).parallel().forEach(p -> {
+			int lo = from + p * PARALLEL_THRESHOLD;
+			task.run(lo, Math.min(to, lo + PARALLEL_THRESHOLD));
+		});
+	}
+
+	/**
+	 * Segna in marks gli elementi in [from, to) che soddisfano filter; il bit i - start corrisponde alla posizione i.
+	 */
+	private void mark(Predicate<? super Object> filter, long[] marks, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (filter.test(stack.load(i))) {
+				int bit = i - start;
+				marks[bit >>> 6] |= 1L << bit;
+			}
+		}
+	}
+
+	/**
+	 * Rimuove gli elementi segnati in marks con una sola passata.
+	 * @return true se almeno un elemento è stato rimosso.
+	 */
+	private boolean removeMarked(long[] marks) {
+		int removed = stack.compact(start, end, marks);
+		if (removed == 0) return false;
+		end -= removed;
+		structuralChange(-removed);
+		return true;
+	}
+
 	// View
 
 	/**
 	 * Restituisce una sottolista degli elementi compresi tra gli indici indicato, toIndex escluso.
 	 * Ogni modifica non strutturale effettuata alla sottolista, si ripercuote sulla lista da cui è stata generata e viceversa.
+	 * Le modifiche strutturali fatte tramite la sottolista aggiornano anche la lista di partenza; dopo una modifica
+	 * strutturale della lista di partenza fatta senza passare dalla sottolista, ogni operazione sulla sottolista lancia
+	 * ConcurrentModificationException.
 	 *
 	 * @param fromIndex indice di partenza della sublist.
 	 * @param toIndex   indice finale, non compreso, della sublist.
@@ -460,6 +961,7 @@ public class StackAdapter implements HList, HCollection {
 					StackAdapter list = new StackAdapter();
 					list.stack = this.stack;
 					list.root = this;
+					list.expectedModCount = this.modCount;
 					list.end = toIndex;
 					list.start = fromIndex;
 					return list;
@@ -485,17 +987,28 @@ public class StackAdapter implements HList, HCollection {
 	 */
 
 	public Object peek() {
+		checkForComodification();
+		if (end == start) throw new EmptyStackException();
+		if (stack.metrics != null) stack.metrics.peeked();
 		return stack.elementAt(end-1);
 	}
 
 	/**
 	 * Rimuove l'oggetto in cima allo stack e lo restituisce.
+	 * L'elemento viene tolto dal vettore, che quindi non mantiene un riferimento all'oggetto rimosso, e il push
+	 * successivo aggiunge in coda al vettore in tempo costante.
 	 * @throws java.util.EmptyStackException se lo stack è vuoto.
 	 * @return l'oggetto in cima allo stack che è stato rimosso.
  	 */
 	public Object pop() {
+		checkForComodification();
+		if (end == start) throw new EmptyStackException();
+		if (stack.metrics != null) stack.metrics.popped();
+		Object item = stack.elementAt(end - 1);
+		stack.removeElementAt(end - 1);
 		end--;
-		return stack.elementAt(end);
+		structuralChange(-1);
+		return item;
 	}
 
 	/**
@@ -504,11 +1017,108 @@ public class StackAdapter implements HList, HCollection {
 	 * @return l'argomento della funzione, ovvero l'oggetto aggiunto in cima allo stack.
 	 */
 	public Object push(Object item) {
+		checkForComodification();
+		if (stack.metrics != null) stack.metrics.pushed();
 		stack.insertElementAt(item, end);
 		end++;
+		structuralChange(1);
 		return item;
 	}
 
+	/**
+	 * Inserisce in cima allo stack gli elementi src[off], ..., src[off + len - 1], nell'ordine: l'ultimo diventa la
+	 * nuova cima. Lo spazio viene riservato una sola volta e gli elementi vengono copiati in blocco.
+	 * @param src array che contiene gli elementi da inserire.
+	 * @param off indice del primo elemento da inserire.
+	 * @param len numero di elementi da inserire.
+	 * @throws NullPointerException se src è null.
+	 * @throws IndexOutOfBoundsException se off e len non individuano un intervallo valido di src.
+	 */
+	public void pushAll(Object[] src, int off, int len) {
+		if (src == null) throw new NullPointerException();
+		if (off < 0 || len < 0 || off > src.length - len) throw new IndexOutOfBoundsException();
+		checkForComodification();
+		if (len == 0) return;
+		if (stack.metrics != null) stack.metrics.pushed(len);
+		stack.insertElementsAt(src, off, len, end);
+		end += len;
+		structuralChange(len);
+	}
+
+	/**
+	 * Rimuove dalla cima dello stack fino a max elementi e li copia in dst a partire da dst[off], mantenendo l'ordine
+	 * che hanno nello stack: la vecchia cima è l'ultimo elemento copiato, quindi pushAll(dst, off, n) ricostruisce lo
+	 * stack. Gli elementi vengono copiati in blocco.
+	 * @param dst array in cui copiare gli elementi.
+	 * @param off indice di dst in cui copiare il primo elemento.
+	 * @param max numero massimo di elementi da rimuovere.
+	 * @throws NullPointerException se dst è null.
+	 * @throws IndexOutOfBoundsException se off e max non individuano un intervallo valido di dst.
+	 * @return il numero di elementi rimossi, minore di max se lo stack ne contiene meno.
+	 */
+	public int popInto(Object[] dst, int off, int max) {
+		if (dst == null) throw new NullPointerException();
+		if (off < 0 || max < 0 || off > dst.length - max) throw new IndexOutOfBoundsException();
+		checkForComodification();
+		int n = Math.min(max, end - start);
+		if (n == 0) return 0;
+		if (stack.metrics != null) stack.metrics.popped(n);
+		stack.copyInto(end - n, dst, off, n);
+		stack.removeRange(end - n, end);
+		end -= n;
+		structuralChange(-n);
+		return n;
+	}
+
+	/**
+	 * Rimuove dalla cima dello stack fino a max elementi e li aggiunge alla collezione target, mantenendo l'ordine che
+	 * hanno nello stack, come popInto. Se target è uno StackAdapter gli elementi vengono inseriti in cima ad esso con
+	 * una sola copia in blocco; altrimenti vengono aggiunti uno alla volta con add. Se add lancia un'eccezione, gli
+	 * elementi già aggiunti vengono comunque rimossi dallo stack e gli altri vi restano, poi l'eccezione viene propagata.
+	 * @param target collezione in cui trasferire gli elementi.
+	 * @param max numero massimo di elementi da trasferire.
+	 * @throws NullPointerException se target è null.
+	 * @throws IllegalArgumentException se target è questo stack o condivide con esso gli elementi (una sua sottolista).
+	 * @throws IndexOutOfBoundsException se max è negativo.
+	 * @return il numero di elementi trasferiti.
+	 */
+	public int drainTo(HCollection target, int max) {
+		if (target == null) throw new NullPointerException();
+		if (max < 0) throw new IndexOutOfBoundsException();
+		if (target instanceof StackAdapter && ((StackAdapter) target).stack == stack) throw new IllegalArgumentException();
+		checkForComodification();
+		int n = Math.min(max, end - start);
+		if (n == 0) return 0;
+		if (target instanceof StackAdapter) {
+			StackAdapter to = (StackAdapter) target;
+			to.checkForComodification();
+			if (to.stack.metrics != null) to.stack.metrics.pushed(n);
+			to.stack.insertElementsAt(stack, end - n, n, to.end);
+			to.end += n;
+			to.structuralChange(n);
+		} else {
+			int from = end - n;
+			int k = 0;
+			try {
+				for (; k < n; k++)
+					target.add(stack.elementAt(from + k));
+			} finally {
+				if (k > 0) {
+					if (stack.metrics != null) stack.metrics.popped(k);
+					stack.removeRange(from, from + k);
+					end -= k;
+					structuralChange(-k);
+				}
+			}
+			return n;
+		}
+		if (stack.metrics != null) stack.metrics.popped(n);
+		stack.removeRange(end - n, end);
+		end -= n;
+		structuralChange(-n);
+		return n;
+	}
+
 	/**
 	 * Il metodo cerca all'interno dello stack l'oggetto passato come argomento. Se esso è presente all'interno dello stack, il metodo restituisce
 	 * la distanza di questo oggetto dalla cima dello stack. Se ve ne sono più di uno, allora si considera quello più vicino alla cima dello stack e viene restituita la sua
@@ -517,21 +1127,164 @@ public class StackAdapter implements HList, HCollection {
 	 * @return la posizione (1-based) dalla cima dello stack dove l'oggetto si trova, se l'oggetto non viene trovato ritorna -1.
 	 */
 	public int search(Object o) {
-		int distance = 1;
-		boolean found = false;
-		int i = end-1;
-		while (!found && i>=start ){
-			if (o.equals(stack.elementAt(i))){
-				found=true;
-			}else{
-				distance++;
-			}
-			i--;
+		checkForComodification();
+		if (stack.metrics != null) stack.metrics.searched();
+		StackSearchEvent event = new StackSearchEvent();
+		event.begin();
+		int i = stack.lastIndexOf(o, start, end);
+		if (!stack.isIndexed()) event.record(stack, "search", i < 0 ? end - start : end - i);
+		if (i < 0) return -1;
+		else return end - i;
+	}
+
+	/**
+	 * Attiva la modalità indicizzata: lo stack mantiene una tabella hash che associa ad ogni valore le posizioni in cui
+	 * si trova, così search, contains, indexOf e lastIndexOf non scorrono più lo stack.
+	 * push, pop, add in coda e set aggiornano la tabella in tempo costante; gli inserimenti e le rimozioni in mezzo allo
+	 * stack la invalidano, ed essa viene ricostruita alla ricerca successiva.
+	 * Se lo stack contiene più di maxEntries elementi la tabella viene eliminata e le ricerche tornano a scorrere lo stack,
+	 * finché esso non scende sotto metà del limite.
+	 * Gli elementi non devono cambiare equals o hashCode mentre sono nello stack.
+	 * L'indice è condiviso con lo stack di partenza e con le sue sottoliste.
+	 * @param maxEntries numero massimo di elementi indicizzati.
+	 * @throws IllegalArgumentException se maxEntries è negativo.
+	 */
+	public void enableIndex(int maxEntries) {
+		stack.enableIndex(maxEntries);
+	}
+
+	/**
+	 * Disattiva la modalità indicizzata e libera la memoria della tabella.
+	 */
+	public void disableIndex() {
+		stack.disableIndex();
+	}
+
+	/**
+	 * @return true se la modalità indicizzata è attiva.
+	 */
+	public boolean isIndexed() {
+		return stack.isIndexed();
+	}
+
+	/**
+	 * Attiva la cache dell'hash: hashCode restituisce un valore memorizzato, che push, pop, add in coda e set
+	 * aggiornano senza scorrere lo stack; le altre modifiche lo invalidano e l'hashCode successivo lo ricalcola.
+	 * Con la cache attiva equals scarta in tempo costante gli stack con hash diverso, quindi conviene agli stack usati
+	 * come chiavi di una mappa. Gli elementi non devono cambiare hashCode mentre sono nello stack.
+	 * La cache è condivisa con le sottoliste, che però calcolano il proprio hash scorrendo i propri elementi.
+	 */
+	public void enableHashCache() {
+		stack.enableHashCache();
+	}
+
+	/**
+	 * Disattiva la cache dell'hash.
+	 */
+	public void disableHashCache() {
+		stack.disableHashCache();
+	}
+
+	/**
+	 * @return true se la cache dell'hash è attiva.
+	 */
+	public boolean isHashCached() {
+		return stack.isHashCached();
+	}
+
+	/**
+	 * Attiva i contatori delle operazioni: chiamate a push, pop, peek, search, add(int, Object) e remove(int),
+	 * profondità massima, crescite della memoria ed elementi spostati dalle modifiche in mezzo allo stack.
+	 * Finché i contatori non sono attivi ogni operazione paga un solo confronto con null.
+	 * I contatori sono condivisi con lo stack di partenza e con le sue sottoliste; se sono già attivi non vengono
+	 * azzerati.
+	 * @return i contatori dello stack.
+	 */
+	public StackMetrics enableMetrics() {
+		if (stack.metrics == null) {
+			stack.metrics = new StackMetrics();
+			stack.metrics.depth(stack.size());
 		}
-		if (!found) return -1;
-		else return distance;
+		return stack.metrics;
 	}
 
+	/**
+	 * Disattiva i contatori delle operazioni.
+	 */
+	public void disableMetrics() {
+		stack.metrics = null;
+	}
+
+	/**
+	 * @return i contatori dello stack, oppure null se non sono attivi.
+	 */
+	public StackMetrics getMetrics() {
+		return stack.metrics;
+	}
+
+	/**
+	 * Imposta la politica con cui cresce e si riduce l'array che contiene gli elementi. Di norma lo stack usa
+	 * CapacityPolicy.DEFAULT, quindi la memoria occupata da un picco di elementi viene restituita quando lo stack si
+	 * svuota; CapacityPolicy.NEVER_SHRINK mantiene la capacità raggiunta, come fa un Vector.
+	 * La politica è condivisa con lo stack di partenza e con le sue sottoliste; uno stack creato con segmented la
+	 * ignora, perché rilascia da solo i blocchi inutilizzati.
+	 * @param policy la politica da usare.
+	 * @throws NullPointerException se policy è null.
+	 */
+	public void setCapacityPolicy(CapacityPolicy policy) {
+		if (policy == null) throw new NullPointerException();
+		stack.setCapacityPolicy(policy);
+	}
+
+	/**
+	 * @return la politica con cui cresce e si riduce l'array che contiene gli elementi.
+	 */
+	public CapacityPolicy getCapacityPolicy() {
+		CapacityPolicy policy = stack.getCapacityPolicy();
+		return policy == null ? CapacityPolicy.NEVER_SHRINK : policy;
+	}
+
+	/**
+	 * @return il numero di elementi che lo stack può contenere senza allocare altra memoria.
+	 */
+	public int capacity() {
+		return stack.capacity();
+	}
+
+	/**
+	 * Riduce la capacità al numero di elementi contenuti, liberando tutta la memoria inutilizzata.
+	 */
+	public void trimToSize() {
+		stack.trimToSize();
+	}
+
+
+	/**
+	 * Registra una modifica strutturale fatta tramite questo stack: incrementa modCount e, se lo stack è una sottolista,
+	 * aggiorna la fine e modCount di tutti gli stack da cui è stata generata, così che la sottolista resti valida.
+	 * @param delta variazione del numero di elementi del vettore condiviso.
+	 */
+	private void structuralChange(int delta) {
+		modCount++;
+		StackAdapter child = this;
+		for (StackAdapter parent = root; parent != null; child = parent, parent = parent.root) {
+			parent.end += delta;
+			parent.modCount++;
+			child.expectedModCount = parent.modCount;
+		}
+	}
+
+	/**
+	 * Verifica che gli stack da cui è stata generata questa sottolista non siano stati modificati strutturalmente
+	 * senza passare da essa. Per uno stack che non è una sottolista il controllo costa un solo confronto.
+	 * @throws ConcurrentModificationException se la sottolista non è più valida.
+	 */
+	private void checkForComodification() {
+		if (root != null) {
+			root.checkForComodification();
+			if (root.modCount != expectedModCount) throw new ConcurrentModificationException();
+		}
+	}
 
 	/**
 	 * Private class dell'iteratore, che implementa le interfacce HListIterator e HIterator
@@ -556,6 +1309,12 @@ public class StackAdapter implements HList, HCollection {
 		 */
 		boolean foward = false;
 
+		/**
+		 * Valore di modCount atteso dall'iteratore: se è diverso, lo stack è stato modificato strutturalmente senza
+		 * passare dall'iteratore.
+		 */
+		private int expectedModCount = modCount;
+
 		/**
 		 * Costruttore
 		 */
@@ -592,6 +1351,7 @@ public class StackAdapter implements HList, HCollection {
 		 * @throws NoSuchElementException se l'iteratore è alla fine della lista.
 		 */
 		public Object next() {
+			checkForComodification();
 			if (!hasNext()) throw new NoSuchElementException();
 			else {
 				point++;
@@ -618,6 +1378,7 @@ public class StackAdapter implements HList, HCollection {
 		 * @throws NoSuchElementException se non ve ne sono.
 		 */
 		public Object previous() {
+			checkForComodification();
 			if (!hasPrevious()) throw new NoSuchElementException();
 			else {
 				point--;
@@ -647,6 +1408,15 @@ public class StackAdapter implements HList, HCollection {
 			return point-1;
 		}
 
+		/**
+		 * Verifica che lo stack non sia stato modificato strutturalmente senza passare dall'iteratore.
+		 * @throws ConcurrentModificationException se lo stack, o uno stack da cui è stato generato, è stato modificato.
+		 */
+		private void checkForComodification() {
+			StackAdapter.this.checkForComodification();
+			if (modCount != expectedModCount) throw new ConcurrentModificationException();
+		}
+
 		/**
 		 * Il metodo rimuove l'ultimo elemento che è stato ritornato da next() o da previous().
 		 *
@@ -655,12 +1425,14 @@ public class StackAdapter implements HList, HCollection {
 		 */
 		public void remove() {
 			if (!modified) throw new IllegalStateException();
+			checkForComodification();
 			if (!foward) {
 				StackAdapter.this.remove(point);
 			} else {
 				StackAdapter.this.remove(point--);
 				point--;
 			}
+			expectedModCount = modCount;
 			modified = false;
 		}
 
@@ -673,6 +1445,7 @@ public class StackAdapter implements HList, HCollection {
 		 */
 		public void set(Object obj) {
 			if (!modified) throw new IllegalStateException();
+			checkForComodification();
 			if (foward) {
 				StackAdapter.this.set(point-1, obj);
 			}else{
@@ -688,11 +1461,101 @@ public class StackAdapter implements HList, HCollection {
 		 * @param obj elemento da inserire nella posizione corrente dell'iteratore.
 		 */
 		public void add(Object obj) {
+			checkForComodification();
 			StackAdapter.this.add(point, obj);
+			expectedModCount = modCount;
 			point++;
 			modified = false;
 		}
 	}
 
+	/**
+	 * Operazione su un intervallo [from, to) di posizioni del vettore, eseguita dalle varianti parallele.
+	 */
+	private interface RangeTask {
+		void run(int from, int to);
+	}
+
+	/**
+	 * Spliterator sugli elementi del vettore compresi tra origin (incluso) e fence (escluso).
+	 * Ogni modifica strutturale, fatta tramite questo stack, una sua sottolista o lo stack di partenza, incrementa
+	 * modCount dello stack più esterno: lo Spliterator lo confronta con il valore letto alla creazione prima di ogni
+	 * elemento.
+	 */
+	private final class StackSpliterator implements Spliterator<Object> {
+
+		/**
+		 * Posizione del prossimo elemento da attraversare.
+		 */
+		private int origin;
+
+		/**
+		 * Posizione successiva all'ultimo elemento da attraversare.
+		 */
+		private final int fence;
+
+		/**
+		 * Stack più esterno, da cui sono state generate tutte le sottoliste.
+		 */
+		private final StackAdapter top;
+
+		/**
+		 * Valore atteso di top.modCount.
+		 */
+		private final int expectedModCount;
+
+		StackSpliterator(int origin, int fence) {
+			StackAdapter s = StackAdapter.this;
+			while (s.root != null) s = s.root;
+			this.origin = origin;
+			this.fence = fence;
+			this.top = s;
+			this.expectedModCount = s.modCount;
+		}
+
+		private StackSpliterator(StackSpliterator parent, int origin, int fence) {
+			this.origin = origin;
+			this.fence = fence;
+			this.top = parent.top;
+			this.expectedModCount = parent.expectedModCount;
+		}
+
+		public boolean tryAdvance(Consumer<? super Object> action) {
+			if (action == null) throw new NullPointerException();
+			if (origin >= fence) return false;
+			if (top.modCount != expectedModCount) throw new ConcurrentModificationException();
+			action.accept(stack.load(origin++));
+			return true;
+		}
+
+		public void forEachRemaining(Consumer<? super Object> action) {
+			if (action == null) throw new NullPointerException();
+			ArrayVector v = stack;
+			int hi = fence;
+			for (int i = origin; i < hi; i++) {
+				if (top.modCount != expectedModCount) throw new ConcurrentModificationException();
+				action.accept(v.load(i));
+			}
+			origin = hi;
+			if (top.modCount != expectedModCount) throw new ConcurrentModificationException();
+		}
+
+		public Spliterator<Object> trySplit() {
+			int mid = (origin + fence) >>> 1;
+			if (mid <= origin) return null;
+			StackSpliterator prefix = new StackSpliterator(this, origin, mid);
+			origin = mid;
+			return prefix;
+		}
+
+		public long estimateSize() {
+			return fence - origin;
+		}
+
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+	}
+
 }
 
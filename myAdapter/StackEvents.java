@@ -0,0 +1,72 @@
+package myAdapter;
+
+/**
+ * Soglie degli eventi di JDK Flight Recorder emessi da StackAdapter e dal suo vettore.
+ * <p>
+ * Gli eventi sono:
+ * <ul>
+ * <li>myAdapter.StackResize: l'array che contiene gli elementi è stato riallocato (o è stato allocato un nuovo blocco
+ * di un SegmentedVector); riporta la vecchia e la nuova capacità e la durata della copia.</li>
+ * <li>myAdapter.StackShift: un inserimento o una rimozione in mezzo allo stack ha spostato almeno
+ * getShiftThreshold() elementi.</li>
+ * <li>myAdapter.StackSearch: search o contains hanno scorso almeno getSearchThreshold() elementi.</li>
+ * </ul>
+ * Ogni evento riporta l'identità (System.identityHashCode) del vettore dello stack, condiviso con le sue sottoliste,
+ * e la sua profondità. Quando la registrazione non è attiva o l'evento è disabilitato nelle impostazioni di JFR, la JVM
+ * elimina la creazione degli eventi e il loro costo si riduce a un confronto.
+ * <p>
+ * Le soglie sono globali e vanno impostate prima di usare gli stack, ad esempio all'avvio dell'applicazione.
+ */
+public final class StackEvents {
+
+	/**
+	 * Soglia predefinita di elementi spostati oltre la quale viene emesso myAdapter.StackShift.
+	 */
+	public static final int DEFAULT_SHIFT_THRESHOLD = 1024;
+
+	/**
+	 * Soglia predefinita di elementi scorsi oltre la quale viene emesso myAdapter.StackSearch.
+	 */
+	public static final int DEFAULT_SEARCH_THRESHOLD = 10000;
+
+	static int shiftThreshold = DEFAULT_SHIFT_THRESHOLD;
+
+	static int searchThreshold = DEFAULT_SEARCH_THRESHOLD;
+
+	private StackEvents() {
+	}
+
+	/**
+	 * @return il numero minimo di elementi spostati per cui viene emesso myAdapter.StackShift.
+	 */
+	public static int getShiftThreshold() {
+		return shiftThreshold;
+	}
+
+	/**
+	 * Imposta il numero minimo di elementi spostati per cui viene emesso myAdapter.StackShift.
+	 * @param threshold numero di elementi, almeno 1.
+	 * @throws IllegalArgumentException se threshold è minore di 1.
+	 */
+	public static void setShiftThreshold(int threshold) {
+		if (threshold < 1) throw new IllegalArgumentException();
+		shiftThreshold = threshold;
+	}
+
+	/**
+	 * @return il numero minimo di elementi scorsi per cui viene emesso myAdapter.StackSearch.
+	 */
+	public static int getSearchThreshold() {
+		return searchThreshold;
+	}
+
+	/**
+	 * Imposta il numero minimo di elementi scorsi per cui viene emesso myAdapter.StackSearch.
+	 * @param threshold numero di elementi, almeno 1.
+	 * @throws IllegalArgumentException se threshold è minore di 1.
+	 */
+	public static void setSearchThreshold(int threshold) {
+		if (threshold < 1) throw new IllegalArgumentException();
+		searchThreshold = threshold;
+	}
+}
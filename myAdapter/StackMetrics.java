@@ -0,0 +1,212 @@
+package myAdapter;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contatori delle operazioni di uno StackAdapter, attivati con StackAdapter.enableMetrics().
+ * <p>
+ * Vengono contati gli elementi inseriti e rimossi in cima (uno per push e pop, uno per ciascun elemento trasferito da
+ * pushAll, popInto e drainTo), le chiamate a peek, search e alle add(int, Object) e remove(int) posizionali, le
+ * crescite della memoria del vettore e il numero totale di elementi spostati dagli inserimenti e dalle rimozioni in
+ * mezzo al vettore; viene registrata inoltre la profondità massima raggiunta. Un numero alto di elementi spostati
+ * rispetto alle operazioni indica che lo stack viene modificato lontano dalla cima.
+ * <p>
+ * I contatori sono LongAdder, che distribuiscono gli incrementi tra più celle: un thread di monitoraggio può leggere
+ * snapshot() mentre lo stack viene usato senza rallentarlo. I valori di uno snapshot sono letti uno alla volta, quindi
+ * non sono necessariamente coerenti tra loro se lo stack viene modificato durante la lettura.
+ */
+public final class StackMetrics {
+
+	private final LongAdder pushes = new LongAdder();
+	private final LongAdder pops = new LongAdder();
+	private final LongAdder peeks = new LongAdder();
+	private final LongAdder searches = new LongAdder();
+	private final LongAdder positionalAdds = new LongAdder();
+	private final LongAdder positionalRemoves = new LongAdder();
+	private final LongAdder growths = new LongAdder();
+	private final LongAdder shifted = new LongAdder();
+	private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+
+	StackMetrics() {
+	}
+
+	void pushed() {
+		pushes.increment();
+	}
+
+	void popped() {
+		pops.increment();
+	}
+
+	/**
+	 * Registra n elementi inseriti in cima da un'operazione in blocco.
+	 */
+	void pushed(int n) {
+		if (n > 0) pushes.add(n);
+	}
+
+	/**
+	 * Registra n elementi rimossi dalla cima da un'operazione in blocco.
+	 */
+	void popped(int n) {
+		if (n > 0) pops.add(n);
+	}
+
+	void peeked() {
+		peeks.increment();
+	}
+
+	void searched() {
+		searches.increment();
+	}
+
+	void positionalAdd() {
+		positionalAdds.increment();
+	}
+
+	void positionalRemove() {
+		positionalRemoves.increment();
+	}
+
+	/**
+	 * Registra una crescita della memoria del vettore.
+	 */
+	void grown() {
+		growths.increment();
+	}
+
+	/**
+	 * Registra lo spostamento di n elementi.
+	 */
+	void shifted(int n) {
+		if (n > 0) shifted.add(n);
+	}
+
+	/**
+	 * Registra che il vettore contiene depth elementi.
+	 */
+	void depth(int depth) {
+		maxDepth.accumulate(depth);
+	}
+
+	/**
+	 * Azzera tutti i contatori, compresa la profondità massima.
+	 */
+	public void reset() {
+		pushes.reset();
+		pops.reset();
+		peeks.reset();
+		searches.reset();
+		positionalAdds.reset();
+		positionalRemoves.reset();
+		growths.reset();
+		shifted.reset();
+		maxDepth.reset();
+	}
+
+	/**
+	 * @return i valori correnti dei contatori.
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(pushes.sum(), pops.sum(), peeks.sum(), searches.sum(), positionalAdds.sum(),
+				positionalRemoves.sum(), maxDepth.get(), growths.sum(), shifted.sum());
+	}
+
+	/**
+	 * Valori dei contatori letti da snapshot(). Gli oggetti di questa classe sono immutabili.
+	 */
+	public static final class Snapshot {
+		private final long pushes;
+		private final long pops;
+		private final long peeks;
+		private final long searches;
+		private final long positionalAdds;
+		private final long positionalRemoves;
+		private final long maxDepth;
+		private final long growths;
+		private final long shifted;
+
+		Snapshot(long pushes, long pops, long peeks, long searches, long positionalAdds, long positionalRemoves,
+				 long maxDepth, long growths, long shifted) {
+			this.pushes = pushes;
+			this.pops = pops;
+			this.peeks = peeks;
+			this.searches = searches;
+			this.positionalAdds = positionalAdds;
+			this.positionalRemoves = positionalRemoves;
+			this.maxDepth = maxDepth;
+			this.growths = growths;
+			this.shifted = shifted;
+		}
+
+		/**
+		 * @return il numero di elementi inseriti in cima, con push o con pushAll e drainTo.
+		 */
+		public long getPushes() {
+			return pushes;
+		}
+
+		/**
+		 * @return il numero di elementi rimossi dalla cima, con pop o con popInto e drainTo.
+		 */
+		public long getPops() {
+			return pops;
+		}
+
+		/**
+		 * @return il numero di chiamate a peek.
+		 */
+		public long getPeeks() {
+			return peeks;
+		}
+
+		/**
+		 * @return il numero di chiamate a search.
+		 */
+		public long getSearches() {
+			return searches;
+		}
+
+		/**
+		 * @return il numero di chiamate ad add(int, Object).
+		 */
+		public long getPositionalAdds() {
+			return positionalAdds;
+		}
+
+		/**
+		 * @return il numero di chiamate a remove(int).
+		 */
+		public long getPositionalRemoves() {
+			return positionalRemoves;
+		}
+
+		/**
+		 * @return il numero massimo di elementi contenuti nel vettore.
+		 */
+		public long getMaxDepth() {
+			return maxDepth;
+		}
+
+		/**
+		 * @return il numero di volte in cui la memoria del vettore è cresciuta.
+		 */
+		public long getGrowths() {
+			return growths;
+		}
+
+		/**
+		 * @return il numero totale di elementi spostati da inserimenti e rimozioni in mezzo al vettore.
+		 */
+		public long getShifted() {
+			return shifted;
+		}
+
+		public String toString() {
+			return "StackMetrics[pushes=" + pushes + ", pops=" + pops + ", peeks=" + peeks + ", searches=" + searches
+					+ ", positionalAdds=" + positionalAdds + ", positionalRemoves=" + positionalRemoves
+					+ ", maxDepth=" + maxDepth + ", growths=" + growths + ", shifted=" + shifted + "]";
+		}
+	}
+}
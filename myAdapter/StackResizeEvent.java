@@ -0,0 +1,42 @@
+package myAdapter;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR emesso quando la memoria del vettore di uno stack viene riallocata; la durata è quella della copia.
+ * @see StackEvents
+ */
+@Name("myAdapter.StackResize")
+@Label("Stack Resize")
+@Category("Stack Adapter")
+@Description("The backing store of a StackAdapter was reallocated")
+final class StackResizeEvent extends jdk.jfr.Event {
+
+	@Label("Stack Identity")
+	int stackId;
+
+	@Label("Depth")
+	int depth;
+
+	@Label("Old Capacity")
+	int oldCapacity;
+
+	@Label("New Capacity")
+	int newCapacity;
+
+	/**
+	 * Completa l'evento e lo registra, se JFR lo richiede.
+	 */
+	void record(ArrayVector stack, int oldCapacity, int newCapacity) {
+		end();
+		if (!shouldCommit()) return;
+		this.stackId = System.identityHashCode(stack);
+		this.depth = stack.elementCount;
+		this.oldCapacity = oldCapacity;
+		this.newCapacity = newCapacity;
+		commit();
+	}
+}
@@ -0,0 +1,42 @@
+package myAdapter;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR emesso quando search o contains scorrono almeno StackEvents.getSearchThreshold() elementi.
+ * @see StackEvents
+ */
+@Name("myAdapter.StackSearch")
+@Label("Stack Search")
+@Category("Stack Adapter")
+@Description("A search or contains call on a StackAdapter scanned many elements")
+final class StackSearchEvent extends jdk.jfr.Event {
+
+	@Label("Stack Identity")
+	int stackId;
+
+	@Label("Depth")
+	int depth;
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Scanned Elements")
+	int scanned;
+
+	/**
+	 * Completa l'evento e lo registra, se sono stati scorsi abbastanza elementi e JFR lo richiede.
+	 */
+	void record(ArrayVector stack, String operation, int scanned) {
+		end();
+		if (scanned < StackEvents.searchThreshold || !shouldCommit()) return;
+		this.stackId = System.identityHashCode(stack);
+		this.depth = stack.elementCount;
+		this.operation = operation;
+		this.scanned = scanned;
+		commit();
+	}
+}
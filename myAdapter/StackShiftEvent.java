@@ -0,0 +1,43 @@
+package myAdapter;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR emesso quando un inserimento o una rimozione in mezzo al vettore di uno stack sposta almeno
+ * StackEvents.getShiftThreshold() elementi.
+ * @see StackEvents
+ */
+@Name("myAdapter.StackShift")
+@Label("Stack Shift")
+@Category("Stack Adapter")
+@Description("An insertion or removal in the middle of a StackAdapter shifted many elements")
+final class StackShiftEvent extends jdk.jfr.Event {
+
+	@Label("Stack Identity")
+	int stackId;
+
+	@Label("Depth")
+	int depth;
+
+	@Label("Position")
+	int position;
+
+	@Label("Shifted Elements")
+	int shifted;
+
+	/**
+	 * Completa l'evento e lo registra, se JFR lo richiede.
+	 */
+	void record(ArrayVector stack, int position, int shifted) {
+		end();
+		if (!shouldCommit()) return;
+		this.stackId = System.identityHashCode(stack);
+		this.depth = stack.elementCount;
+		this.position = position;
+		this.shifted = shifted;
+		commit();
+	}
+}
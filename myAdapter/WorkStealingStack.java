@@ -0,0 +1,210 @@
+package myAdapter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.EmptyStackException;
+
+/**
+ * Deque work-stealing di Chase e Lev, con i metodi di stack di StackAdapter (push, pop, peek, empty) per il thread
+ * proprietario e steal() per gli altri thread.
+ * <p>
+ * Pensato per gli scheduler in cui ogni worker ha il proprio stack LIFO di task: il proprietario inserisce e
+ * rimuove in cima, mentre i worker senza lavoro rubano dal fondo, cioè i task più vecchi, che in un algoritmo
+ * ricorsivo sono anche i più grandi. Proprietario e ladri lavorano ai due estremi opposti e si contendono un elemento
+ * solo quando ne resta uno.
+ * <p>
+ * Gli elementi sono in un array circolare la cui lunghezza è una potenza di 2, indicizzato da due contatori che
+ * crescono sempre: top (la cima, scritto solo dal proprietario) e base (il fondo, avanzato dai ladri con una
+ * compareAndSet). Un push scrive l'elemento e pubblica top con una scrittura release, senza alcuna istruzione
+ * atomica; un pop abbassa top e lo confronta con base dopo una barriera, e usa la compareAndSet su base solo se
+ * l'elemento è l'ultimo, per decidere chi tra lui e un ladro lo ottiene. Quando l'array è pieno il proprietario lo
+ * sostituisce con uno lungo il doppio: i ladri che stanno ancora leggendo il vecchio array vi trovano gli stessi
+ * elementi, perché dopo la sostituzione non viene più modificato.
+ * <p>
+ * push, pop e peek devono essere chiamati solo dal thread proprietario; la classe non lo verifica. steal, size ed
+ * empty possono essere chiamati da qualunque thread, e size ed empty danno un valore che può essere già cambiato.
+ * null non è ammesso come elemento, perché steal lo restituisce per indicare che lo stack è vuoto. Gli elementi
+ * rubati restano referenziati dall'array finché la loro cella non viene riutilizzata da un push.
+ *
+ * @see StackAdapter
+ * @see ConcurrentStackAdapter
+ */
+
+public class WorkStealingStack {
+
+	/**
+	 * Capacità iniziale usata dal costruttore di default.
+	 */
+	static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * Capacità massima dell'array.
+	 */
+	static final int MAX_CAPACITY = 1 << 30;
+
+	private static final VarHandle TOP;
+	private static final VarHandle BASE;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			TOP = lookup.findVarHandle(WorkStealingStack.class, "top", long.class);
+			BASE = lookup.findVarHandle(WorkStealingStack.class, "base", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * Array circolare degli elementi; l'elemento di indice i si trova in array[i & (array.length - 1)].
+	 */
+	private volatile Object[] array;
+
+	/**
+	 * Indice della prossima cella in cima, scritto solo dal proprietario.
+	 */
+	private volatile long top;
+
+	/**
+	 * Indice dell'elemento sul fondo, il prossimo che verrà rubato.
+	 */
+	private volatile long base;
+
+	/**
+	 * Costruttore: crea uno stack vuoto.
+	 */
+	public WorkStealingStack() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Costruttore: crea uno stack vuoto con la capacità iniziale indicata, arrotondata alla potenza di 2 successiva.
+	 * @param initialCapacity numero di elementi che lo stack può contenere prima di dover crescere.
+	 * @throws IllegalArgumentException se initialCapacity non è positiva o è maggiore di 2^30.
+	 */
+	public WorkStealingStack(int initialCapacity) {
+		if (initialCapacity <= 0 || initialCapacity > MAX_CAPACITY) throw new IllegalArgumentException();
+		int capacity = Math.max(2, Integer.highestOneBit(initialCapacity - 1) << 1);
+		array = new Object[capacity];
+	}
+
+	// Owner Operations
+
+	/**
+	 * Inserisce un elemento in cima allo stack. Può essere chiamato solo dal proprietario.
+	 * @param item oggetto da inserire.
+	 * @throws NullPointerException se item è null.
+	 * @throws IllegalStateException se lo stack ha raggiunto la capacità massima.
+	 * @return l'argomento della funzione, ovvero l'oggetto aggiunto in cima allo stack.
+	 */
+	public Object push(Object item) {
+		if (item == null) throw new NullPointerException();
+		long t = top;
+		Object[] a = array;
+		if (t - base >= a.length - 1) a = grow(a, t);
+		a[(int) t & (a.length - 1)] = item;
+		TOP.setRelease(this, t + 1);
+		return item;
+	}
+
+	/**
+	 * Rimuove l'oggetto in cima allo stack e lo restituisce. Può essere chiamato solo dal proprietario.
+	 * Se resta un solo elemento e un ladro lo ruba contemporaneamente, solo uno dei due lo ottiene.
+	 * @throws EmptyStackException se lo stack è vuoto o l'ultimo elemento è stato rubato.
+	 * @return l'oggetto in cima allo stack che è stato rimosso.
+	 */
+	public Object pop() {
+		long t = top - 1;
+		Object[] a = array;
+		// Scrittura e lettura volatile: la nuova cima è visibile ai ladri prima che base venga letto.
+		top = t;
+		long b = base;
+		if (b > t) {
+			TOP.setRelease(this, b);
+			throw new EmptyStackException();
+		}
+		int slot = (int) t & (a.length - 1);
+		Object item = a[slot];
+		if (b < t) {
+			a[slot] = null;
+			return item;
+		}
+		boolean won = BASE.compareAndSet(this, b, b + 1);
+		TOP.setRelease(this, b + 1);
+		if (!won) throw new EmptyStackException();
+		a[slot] = null;
+		return item;
+	}
+
+	/**
+	 * Legge l'oggetto sulla cima dello stack, senza rimuoverlo. Può essere chiamato solo dal proprietario; se resta
+	 * un solo elemento, un ladro può rubarlo subito dopo.
+	 * @throws EmptyStackException se lo stack è vuoto.
+	 * @return l'oggetto in cima allo stack.
+	 */
+	public Object peek() {
+		long t = top - 1;
+		Object[] a = array;
+		if (base > t) throw new EmptyStackException();
+		return a[(int) t & (a.length - 1)];
+	}
+
+	// Thief Operations
+
+	/**
+	 * Rimuove l'elemento sul fondo dello stack, il più vecchio, e lo restituisce. Può essere chiamato da qualunque
+	 * thread; se un altro thread prende lo stesso elemento, il tentativo viene ripetuto sul successivo.
+	 * @return l'elemento rubato, oppure null se lo stack è vuoto.
+	 */
+	public Object steal() {
+		for (;;) {
+			long b = base;
+			long t = top;
+			if (b >= t) return null;
+			Object[] a = array;
+			Object item = a[(int) b & (a.length - 1)];
+			if (item != null && BASE.compareAndSet(this, b, b + 1)) return item;
+		}
+	}
+
+	// Query Operations
+
+	/**
+	 * @return il numero di elementi nello stack, che con più thread può essere già cambiato.
+	 */
+	public int size() {
+		long b = base;
+		long t = top;
+		return (int) Math.max(0L, t - b);
+	}
+
+	/**
+	 * Verifica che lo stack sia vuoto.
+	 * @return true se esso non contiene elementi, altrimenti ritorna false.
+	 */
+	public boolean empty() {
+		return size() == 0;
+	}
+
+	/**
+	 * @return il numero di elementi che lo stack può contenere prima di dover crescere.
+	 */
+	public int capacity() {
+		return array.length - 1;
+	}
+
+	/**
+	 * Sostituisce l'array con uno lungo il doppio, copiando gli elementi da base a t. Il vecchio array non viene più
+	 * modificato, quindi un ladro che lo sta leggendo vi trova ancora gli elementi validi.
+	 */
+	private Object[] grow(Object[] a, long t) {
+		if (a.length >= MAX_CAPACITY) throw new IllegalStateException("Stack full");
+		Object[] grown = new Object[a.length << 1];
+		int oldMask = a.length - 1;
+		int newMask = grown.length - 1;
+		for (long i = base; i < t; i++)
+			grown[(int) i & newMask] = a[(int) i & oldMask];
+		array = grown;
+		return grown;
+	}
+}
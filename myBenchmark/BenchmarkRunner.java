@@ -0,0 +1,38 @@
+package myBenchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//main class to execute
+/**
+ * Classe main in cui vengono eseguiti i benchmark.
+ * Senza argomenti vengono eseguiti tutti i benchmark del package; altrimenti ogni argomento è una espressione regolare
+ * che seleziona i benchmark da eseguire (per esempio "StackBenchmark.adapter").
+ * La profondità degli stack può essere ristretta con la proprietà di sistema depth (per esempio -Ddepth=10,1000).
+ *
+ * @version JMH 1.37;
+ */
+
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder builder = new OptionsBuilder();
+
+        if (args.length == 0) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        } else {
+            for (int i = 0; i < args.length; i++) {
+                builder.include(args[i]);
+            }
+        }
+
+        String depth = System.getProperty("depth");
+        if (depth != null) {
+            builder.param("depth", depth.split(","));
+        }
+
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,71 @@
+package myBenchmark;
+
+import myAdapter.BlockingStackAdapter;
+import myAdapter.ConcurrentStackAdapter;
+import myAdapter.EliminationStackAdapter;
+import myAdapter.StackAdapter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary: benchmark JMH di push e pop eseguiti contemporaneamente da più thread sullo stesso stack.
+ * <br><br>
+ * Description: ogni thread esegue coppie push/pop, così che la profondità dello stack resti limitata.
+ * Vengono confrontati ConcurrentStackAdapter (stack di Treiber), EliminationStackAdapter e, come riferimento,
+ * uno StackAdapter protetto da un unico lock. BlockingStackAdapter viene misurato con put e take, che non attendono
+ * mai perché la capacità supera il numero di thread. Il numero di thread può essere cambiato con l'opzione -t di JMH.
+ * <br><br>
+ * Execution variables:
+ * <br>String impl - implementazione misurata: "locked", "treiber", "elimination" oppure "blocking".
+ *
+ * @see myAdapter.ConcurrentStackAdapter
+ * @see myAdapter.EliminationStackAdapter
+ * @see myAdapter.BlockingStackAdapter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+public class ConcurrentStackBenchmark {
+
+    @Param({"locked", "treiber", "elimination", "blocking"})
+    String impl;
+
+    private StackAdapter locked;
+    private ConcurrentStackAdapter concurrent;
+    private BlockingStackAdapter blocking;
+
+    private final Integer item = Integer.valueOf(-1);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        locked = new StackAdapter();
+        if ("treiber".equals(impl)) {
+            concurrent = new ConcurrentStackAdapter();
+        } else if ("elimination".equals(impl)) {
+            concurrent = new EliminationStackAdapter();
+        } else if ("blocking".equals(impl)) {
+            blocking = new BlockingStackAdapter(1024);
+        }
+    }
+
+    @Benchmark
+    public Object pushPop() throws InterruptedException {
+        if (blocking != null) {
+            blocking.put(item);
+            return blocking.take();
+        }
+        if (concurrent == null) {
+            synchronized (locked) {
+                locked.push(item);
+                return locked.pop();
+            }
+        }
+        concurrent.push(item);
+        return concurrent.pop();
+    }
+}
@@ -0,0 +1,156 @@
+package myBenchmark;
+
+import myAdapter.StackAdapter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary: benchmark JMH delle operazioni di lista (add(int, Object), remove(Object), contains, addAll, removeAll)
+ * di StackAdapter.
+ * <br><br>
+ * Description: ogni benchmark lavora su uno stack precaricato con depth elementi. Le operazioni strutturali vengono
+ * misurate a coppie (inserimento seguito dalla rimozione corrispondente) così che la profondità resti costante.
+ * Le operazioni bulk usano un lotto di BATCH elementi non presenti nello stack.
+ * Come riferimento vengono misurate le stesse operazioni su java.util.Stack e, dove esistono, su java.util.ArrayDeque.
+ * <br><br>
+ * Execution variables:
+ * <br>int depth - numero di elementi presenti nello stack prima di ogni misurazione.
+ * <br>StackAdapter adapter, adapterBatch - stack misurato e lotto usato dalle operazioni bulk.
+ * <br>ArrayDeque deque, Stack jdkStack, List jdkBatch - strutture di riferimento.
+ *
+ * @see myAdapter.StackAdapter
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListBenchmark {
+
+    /**
+     * Numero di elementi del lotto usato da addAll e removeAll.
+     */
+    static final int BATCH = 100;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    int depth;
+
+    private StackAdapter adapter;
+    private StackAdapter adapterBatch;
+    private ArrayDeque<Object> deque;
+    private Stack<Object> jdkStack;
+    private List<Object> jdkBatch;
+
+    private int middle;
+    private Integer middleValue;
+    private Integer missing;
+
+    private final Integer item = Integer.valueOf(-1);
+
+    /**
+     * Riempie gli stack con gli stessi depth elementi e prepara il lotto per le operazioni bulk.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        adapter = new StackAdapter();
+        deque = new ArrayDeque<Object>(depth);
+        jdkStack = new Stack<Object>();
+        for (int i = 0; i < depth; i++) {
+            Integer value = Integer.valueOf(i);
+            adapter.push(value);
+            deque.addLast(value);
+            jdkStack.push(value);
+        }
+        adapterBatch = new StackAdapter();
+        Object[] batch = new Object[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            batch[i] = Integer.valueOf(-2 - i);
+            adapterBatch.push(batch[i]);
+        }
+        jdkBatch = Arrays.asList(batch);
+        middle = depth / 2;
+        middleValue = Integer.valueOf(middle);
+        missing = Integer.valueOf(depth);
+    }
+
+    // StackAdapter
+
+    @Benchmark
+    public Object adapterAddRemoveMiddle() {
+        adapter.add(middle, item);
+        return adapter.remove(middle);
+    }
+
+    @Benchmark
+    public void adapterRemoveObjectMiddle() {
+        adapter.remove(middleValue);
+        adapter.add(middle, middleValue);
+    }
+
+    @Benchmark
+    public boolean adapterContainsMissing() {
+        return adapter.contains(missing);
+    }
+
+    @Benchmark
+    public boolean adapterAddAllRemoveAll() {
+        adapter.addAll(adapterBatch);
+        return adapter.removeAll(adapterBatch);
+    }
+
+    @Benchmark
+    public boolean adapterAddAllMiddle() {
+        adapter.addAll(middle, adapterBatch);
+        return adapter.removeAll(adapterBatch);
+    }
+
+    // java.util.Stack
+
+    @Benchmark
+    public Object stackAddRemoveMiddle() {
+        jdkStack.add(middle, item);
+        return jdkStack.remove(middle);
+    }
+
+    @Benchmark
+    public void stackRemoveObjectMiddle() {
+        jdkStack.remove(middleValue);
+        jdkStack.add(middle, middleValue);
+    }
+
+    @Benchmark
+    public boolean stackContainsMissing() {
+        return jdkStack.contains(missing);
+    }
+
+    @Benchmark
+    public boolean stackAddAllRemoveAll() {
+        jdkStack.addAll(jdkBatch);
+        return jdkStack.removeAll(jdkBatch);
+    }
+
+    @Benchmark
+    public boolean stackAddAllMiddle() {
+        jdkStack.addAll(middle, jdkBatch);
+        return jdkStack.removeAll(jdkBatch);
+    }
+
+    // java.util.ArrayDeque
+
+    @Benchmark
+    public boolean dequeContainsMissing() {
+        return deque.contains(missing);
+    }
+
+    @Benchmark
+    public boolean dequeAddAllRemoveAll() {
+        deque.addAll(jdkBatch);
+        return deque.removeAll(jdkBatch);
+    }
+}
@@ -0,0 +1,77 @@
+package myBenchmark;
+
+import myAdapter.CopyOnWriteStackAdapter;
+import myAdapter.StackAdapter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary: benchmark JMH di letture eseguite contemporaneamente da più thread sullo stesso stack, che non viene
+ * modificato durante la misura.
+ * <br><br>
+ * Description: viene confrontato CopyOnWriteStackAdapter, le cui letture non usano lock, con uno StackAdapter protetto
+ * da un unico lock. Il numero di thread può essere cambiato con l'opzione -t di JMH: con CopyOnWriteStackAdapter il
+ * throughput dovrebbe crescere linearmente con i thread, con il lock resta circa costante.
+ * <br><br>
+ * Execution variables:
+ * <br>String impl - implementazione misurata: "locked" oppure "cow".
+ * <br>int size - numero di elementi nello stack.
+ *
+ * @see myAdapter.CopyOnWriteStackAdapter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+public class ReadMostlyStackBenchmark {
+
+    @Param({"locked", "cow"})
+    String impl;
+
+    @Param({"64"})
+    int size;
+
+    private StackAdapter locked;
+    private CopyOnWriteStackAdapter cow;
+
+    private Integer middle;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        locked = new StackAdapter();
+        cow = new CopyOnWriteStackAdapter();
+        for (int i = 0; i < size; i++) {
+            locked.push(i);
+            cow.push(i);
+        }
+        middle = Integer.valueOf(size / 2);
+    }
+
+    @Benchmark
+    public Object peek() {
+        if ("cow".equals(impl)) return cow.peek();
+        synchronized (locked) {
+            return locked.peek();
+        }
+    }
+
+    @Benchmark
+    public Object getMiddle() {
+        if ("cow".equals(impl)) return cow.get(size / 2);
+        synchronized (locked) {
+            return locked.get(size / 2);
+        }
+    }
+
+    @Benchmark
+    public boolean containsMiddle() {
+        if ("cow".equals(impl)) return cow.contains(middle);
+        synchronized (locked) {
+            return locked.contains(middle);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package myBenchmark;
+
+import myAdapter.SegmentedVector;
+import myAdapter.StackAdapter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayDeque;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary: benchmark JMH delle operazioni di stack (push, pop, peek, search) di StackAdapter.
+ * <br><br>
+ * Description: ogni benchmark lavora su uno stack precaricato con depth elementi. Le operazioni che modificano lo stack
+ * vengono misurate a coppie (push seguito da pop) così che la profondità resti costante per tutta la misurazione.
+ * Come riferimento vengono misurate le stesse operazioni su java.util.ArrayDeque e java.util.Stack.
+ * <br><br>
+ * Ogni stack è contenuto in uno stato JMH separato, passato come argomento ai benchmark che lo usano: ogni benchmark
+ * costruisce solo lo stack che misura, così che con depth grande la memoria occupata e il lavoro del garbage
+ * collector non dipendano dagli stack degli altri benchmark.
+ * <br><br>
+ * Execution variables:
+ * <br>int depth - numero di elementi presenti nello stack prima di ogni misurazione.
+ * <br>Adapter - stack misurato.
+ * <br>Indexed - stack con gli stessi elementi, in modalità indicizzata.
+ * <br>Hashed - stack con gli stessi elementi e la cache dell'hash attiva, e un secondo stack con un elemento in più,
+ * diverso da item, in cima.
+ * <br>Metered - stack con gli stessi elementi e i contatori delle operazioni attivi.
+ * <br>Excursion - stack riempito fino a depth elementi e poi svuotato con pop fino a uno.
+ * <br>Deque, JdkStack - stack di riferimento.
+ *
+ * @see myAdapter.StackAdapter
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    int depth;
+
+    /**
+     * Elemento che si trova in fondo allo stack: caso peggiore per search.
+     */
+    private Integer bottom;
+
+    /**
+     * Elemento non presente nello stack.
+     */
+    private Integer missing;
+
+    private final Integer item = Integer.valueOf(-1);
+
+    /**
+     * Blocco di elementi usato dai benchmark di push e pop a blocchi.
+     */
+    private final Object[] batch = new Object[256];
+
+    /**
+     * Prepara gli elementi cercati e il blocco usato da pushAll; gli stack sono costruiti dai rispettivi stati.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        for (int i = 0; i < batch.length; i++)
+            batch[i] = Integer.valueOf(-2 - i);
+        bottom = Integer.valueOf(0);
+        missing = Integer.valueOf(depth);
+    }
+
+    /**
+     * @return il valore del parametro depth del benchmark in esecuzione.
+     */
+    private static int depth(BenchmarkParams params) {
+        return Integer.parseInt(params.getParam("depth"));
+    }
+
+    /**
+     * Inserisce in s gli interi da 0 a depth - 1.
+     */
+    private static StackAdapter fill(StackAdapter s, int depth) {
+        for (int i = 0; i < depth; i++)
+            s.push(Integer.valueOf(i));
+        return s;
+    }
+
+    @State(Scope.Thread)
+    public static class Adapter {
+        StackAdapter stack;
+
+        @Setup(Level.Trial)
+        public void setup(BenchmarkParams params) {
+            stack = fill(new StackAdapter(), depth(params));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Indexed {
+        StackAdapter stack;
+
+        @Setup(Level.Trial)
+        public void setup(BenchmarkParams params) {
+            stack = new StackAdapter();
+            stack.enableIndex(Integer.MAX_VALUE);
+            fill(stack, depth(params));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Hashed {
+        StackAdapter stack, twin;
+
+        @Setup(Level.Trial)
+        public void setup(BenchmarkParams params) {
+            int depth = depth(params);
+            stack = new StackAdapter();
+            stack.enableHashCache();
+            fill(stack, depth);
+            twin = new StackAdapter();
+            twin.enableHashCache();
+            fill(twin, depth + 1);
+            twin.hashCode();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Metered {
+        StackAdapter stack;
+
+        @Setup(Level.Trial)
+        public void setup(BenchmarkParams params) {
+            stack = new StackAdapter();
+            stack.enableMetrics();
+            fill(stack, depth(params));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Excursion {
+        StackAdapter stack;
+
+        @Setup(Level.Trial)
+        public void setup(BenchmarkParams params) {
+            stack = fill(new StackAdapter(), depth(params));
+            while (stack.size() > 1)
+                stack.pop();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Deque {
+        ArrayDeque<Object> stack;
+
+        @Setup(Level.Trial)
+        public void setup(BenchmarkParams params) {
+            int depth = depth(params);
+            stack = new ArrayDeque<Object>(depth);
+            for (int i = 0; i < depth; i++)
+                stack.push(Integer.valueOf(i));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class JdkStack {
+        Stack<Object> stack;
+
+        @Setup(Level.Trial)
+        public void setup(BenchmarkParams params) {
+            int depth = depth(params);
+            stack = new Stack<Object>();
+            for (int i = 0; i < depth; i++)
+                stack.push(Integer.valueOf(i));
+        }
+    }
+
+    // StackAdapter
+
+    @Benchmark
+    public Object adapterPushPop(Adapter s) {
+        s.stack.push(item);
+        return s.stack.pop();
+    }
+
+    /**
+     * push e pop su uno stack che è stato profondo depth elementi: il costo deve essere lo stesso per ogni depth,
+     * perché pop libera lo spazio in cima e push aggiunge in coda senza spostare elementi rimasti nel vettore.
+     */
+    @Benchmark
+    public Object adapterPushPopAfterExcursion(Excursion s) {
+        s.stack.push(item);
+        return s.stack.pop();
+    }
+
+    /**
+     * Come adapterPushPop, con i contatori delle operazioni attivi.
+     */
+    @Benchmark
+    public Object meteredPushPop(Metered s) {
+        s.stack.push(item);
+        return s.stack.pop();
+    }
+
+    @Benchmark
+    public int adapterPushAllPopInto(Adapter s) {
+        s.stack.pushAll(batch, 0, batch.length);
+        return s.stack.popInto(batch, 0, batch.length);
+    }
+
+    @Benchmark
+    public Object adapterPushPopBatchLoop(Adapter s) {
+        Object last = null;
+        for (int i = 0; i < batch.length; i++)
+            s.stack.push(batch[i]);
+        for (int i = 0; i < batch.length; i++)
+            last = s.stack.pop();
+        return last;
+    }
+
+    /**
+     * Riempie da zero uno stack con depth elementi: misura il costo delle crescite dell'array.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public StackAdapter adapterFill() {
+        StackAdapter s = new StackAdapter();
+        for (int i = 0; i < depth; i++)
+            s.push(item);
+        return s;
+    }
+
+    /**
+     * Come adapterFill, con la memoria segmentata: la crescita alloca blocchi senza copiare gli elementi.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public StackAdapter segmentedFill() {
+        StackAdapter s = StackAdapter.segmented(SegmentedVector.DEFAULT_CHUNK_SIZE);
+        for (int i = 0; i < depth; i++)
+            s.push(item);
+        return s;
+    }
+
+    @Benchmark
+    public Object adapterPeek(Adapter s) {
+        return s.stack.peek();
+    }
+
+    @Benchmark
+    public int adapterSearchBottom(Adapter s) {
+        return s.stack.search(bottom);
+    }
+
+    @Benchmark
+    public int adapterSearchMissing(Adapter s) {
+        return s.stack.search(missing);
+    }
+
+    @Benchmark
+    public int indexedSearchBottom(Indexed s) {
+        return s.stack.search(bottom);
+    }
+
+    @Benchmark
+    public int indexedSearchMissing(Indexed s) {
+        return s.stack.search(missing);
+    }
+
+    @Benchmark
+    public void adapterIterate(Adapter s, Blackhole bh) {
+        myAdapter.HIterator it = s.stack.iterator();
+        while (it.hasNext()) {
+            bh.consume(it.next());
+        }
+    }
+
+    @Benchmark
+    public long adapterStreamSum(Adapter s) {
+        return s.stack.stream().mapToLong(o -> ((Integer) o).longValue()).sum();
+    }
+
+    /**
+     * Come adapterStreamSum, con lo Spliterator diviso tra i thread del ForkJoinPool comune.
+     */
+    @Benchmark
+    public long adapterParallelStreamSum(Adapter s) {
+        return s.stack.parallelStream().mapToLong(o -> ((Integer) o).longValue()).sum();
+    }
+
+    /**
+     * Sostituisce ogni elemento con se stesso: misura il costo di una passata di replaceAll.
+     */
+    @Benchmark
+    public void adapterReplaceAll(Adapter s) {
+        s.stack.replaceAll(o -> o);
+    }
+
+    @Benchmark
+    public void adapterParallelReplaceAll(Adapter s) {
+        s.stack.parallelReplaceAll(o -> o);
+    }
+
+    /**
+     * removeIf che non rimuove nulla: misura il costo della valutazione del filtro e della passata di compattazione.
+     */
+    @Benchmark
+    public boolean adapterRemoveIfNone(Adapter s) {
+        return s.stack.removeIf(o -> o == missing);
+    }
+
+    @Benchmark
+    public boolean adapterParallelRemoveIfNone(Adapter s) {
+        return s.stack.parallelRemoveIf(o -> o == missing);
+    }
+
+    /**
+     * push, hashCode e pop: senza cache hashCode scorre tutto lo stack.
+     */
+    @Benchmark
+    public int adapterPushHashPop(Adapter s) {
+        s.stack.push(item);
+        int hash = s.stack.hashCode();
+        s.stack.pop();
+        return hash;
+    }
+
+    /**
+     * Come adapterPushHashPop, con la cache dell'hash aggiornata da push e pop.
+     */
+    @Benchmark
+    public int hashedPushHashPop(Hashed s) {
+        s.stack.push(item);
+        int hash = s.stack.hashCode();
+        s.stack.pop();
+        return hash;
+    }
+
+    /**
+     * equals tra due stack della stessa dimensione che differiscono solo in cima: con la cache dell'hash il confronto
+     * termina senza leggere gli elementi.
+     */
+    @Benchmark
+    public boolean hashedEqualsMismatch(Hashed s) {
+        s.stack.push(item);
+        boolean equal = s.stack.equals(s.twin);
+        s.stack.pop();
+        return equal;
+    }
+
+    /**
+     * Istantanea presa dopo ogni push: riusa i nodi della precedente, quindi costa O(1) e non O(size).
+     */
+    @Benchmark
+    public Object adapterPushSnapshotPop(Adapter s) {
+        s.stack.push(item);
+        Object snapshot = s.stack.snapshot();
+        s.stack.pop();
+        return snapshot;
+    }
+
+    // java.util.ArrayDeque
+
+    @Benchmark
+    public Object dequePushPop(Deque s) {
+        s.stack.push(item);
+        return s.stack.pop();
+    }
+
+    @Benchmark
+    public Object dequePeek(Deque s) {
+        return s.stack.peek();
+    }
+
+    @Benchmark
+    public boolean dequeContainsMissing(Deque s) {
+        return s.stack.contains(missing);
+    }
+
+    @Benchmark
+    public void dequeIterate(Deque s, Blackhole bh) {
+        java.util.Iterator<Object> it = s.stack.iterator();
+        while (it.hasNext()) {
+            bh.consume(it.next());
+        }
+    }
+
+    // java.util.Stack
+
+    @Benchmark
+    public Object stackPushPop(JdkStack s) {
+        s.stack.push(item);
+        return s.stack.pop();
+    }
+
+    @Benchmark
+    public Object stackPeek(JdkStack s) {
+        return s.stack.peek();
+    }
+
+    @Benchmark
+    public int stackSearchBottom(JdkStack s) {
+        return s.stack.search(bottom);
+    }
+
+    @Benchmark
+    public int stackSearchMissing(JdkStack s) {
+        return s.stack.search(missing);
+    }
+
+    @Benchmark
+    public void stackIterate(JdkStack s, Blackhole bh) {
+        java.util.Iterator<Object> it = s.stack.iterator();
+        while (it.hasNext()) {
+            bh.consume(it.next());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package myBenchmark;
+
+import myAdapter.WorkStealingStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.EmptyStackException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary: benchmark JMH di uno stack di task su cui il proprietario esegue push e pop mentre altri thread rubano
+ * elementi dal fondo.
+ * <br><br>
+ * Description: in ogni gruppo un thread proprietario inserisce un elemento alla volta e, quando lo stack supera
+ * MAX_DEPTH elementi, ne estrae uno dalla cima, mentre sette ladri rubano dal fondo: la profondità resta limitata anche
+ * quando i ladri non tengono il passo, e il costo di ogni operazione non dipende da quanto è durata la misura. Viene
+ * confrontato WorkStealingStack con un ArrayDeque protetto da un unico lock, in cui sia la cima che il fondo si
+ * raggiungono in tempo costante ma anche il furto dal fondo passa per il lock. Il numero di ladri può essere cambiato
+ * con l'opzione -tg di JMH.
+ *
+ * @see myAdapter.WorkStealingStack
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkStealingBenchmark {
+
+    /**
+     * Profondità oltre la quale il proprietario estrae l'elemento appena inserito.
+     */
+    static final int MAX_DEPTH = 1024;
+
+    private WorkStealingStack deque;
+    private ArrayDeque<Object> locked;
+
+    private final Integer item = Integer.valueOf(-1);
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        deque = new WorkStealingStack();
+        locked = new ArrayDeque<Object>();
+    }
+
+    @Benchmark
+    @Group("stealing")
+    @GroupThreads(1)
+    public Object stealingOwner() {
+        deque.push(item);
+        if (deque.size() <= MAX_DEPTH) return item;
+        try {
+            return deque.pop();
+        } catch (EmptyStackException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    @Group("stealing")
+    @GroupThreads(7)
+    public Object stealingThief() {
+        return deque.steal();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public Object lockedOwner() {
+        synchronized (locked) {
+            locked.addLast(item);
+            if (locked.size() <= MAX_DEPTH) return item;
+            return locked.pollLast();
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(7)
+    public Object lockedThief() {
+        synchronized (locked) {
+            return locked.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package myTest;
+
+import myAdapter.BlockingStackAdapter;
+import myAdapter.StackAdapter;
+import org.junit.Test;
+
+import java.util.EmptyStackException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Summary: questa classe testa i metodi della classe BlockingStackAdapter.
+ * <br><br>
+ * Design test: i metodi non bloccanti e con timeout vengono verificati da un solo thread su uno stack di capacità
+ * piccola; poi più produttori e consumatori si scambiano elementi con put e take.
+ * <br><br>
+ * Description: i valori inseriti sono interi appartenenti alla classe Integer, così da poter verificare facilmente
+ * che ogni elemento inserito venga estratto esattamente una volta.
+ * <br><br>
+ * Preconditions:
+ * <br>Ogni test crea i propri stack.
+ * <br><br>
+ * Postconditions: i metodi implementati modificano lo stack nel modo atteso e non superano mai la capacità.
+ * <br><br>
+ * Execution record: ogni metodo testato è corretto se tutti i test che verificano il corretto funzionamento hanno un risultato positivo.
+ * <br><br>
+ *
+ * @see myAdapter.BlockingStackAdapter
+ */
+
+public class BlockingStackAdapterTest {
+
+    /**
+     * <br><br>Summary: vengono verificati i metodi non bloccanti e con timeout di BlockingStackAdapter.
+     * <br><br>Design test: uno stack di capacità 3 viene riempito e svuotato con offer, poll, push, pop e drainTo.
+     * <br><br>Preconditions: StackAdapter deve funzionare correttamente.
+     * <br><br>Postconditions: lo stack non contiene mai più di 3 elementi.
+     * <br><br>Expected results: offer e poll con timeout restituiscono false e null allo scadere del tempo; add su uno
+     * stack pieno lancia IllegalStateException; drainTo mantiene l'ordine dello stack.
+     */
+    @Test
+    public void testBlockingStackBounds() throws InterruptedException {
+        BlockingStackAdapter blocking = new BlockingStackAdapter(3);
+        assertNull(blocking.poll());
+        assertNull(blocking.poll(10, TimeUnit.MILLISECONDS));
+        assertTrue(blocking.offer(1));
+        blocking.put(2);
+        assertEquals(3, blocking.push(3));
+        assertEquals(0, blocking.remainingCapacity());
+        assertFalse(blocking.offer(4));
+        assertFalse(blocking.offer(4, 10, TimeUnit.MILLISECONDS));
+        try {
+            blocking.add(4);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        try {
+            blocking.offer(null);
+            fail();
+        } catch (NullPointerException e) {
+        }
+        assertEquals(1, blocking.search(3));
+        assertEquals(3, blocking.peek());
+        assertArrayEquals(new Object[]{1, 2, 3}, blocking.toArray());
+        assertEquals(new StackAdapter(blocking).hashCode(), blocking.hashCode());
+
+        StackAdapter target = new StackAdapter();
+        target.push(0);
+        assertEquals(2, blocking.drainTo(target, 2));
+        assertArrayEquals(new Object[]{0, 2, 3}, target.toArray());
+        assertEquals(1, blocking.take());
+        assertEquals(0, blocking.drainTo(target));
+        try {
+            blocking.pop();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+        try {
+            blocking.addAll(target.subList(0, 3));
+            blocking.addAll(target);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        assertArrayEquals(new Object[]{0, 2, 3}, blocking.toArray());
+        try {
+            new BlockingStackAdapter(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * <br><br>Summary: viene verificato che drainTo non perda elementi quando add della collezione di destinazione
+     * lancia un'eccezione.
+     * <br><br>Design test: uno stack con 5 elementi viene svuotato in un BlockingStackAdapter di capacità 2, che si
+     * riempie a metà del trasferimento, e poi in un PersistentStack, che non ammette modifiche.
+     * <br><br>Preconditions: StackAdapter deve funzionare correttamente.
+     * <br><br>Postconditions: ogni elemento si trova nello stack di partenza oppure nella destinazione.
+     * <br><br>Expected results: l'eccezione di add viene propagata; dallo stack vengono rimossi solo gli elementi
+     * aggiunti alla destinazione e gli altri restano al loro posto.
+     */
+    @Test
+    public void testBlockingDrainToFailure() {
+        BlockingStackAdapter blocking = new BlockingStackAdapter(5);
+        for (int i = 1; i <= 5; i++)
+            blocking.push(i);
+        BlockingStackAdapter bounded = new BlockingStackAdapter(2);
+        try {
+            blocking.drainTo(bounded, 4);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        assertArrayEquals(new Object[]{2, 3}, bounded.toArray());
+        assertArrayEquals(new Object[]{1, 4, 5}, blocking.toArray());
+        assertEquals(2, blocking.remainingCapacity());
+
+        try {
+            blocking.drainTo(new StackAdapter().snapshot());
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+        assertArrayEquals(new Object[]{1, 4, 5}, blocking.toArray());
+    }
+
+    /**
+     * <br><br>Summary: produttori e consumatori si scambiano elementi tramite put e take su un BlockingStackAdapter.
+     * <br><br>Design test: più produttori inseriscono valori distinti in uno stack di capacità piccola, così che
+     * attendano spesso, e altrettanti consumatori li estraggono; un thread in attesa viene poi interrotto.
+     * <br><br>Preconditions: lo stack è vuoto.
+     * <br><br>Postconditions: al termine lo stack è vuoto.
+     * <br><br>Expected results: ogni valore viene estratto esattamente una volta; l'attesa interrotta lancia
+     * InterruptedException.
+     */
+    @Test
+    public void testBlockingStackHandOff() throws InterruptedException {
+        final BlockingStackAdapter blocking = new BlockingStackAdapter(4);
+        final int threads = 4;
+        final int perThread = 5000;
+        final int[] seen = new int[threads * perThread];
+        Thread[] workers = new Thread[threads * 2];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < perThread; i++)
+                            blocking.put(id * perThread + i);
+                    } catch (InterruptedException e) {
+                    }
+                }
+            };
+            workers[threads + t] = new Thread() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            int value = ((Integer) blocking.take()).intValue();
+                            synchronized (seen) {
+                                seen[value]++;
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                    }
+                }
+            };
+        }
+        for (int t = 0; t < workers.length; t++)
+            workers[t].start();
+        for (int t = 0; t < workers.length; t++)
+            workers[t].join();
+        assertTrue(blocking.empty());
+        for (int i = 0; i < seen.length; i++)
+            assertEquals(1, seen[i]);
+
+        final boolean[] interrupted = new boolean[1];
+        Thread waiter = new Thread() {
+            public void run() {
+                try {
+                    blocking.take();
+                } catch (InterruptedException e) {
+                    interrupted[0] = true;
+                }
+            }
+        };
+        waiter.start();
+        waiter.interrupt();
+        waiter.join();
+        assertTrue(interrupted[0]);
+    }
+}
@@ -0,0 +1,236 @@
+package myTest;
+
+import myAdapter.ConcurrentStackAdapter;
+import myAdapter.EliminationStackAdapter;
+import myAdapter.HIterator;
+import myAdapter.StackAdapter;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EmptyStackException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Summary: questa classe testa i metodi della classe ConcurrentStackAdapter.
+ * <br><br>
+ * Design test: i metodi vengono prima verificati da un solo thread, confrontando il contenuto dello stack con un array
+ * creato manualmente; poi push e pop vengono invocati contemporaneamente da più thread.
+ * <br><br>
+ * Description: i valori inseriti sono interi appartenenti alla classe Integer, così da poter verificare facilmente
+ * che ogni elemento inserito venga estratto esattamente una volta.
+ * <br><br>
+ * Preconditions:
+ * <br>Un nuovo oggetto vuoto di tipo ConcurrentStackAdapter e uno contenente i valori 1..5 vengono creati prima di ogni test.
+ * <br><br>
+ * Postconditions: i metodi implementati modificano lo stack nel modo atteso: gli elementi contenuti sono esattamente quelli previsti.
+ * <br><br>
+ * Execution record: ogni metodo testato è corretto se tutti i test che verificano il corretto funzionamento hanno un risultato positivo.
+ * <br><br>
+ * Execution variables:
+ * <br>ConcurrentStackAdapter stack - stack vuoto.
+ * <br>ConcurrentStackAdapter stackWithData - stack contenente i valori 1, 2, 3, 4, 5 (5 in cima).
+ * <br><br>
+ *
+ * @see myAdapter.ConcurrentStackAdapter
+ * @see myAdapter.EliminationStackAdapter
+ */
+
+public class ConcurrentStackAdapterTest {
+    private ConcurrentStackAdapter stack, stackWithData;
+
+    /**
+     * Summary: metodo per inizializzare le variabili prima dei test.
+     */
+    @Before
+    public void setup() {
+        stack = new ConcurrentStackAdapter();
+        stackWithData = new ConcurrentStackAdapter();
+        for (int i = 0; i < 5; i++)
+            stackWithData.push(i + 1);
+    }
+
+    /**
+     * <br><br>Summary: vengono verificati i metodi push, pop, peek, search ed empty.
+     * <br><br>Design test: lo stack vuoto viene riempito, poi vengono invocati peek, search e pop.
+     * <br><br>Preconditions: toArray() deve funzionare correttamente.
+     * <br><br>Postconditions: push e pop modificano la cima dello stack, peek e search lo lasciano invariato.
+     * <br><br>Expected results: pop e peek su uno stack vuoto lanciano EmptyStackException; search restituisce la distanza 1-based dalla cima.
+     */
+    @Test
+    public void testStack() {
+        assertTrue(stack.empty());
+        try {
+            stack.pop();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+        try {
+            stack.peek();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+
+        assertEquals(5, stackWithData.size());
+        assertEquals(5, stackWithData.peek());
+        assertEquals(1, stackWithData.search(5));
+        assertEquals(5, stackWithData.search(1));
+        assertEquals(-1, stackWithData.search(9));
+        assertArrayEquals(new Object[]{5, 4, 3, 2, 1}, stackWithData.toArray());
+
+        assertEquals(5, stackWithData.pop());
+        assertEquals(4, stackWithData.peek());
+        assertEquals(4, stackWithData.size());
+
+        stackWithData.push(null);
+        assertTrue(stackWithData.contains(null));
+        assertEquals(1, stackWithData.search(null));
+    }
+
+    /**
+     * <br><br>Summary: vengono verificati i metodi di lettura di HCollection e le operazioni non supportate.
+     * <br><br>Design test: viene creato un iteratore, poi lo stack viene modificato e si verifica che l'iteratore non veda le modifiche.
+     * <br><br>Preconditions: lo stack contiene i valori 1..5.
+     * <br><br>Postconditions: l'iteratore percorre lo stack così come si trovava alla sua creazione.
+     * <br><br>Expected results: remove(Object), removeAll, retainAll e HIterator.remove lanciano UnsupportedOperationException.
+     */
+    @Test
+    public void testWeaklyConsistentReads() {
+        HIterator it = stackWithData.iterator();
+        stackWithData.pop();
+        stackWithData.push(10);
+        Object[] seen = new Object[5];
+        int i = 0;
+        while (it.hasNext())
+            seen[i++] = it.next();
+        assertArrayEquals(new Object[]{5, 4, 3, 2, 1}, seen);
+
+        Object[] target = new Object[]{0, 0, 0, 0, 0, 0, 0};
+        assertSame(target, stackWithData.toArray(target));
+        assertArrayEquals(new Object[]{10, 4, 3, 2, 1, null, null}, target);
+
+        StackAdapter coll = new StackAdapter();
+        coll.add(1);
+        coll.add(10);
+        assertTrue(stackWithData.containsAll(coll));
+        coll.add(5);
+        assertFalse(stackWithData.containsAll(coll));
+
+        try {
+            stackWithData.remove(1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+        try {
+            stackWithData.removeAll(coll);
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+        try {
+            it.remove();
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+
+        stackWithData.clear();
+        assertTrue(stackWithData.isEmpty());
+        assertEquals(0, stackWithData.size());
+    }
+
+    /**
+     * <br><br>Summary: vengono verificati equals e hashCode.
+     * <br><br>Design test: due stack con gli stessi elementi vengono confrontati, poi uno dei due viene modificato.
+     * <br><br>Preconditions: push e pop devono funzionare correttamente.
+     * <br><br>Postconditions: gli stack non vengono modificati da equals e hashCode.
+     * <br><br>Expected results: stack con gli stessi elementi nello stesso ordine sono uguali e hanno lo stesso hashCode.
+     */
+    @Test
+    public void testEqualsAndHashCode() {
+        for (int i = 0; i < 5; i++)
+            stack.push(i + 1);
+        assertEquals(stackWithData, stack);
+        assertEquals(stackWithData.hashCode(), stack.hashCode());
+
+        stack.pop();
+        stack.push(6);
+        assertNotEquals(stackWithData, stack);
+        stack.pop();
+        assertNotEquals(stackWithData, stack);
+        assertNotEquals(stackWithData, new StackAdapter());
+    }
+
+    /**
+     * <br><br>Summary: push e pop vengono invocati contemporaneamente da più thread.
+     * <br><br>Design test: ogni thread inserisce un insieme distinto di valori e ne estrae altrettanti; al termine lo stack viene svuotato.
+     * <br><br>Preconditions: lo stack è vuoto.
+     * <br><br>Postconditions: nessun elemento viene perso o estratto due volte.
+     * <br><br>Expected results: ogni valore inserito viene estratto esattamente una volta.
+     */
+    @Test
+    public void testConcurrentPushPop() throws InterruptedException {
+        concurrentPushPop(stack);
+    }
+
+    /**
+     * <br><br>Summary: push e pop vengono invocati contemporaneamente da più thread su uno EliminationStackAdapter.
+     * <br><br>Design test: come testConcurrentPushPop, con un array di eliminazione di una sola cella così che push e pop concorrenti si incontrino spesso.
+     * <br><br>Preconditions: lo stack è vuoto.
+     * <br><br>Postconditions: nessun elemento viene perso o estratto due volte, anche se consegnato direttamente da un push ad un pop.
+     * <br><br>Expected results: ogni valore inserito viene estratto esattamente una volta; le operazioni eliminate sono in numero pari.
+     */
+    @Test
+    public void testEliminationPushPop() throws InterruptedException {
+        EliminationStackAdapter elimination = new EliminationStackAdapter(1, 1000);
+        concurrentPushPop(elimination);
+        assertEquals(0, elimination.eliminatedCount() % 2);
+        assertTrue(elimination.collisionCount() >= 0);
+        try {
+            elimination.pop();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+    }
+
+    /**
+     * Ogni thread inserisce un insieme distinto di valori ed estrae un elemento ogni due inseriti; al termine lo stack
+     * viene svuotato e si verifica che ogni valore sia stato estratto esattamente una volta.
+     * @param stack stack vuoto su cui lavorano i thread.
+     */
+    private void concurrentPushPop(final ConcurrentStackAdapter stack) throws InterruptedException {
+        final int threads = 8;
+        final int perThread = 20000;
+        final int[] seen = new int[threads * perThread];
+        final int[][] popped = new int[threads][];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread() {
+                public void run() {
+                    int[] mine = new int[perThread];
+                    int count = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        stack.push(id * perThread + i);
+                        if (i % 2 == 1) {
+                            mine[count++] = ((Integer) stack.pop()).intValue();
+                        }
+                    }
+                    int[] result = new int[count];
+                    System.arraycopy(mine, 0, result, 0, count);
+                    popped[id] = result;
+                }
+            };
+            workers[t].start();
+        }
+        for (int t = 0; t < threads; t++)
+            workers[t].join();
+
+        for (int t = 0; t < threads; t++)
+            for (int i = 0; i < popped[t].length; i++)
+                seen[popped[t][i]]++;
+        assertEquals(threads * perThread / 2, stack.size());
+        while (!stack.empty())
+            seen[((Integer) stack.pop()).intValue()]++;
+        for (int i = 0; i < seen.length; i++)
+            assertEquals(1, seen[i]);
+    }
+}
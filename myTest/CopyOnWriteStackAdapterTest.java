@@ -0,0 +1,226 @@
+package myTest;
+
+import myAdapter.CopyOnWriteStackAdapter;
+import myAdapter.HIterator;
+import myAdapter.HList;
+import myAdapter.StackAdapter;
+import org.junit.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.EmptyStackException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Summary: questa classe testa i metodi della classe CopyOnWriteStackAdapter.
+ * <br><br>
+ * Design test: i metodi vengono prima verificati da un solo thread, confrontando il contenuto dello stack con un array
+ * creato manualmente e con uno StackAdapter modificato allo stesso modo; poi più thread leggono lo stack mentre un altro
+ * lo modifica.
+ * <br><br>
+ * Description: i valori inseriti sono interi appartenenti alla classe Integer; gli iteratori creati prima di una
+ * modifica vengono confrontati con il contenuto dello stack dopo la modifica.
+ * <br><br>
+ * Preconditions:
+ * <br>Ogni test crea i propri stack.
+ * <br><br>
+ * Postconditions: i metodi implementati modificano lo stack nel modo atteso: gli elementi contenuti sono esattamente quelli previsti.
+ * <br><br>
+ * Execution record: ogni metodo testato è corretto se tutti i test che verificano il corretto funzionamento hanno un risultato positivo.
+ * <br><br>
+ *
+ * @see myAdapter.CopyOnWriteStackAdapter
+ */
+
+public class CopyOnWriteStackAdapterTest {
+
+    /**
+     * <br><br>Summary: vengono verificati i metodi di CopyOnWriteStackAdapter.
+     * <br><br>Design test: lo stack viene modificato con i metodi di stack, di HList e con le operazioni bulk; gli
+     * iteratori creati prima delle modifiche vengono confrontati con quelli creati dopo.
+     * <br><br>Preconditions: StackAdapter deve funzionare correttamente.
+     * <br><br>Postconditions: ogni modifica pubblica un nuovo array; gli iteratori già creati non cambiano.
+     * <br><br>Expected results: lo stack contiene gli stessi elementi di uno StackAdapter modificato allo stesso modo e
+     * ha lo stesso hashCode; se update lancia un'eccezione lo stack resta invariato.
+     */
+    @Test
+    public void testCopyOnWrite() {
+        CopyOnWriteStackAdapter cow = new CopyOnWriteStackAdapter();
+        StackAdapter reference = new StackAdapter();
+        for (int i = 0; i < 5; i++) {
+            cow.push(i + 1);
+            reference.push(i + 1);
+        }
+        HIterator before = cow.iterator();
+        assertEquals(5, cow.pop());
+        assertEquals(4, cow.peek());
+        assertEquals(1, cow.search(4));
+        assertEquals(-1, cow.search(5));
+        cow.add(0, null);
+        cow.set(2, 7);
+        cow.addAll(reference);
+        cow.remove(Integer.valueOf(3));
+        assertEquals(null, cow.remove(0));
+        assertArrayEquals(new Object[]{1, 7, 4, 1, 2, 3, 4, 5}, cow.toArray());
+        assertEquals(new StackAdapter(cow).hashCode(), cow.hashCode());
+        assertEquals(3, cow.indexOf(1) + cow.lastIndexOf(1));
+        assertTrue(cow.containsAll(reference));
+        assertEquals("[1, 7, 4, 1, 2, 3, 4, 5]", cow.toString());
+
+        for (int i = 1; i <= 5; i++)
+            assertEquals(i, before.next());
+        assertFalse(before.hasNext());
+        try {
+            cow.iterator().remove();
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+
+        assertTrue(cow.removeAll(reference.subList(3, 5)));
+        assertArrayEquals(new Object[]{1, 7, 1, 2, 3}, cow.toArray());
+        assertTrue(cow.retainAll(reference));
+        assertTrue(cow.removeIf(x -> ((Integer) x).intValue() > 2));
+        cow.replaceAll(x -> ((Integer) x).intValue() * 10);
+        assertArrayEquals(new Object[]{10, 10, 20}, cow.toArray());
+        cow.pushAll(new Object[]{30, 40, 50}, 1, 2);
+        Object[] top = new Object[3];
+        assertEquals(3, cow.popInto(top, 0, 3));
+        assertArrayEquals(new Object[]{20, 40, 50}, top);
+
+        cow.update(s -> {
+            s.push(60);
+            s.add(0, 0);
+            s.remove(1);
+        });
+        assertArrayEquals(new Object[]{0, 10, 60}, cow.toArray());
+        try {
+            cow.update(s -> {
+                s.clear();
+                s.pop();
+            });
+            fail();
+        } catch (EmptyStackException e) {
+        }
+        assertArrayEquals(new Object[]{0, 10, 60}, cow.toArray());
+        assertEquals(new CopyOnWriteStackAdapter(cow), cow);
+        cow.clear();
+        assertTrue(cow.empty());
+        try {
+            cow.pop();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+    }
+
+    /**
+     * <br><br>Summary: vengono verificate le sottoliste di CopyOnWriteStackAdapter e containsAll, con collezioni
+     * piccole e con collezioni abbastanza grandi da essere indicizzate, che contengono duplicati.
+     * <br><br>Design test: lo stack viene modificato tramite una sottolista con clear, add, set, remove, removeAll e una
+     * sottolista annidata; poi lo stack viene modificato direttamente e la sottolista viene usata di nuovo.
+     * <br><br>Preconditions: lo stack contiene i valori da 1 a 8.
+     * <br><br>Postconditions: le modifiche fatte tramite la sottolista si ripercuotono sullo stack.
+     * <br><br>Expected results: lo stack contiene gli elementi previsti dopo ogni modifica; dopo una modifica fatta
+     * senza passare dalla sottolista, la sottolista lancia ConcurrentModificationException.
+     */
+    @Test
+    public void testCopyOnWriteSubList() {
+        CopyOnWriteStackAdapter cow = new CopyOnWriteStackAdapter();
+        for (int i = 1; i <= 8; i++)
+            cow.push(i);
+        StackAdapter reference = new StackAdapter(cow);
+        assertTrue(cow.containsAll(reference));
+        reference.push(9);
+        assertFalse(cow.containsAll(reference));
+        StackAdapter repeated = new StackAdapter();
+        for (int i = 0; i < 20; i++)
+            repeated.push(i % 8 + 1);
+        assertTrue(cow.containsAll(repeated));
+        repeated.push(null);
+        assertFalse(cow.containsAll(repeated));
+
+        HList view = cow.subList(2, 6);
+        assertArrayEquals(new Object[]{3, 4, 5, 6}, view.toArray());
+        assertTrue(view.equals(reference.subList(2, 6)));
+        assertTrue(view.containsAll(reference.subList(2, 6)));
+        assertFalse(view.containsAll(reference.subList(1, 6)));
+        assertFalse(view.containsAll(repeated));
+        assertEquals(reference.subList(2, 6).hashCode(), view.hashCode());
+        view.subList(1, 3).clear();
+        assertArrayEquals(new Object[]{1, 2, 3, 6, 7, 8}, cow.toArray());
+        try {
+            view.size();
+            fail();
+        } catch (ConcurrentModificationException e) {
+        }
+
+        view = cow.subList(2, 4);
+        view.add(0);
+        view.add(0, 10);
+        assertEquals(3, view.set(1, 30));
+        assertEquals(6, view.remove(2));
+        assertArrayEquals(new Object[]{10, 30, 0}, view.toArray());
+        assertArrayEquals(new Object[]{1, 2, 10, 30, 0, 7, 8}, cow.toArray());
+        assertFalse(view.removeAll(reference));
+        assertFalse(view.retainAll(cow));
+        assertArrayEquals(new Object[]{10, 30, 0}, view.toArray());
+        assertTrue(view.contains(30));
+        assertEquals(2, view.indexOf(0));
+        HIterator it = view.iterator();
+        view.clear();
+        assertTrue(view.isEmpty());
+        assertArrayEquals(new Object[]{1, 2, 7, 8}, cow.toArray());
+        assertEquals(10, it.next());
+
+        cow.push(9);
+        try {
+            view.add(1);
+            fail();
+        } catch (ConcurrentModificationException e) {
+        }
+        try {
+            cow.subList(3, 6);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    /**
+     * <br><br>Summary: più thread leggono un CopyOnWriteStackAdapter mentre un altro lo modifica.
+     * <br><br>Design test: lo scrittore inserisce coppie di elementi con update, i lettori verificano che ogni
+     * istantanea letta contenga un numero pari di elementi e che la cima sia coerente con la dimensione.
+     * <br><br>Preconditions: lo stack è vuoto.
+     * <br><br>Postconditions: al termine lo stack contiene tutti gli elementi inseriti.
+     * <br><br>Expected results: nessun lettore vede una modifica a metà.
+     */
+    @Test
+    public void testCopyOnWriteReaders() throws InterruptedException {
+        final CopyOnWriteStackAdapter cow = new CopyOnWriteStackAdapter();
+        final int pairs = 2000;
+        final boolean[] failed = new boolean[1];
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread() {
+                public void run() {
+                    int seen = 0;
+                    while (seen < pairs * 2) {
+                        Object[] snapshot = cow.toArray();
+                        seen = snapshot.length;
+                        if (seen % 2 != 0 || (seen > 0 && !snapshot[seen - 1].equals(seen - 1))) failed[0] = true;
+                    }
+                }
+            };
+            readers[t].start();
+        }
+        for (int i = 0; i < pairs; i++) {
+            final int first = 2 * i;
+            cow.update(s -> {
+                s.push(first);
+                s.push(first + 1);
+            });
+        }
+        for (int t = 0; t < readers.length; t++)
+            readers[t].join();
+        assertFalse(failed[0]);
+        assertEquals(pairs * 2, cow.size());
+    }
+}
@@ -0,0 +1,169 @@
+package myTest;
+
+import myAdapter.MappedStackAdapter;
+import myAdapter.RecordCodec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.EmptyStackException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Summary: questa classe testa i metodi della classe MappedStackAdapter.
+ * <br><br>
+ * Design test: ogni test lavora su un file temporaneo; lo stack viene chiuso e riaperto per verificare che il
+ * contenuto sopravviva alla chiusura.
+ * <br><br>
+ * Description: gli elementi sono Long codificati da RecordCodec.LONG.
+ * <br><br>
+ * Preconditions:
+ * <br>Un file temporaneo vuoto viene creato prima di ogni test e cancellato dopo ogni test.
+ * <br><br>
+ * Postconditions: il file contiene lo stack come si trovava alla chiusura.
+ * <br><br>
+ * Execution record: ogni metodo testato è corretto se tutti i test che verificano il corretto funzionamento hanno un risultato positivo.
+ * <br><br>
+ * Execution variables:
+ * <br>File file - file temporaneo che contiene lo stack.
+ * <br>MappedStackAdapter stack - stack aperto sul file.
+ * <br><br>
+ *
+ * @see myAdapter.MappedStackAdapter
+ */
+
+public class MappedStackAdapterTest {
+    private File file;
+    private MappedStackAdapter stack;
+
+    /**
+     * Summary: metodo che crea il file temporaneo e apre lo stack prima di ogni test.
+     */
+    @Before
+    public void setup() throws IOException {
+        file = File.createTempFile("stack", ".map");
+        stack = new MappedStackAdapter(file, RecordCodec.LONG);
+    }
+
+    /**
+     * Summary: metodo che chiude lo stack e cancella il file dopo ogni test.
+     */
+    @After
+    public void teardown() throws IOException {
+        stack.close();
+        file.delete();
+    }
+
+    /**
+     * <br><br>Summary: vengono verificati i metodi push, pop, peek, search e size.
+     * <br><br>Design test: lo stack vuoto viene riempito, poi vengono invocati peek, search e pop.
+     * <br><br>Preconditions: il file è vuoto.
+     * <br><br>Postconditions: push e pop modificano la cima dello stack, peek e search lo lasciano invariato.
+     * <br><br>Expected results: pop e peek su uno stack vuoto lanciano EmptyStackException; search restituisce la distanza 1-based dalla cima.
+     */
+    @Test
+    public void testStack() {
+        assertTrue(stack.empty());
+        try {
+            stack.pop();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+        for (long i = 1; i <= 10; i++)
+            stack.push(i);
+        assertEquals(10, stack.size());
+        assertEquals(10L, stack.peek());
+        assertEquals(1, stack.search(10L));
+        assertEquals(10, stack.search(1L));
+        assertEquals(-1, stack.search(11L));
+        assertEquals(-1, stack.search("1"));
+        assertEquals(10L, stack.pop());
+        assertEquals(9L, stack.peek());
+        assertEquals(3L, stack.get(2));
+    }
+
+    /**
+     * <br><br>Summary: lo stack viene chiuso e riaperto.
+     * <br><br>Design test: vengono inseriti elementi su più blocchi, lo stack viene chiuso e riaperto e il contenuto viene confrontato.
+     * <br><br>Preconditions: il file è vuoto.
+     * <br><br>Postconditions: il file cresce di un blocco alla volta.
+     * <br><br>Expected results: dopo la riapertura lo stack contiene gli stessi elementi e si può continuare ad usarlo.
+     */
+    @Test
+    public void testReopen() throws IOException {
+        stack.close();
+        file.delete();
+        stack = new MappedStackAdapter(file, RecordCodec.LONG, false, 64);
+        for (long i = 0; i < 1000; i++)
+            stack.push(i);
+        stack.pop();
+        stack.close();
+        assertTrue(file.length() > 999 * 8);
+
+        stack = new MappedStackAdapter(file, RecordCodec.LONG, true);
+        assertEquals(999, stack.size());
+        assertEquals(998L, stack.peek());
+        assertEquals(0L, stack.get(0));
+        assertEquals(500L, stack.get(500));
+        stack.push(-1L);
+        assertEquals(1, stack.search(-1L));
+        stack.clear();
+        stack.close();
+
+        stack = new MappedStackAdapter(file, RecordCodec.LONG);
+        assertTrue(stack.isEmpty());
+    }
+
+    /**
+     * <br><br>Summary: viene verificata l'apertura di file non validi.
+     * <br><br>Design test: vengono aperti un file che non contiene uno stack, uno stack con una codifica di larghezza diversa e uno stack con l'intestazione corrotta.
+     * <br><br>Preconditions: nessuna.
+     * <br><br>Postconditions: i file non validi non vengono modificati.
+     * <br><br>Expected results: il costruttore lancia IOException.
+     */
+    @Test
+    public void testInvalidFiles() throws IOException {
+        stack.push(1L);
+        stack.close();
+        try {
+            stack = new MappedStackAdapter(file, RecordCodec.INTEGER);
+            fail();
+        } catch (IOException e) {
+        }
+
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.seek(16);
+        raw.writeLong(Long.MAX_VALUE);
+        raw.close();
+        try {
+            stack = new MappedStackAdapter(file, RecordCodec.LONG);
+            fail();
+        } catch (IOException e) {
+        }
+
+        File other = File.createTempFile("other", ".txt");
+        FileOutputStream out = new FileOutputStream(other);
+        out.write("not a stack".getBytes("UTF-8"));
+        out.close();
+        try {
+            stack = new MappedStackAdapter(other, RecordCodec.LONG);
+            fail();
+        } catch (IOException e) {
+        }
+        assertEquals(11, other.length());
+        other.delete();
+
+        file.delete();
+        stack = new MappedStackAdapter(file, RecordCodec.LONG);
+        try {
+            stack.push(null);
+            fail();
+        } catch (NullPointerException e) {
+        }
+    }
+}
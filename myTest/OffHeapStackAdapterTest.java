@@ -0,0 +1,218 @@
+package myTest;
+
+import myAdapter.HListIterator;
+import myAdapter.OffHeapStackAdapter;
+import myAdapter.RecordCodec;
+import myAdapter.StackAdapter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.EmptyStackException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Summary: questa classe testa i metodi della classe OffHeapStackAdapter.
+ * <br><br>
+ * Design test: in questa classe ogni test verifica un gruppo di metodi, confrontando il contenuto dello stack
+ * (tramite toArray()) con un array creato manualmente.
+ * <br><br>
+ * Description: gli elementi sono Integer codificati da RecordCodec.INTEGER; un test usa una codifica di record composti
+ * per verificare che lo stack funzioni con qualsiasi larghezza.
+ * <br><br>
+ * Preconditions:
+ * <br>Uno stack vuoto con capacità iniziale 2 e uno contenente i valori 1..5 vengono creati prima di ogni test e
+ * chiusi dopo ogni test.
+ * <br><br>
+ * Postconditions: i metodi implementati modificano lo stack nel modo atteso: gli elementi contenuti sono esattamente quelli previsti.
+ * <br><br>
+ * Execution record: ogni metodo testato è corretto se tutti i test che verificano il corretto funzionamento hanno un risultato positivo.
+ * <br><br>
+ * Execution variables:
+ * <br>OffHeapStackAdapter stack - stack vuoto.
+ * <br>OffHeapStackAdapter stackWithData - stack contenente i valori 1, 2, 3, 4, 5.
+ * <br><br>
+ *
+ * @see myAdapter.OffHeapStackAdapter
+ * @see myAdapter.RecordCodec
+ */
+
+public class OffHeapStackAdapterTest {
+    private OffHeapStackAdapter stack, stackWithData;
+
+    /**
+     * Summary: metodo per inizializzare le variabili prima dei test.
+     */
+    @Before
+    public void setup() {
+        stack = new OffHeapStackAdapter(RecordCodec.INTEGER, 2);
+        stackWithData = new OffHeapStackAdapter(RecordCodec.INTEGER);
+        for (int i = 0; i < 5; i++)
+            stackWithData.push(i + 1);
+    }
+
+    /**
+     * Summary: metodo che libera la memoria nativa dopo ogni test.
+     */
+    @After
+    public void teardown() {
+        stack.close();
+        stackWithData.close();
+    }
+
+    /**
+     * <br><br>Summary: vengono verificati i metodi push, pop, peek, search ed empty.
+     * <br><br>Design test: lo stack vuoto viene riempito oltre la sua capacità iniziale, poi vengono invocati peek, search e pop.
+     * <br><br>Preconditions: toArray() deve funzionare correttamente.
+     * <br><br>Postconditions: push e pop modificano la cima dello stack, peek e search lo lasciano invariato.
+     * <br><br>Expected results: pop e peek su uno stack vuoto lanciano EmptyStackException; gli elementi null non sono ammessi.
+     */
+    @Test
+    public void testStack() {
+        assertTrue(stack.empty());
+        try {
+            stack.pop();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+        try {
+            stack.push(null);
+            fail();
+        } catch (NullPointerException e) {
+        }
+
+        for (int i = 1; i <= 100; i++)
+            stack.push(i);
+        assertEquals(100, stack.size());
+        assertTrue(stack.allocatedBytes() >= 400);
+        assertEquals(100, stack.peek());
+        assertEquals(1, stack.search(100));
+        assertEquals(100, stack.search(1));
+        assertEquals(-1, stack.search(101));
+        assertEquals(-1, stack.search("1"));
+        assertEquals(-1, stack.search(null));
+
+        assertEquals(100, stack.pop());
+        assertEquals(99, stack.peek());
+        assertEquals(99, stack.size());
+    }
+
+    /**
+     * <br><br>Summary: vengono verificate le operazioni posizionali e le operazioni bulk.
+     * <br><br>Design test: gli elementi vengono inseriti e rimossi in testa, in mezzo e in coda allo stack, anche a gruppi.
+     * <br><br>Preconditions: lo stack contiene i valori 1..5.
+     * <br><br>Postconditions: i record successivi alla posizione modificata vengono spostati.
+     * <br><br>Expected results: lo stack contiene gli elementi attesi; un elemento che non può essere codificato lascia lo stack invariato.
+     */
+    @Test
+    public void testListOperations() {
+        stackWithData.add(0, 0);
+        stackWithData.add(3, 9);
+        assertEquals(9, stackWithData.remove(3));
+        assertEquals(5, stackWithData.set(5, 50));
+        assertArrayEquals(new Object[]{0, 1, 2, 3, 4, 50}, stackWithData.toArray());
+
+        StackAdapter coll = new StackAdapter();
+        coll.add(7);
+        coll.add(8);
+        assertTrue(stackWithData.addAll(2, coll));
+        assertArrayEquals(new Object[]{0, 1, 7, 8, 2, 3, 4, 50}, stackWithData.toArray());
+        assertTrue(stackWithData.containsAll(coll));
+
+        coll.add("not an integer");
+        try {
+            stackWithData.addAll(1, coll);
+            fail();
+        } catch (ClassCastException e) {
+        }
+        assertArrayEquals(new Object[]{0, 1, 7, 8, 2, 3, 4, 50}, stackWithData.toArray());
+
+        assertTrue(stackWithData.removeAll(coll));
+        assertArrayEquals(new Object[]{0, 1, 2, 3, 4, 50}, stackWithData.toArray());
+        coll.add(2);
+        coll.add(50);
+        assertTrue(stackWithData.retainAll(coll));
+        assertArrayEquals(new Object[]{2, 50}, stackWithData.toArray());
+        assertFalse(stackWithData.retainAll(coll));
+
+        assertTrue(stackWithData.remove((Object) 2));
+        assertFalse(stackWithData.remove((Object) 2));
+        assertEquals(0, stackWithData.indexOf(50));
+        assertEquals(0, stackWithData.lastIndexOf(50));
+
+        HListIterator it = stackWithData.listIterator();
+        it.add(1);
+        assertEquals(50, it.next());
+        it.set(5);
+        assertArrayEquals(new Object[]{1, 5}, stackWithData.toArray());
+    }
+
+    /**
+     * <br><br>Summary: vengono verificati equals, hashCode e close.
+     * <br><br>Design test: due stack con gli stessi elementi vengono confrontati; poi uno stack viene chiuso e usato.
+     * <br><br>Preconditions: push deve funzionare correttamente.
+     * <br><br>Postconditions: dopo close() la memoria nativa è stata liberata.
+     * <br><br>Expected results: l'hashCode coincide con quello di uno StackAdapter con gli stessi elementi; uno stack chiuso lancia IllegalStateException.
+     */
+    @Test
+    public void testEqualsAndClose() {
+        StackAdapter same = new StackAdapter();
+        for (int i = 0; i < 5; i++) {
+            stack.push(i + 1);
+            same.push(i + 1);
+        }
+        assertEquals(stackWithData, stack);
+        assertEquals(same.hashCode(), stack.hashCode());
+        stack.set(0, 0);
+        assertNotEquals(stackWithData, stack);
+
+        stack.close();
+        stack.close();
+        assertEquals(0, stack.allocatedBytes());
+        try {
+            stack.push(1);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    /**
+     * <br><br>Summary: lo stack viene usato con una codifica di record composti da due campi.
+     * <br><br>Design test: vengono inseriti record di 12 byte (un int e un long) e vengono cercati e rimossi.
+     * <br><br>Preconditions: la codifica è canonica.
+     * <br><br>Postconditions: i record decodificati sono uguali a quelli inseriti.
+     * <br><br>Expected results: la ricerca confronta tutti i byte del record.
+     */
+    @Test
+    public void testCustomCodec() {
+        RecordCodec pairCodec = new RecordCodec() {
+            public int width() {
+                return 12;
+            }
+
+            public void encode(Object value, ByteBuffer buffer, int offset) {
+                long[] pair = (long[]) value;
+                buffer.putInt(offset, (int) pair[0]);
+                buffer.putLong(offset + 4, pair[1]);
+            }
+
+            public Object decode(ByteBuffer buffer, int offset) {
+                return new long[]{buffer.getInt(offset), buffer.getLong(offset + 4)};
+            }
+        };
+        OffHeapStackAdapter pairs = new OffHeapStackAdapter(pairCodec, 1);
+        try {
+            for (int i = 0; i < 10; i++)
+                pairs.push(new long[]{i, (long) i << 33});
+            assertEquals(3, pairs.search(new long[]{7, 7L << 33}));
+            assertEquals(-1, pairs.search(new long[]{7, 7L}));
+            pairs.remove(0);
+            assertArrayEquals(new long[]{1, 1L << 33}, (long[]) pairs.get(0));
+            assertArrayEquals(new long[]{9, 9L << 33}, (long[]) pairs.pop());
+        } finally {
+            pairs.close();
+        }
+    }
+}
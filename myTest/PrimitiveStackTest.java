@@ -0,0 +1,247 @@
+package myTest;
+
+import myAdapter.DoubleStack;
+import myAdapter.IntListIterator;
+import myAdapter.IntStack;
+import myAdapter.LongStack;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EmptyStackException;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Summary: questa classe testa gli stack specializzati per i tipi primitivi IntStack, LongStack e DoubleStack.
+ * <br><br>
+ * Design test: le tre classi sono generate dallo stesso template, pertanto i metodi vengono testati in modo completo su
+ * IntStack, mentre su LongStack e DoubleStack si verificano le operazioni di stack e il confronto tra valori.
+ * <br><br>
+ * Description: ogni test verifica un gruppo di metodi, confrontando il contenuto dello stack (tramite toArray()) con un
+ * array creato manualmente.
+ * <br><br>
+ * Preconditions:
+ * <br>Un nuovo IntStack vuoto e uno contenente i valori 1..5 vengono creati prima di ogni test.
+ * <br><br>
+ * Postconditions: i metodi implementati modificano lo stack nel modo atteso: gli elementi contenuti sono esattamente quelli previsti.
+ * <br><br>
+ * Execution record: ogni metodo testato è corretto se tutti i test che verificano il corretto funzionamento hanno un risultato positivo.
+ * <br><br>
+ * Execution variables:
+ * <br>IntStack stack - stack vuoto.
+ * <br>IntStack stackWithData - stack contenente i valori 1, 2, 3, 4, 5.
+ * <br><br>
+ *
+ * @see myAdapter.IntStack
+ * @see myAdapter.LongStack
+ * @see myAdapter.DoubleStack
+ */
+
+public class PrimitiveStackTest {
+    private IntStack stack, stackWithData;
+
+    /**
+     * Summary: metodo per inizializzare le variabili prima dei test.
+     */
+    @Before
+    public void setup() {
+        stack = new IntStack();
+        stackWithData = new IntStack(2);
+        for (int i = 0; i < 5; i++)
+            stackWithData.push(i + 1);
+    }
+
+    /**
+     * <br><br>Summary: vengono verificati i metodi push, pop, peek, search ed empty di IntStack.
+     * <br><br>Design test: lo stack vuoto viene riempito oltre la sua capacità iniziale, poi vengono invocati peek, search e pop.
+     * <br><br>Preconditions: toArray() deve funzionare correttamente.
+     * <br><br>Postconditions: push e pop modificano la cima dello stack, peek e search lo lasciano invariato.
+     * <br><br>Expected results: pop e peek su uno stack vuoto lanciano EmptyStackException; search restituisce la distanza 1-based dalla cima.
+     */
+    @Test
+    public void testStack() {
+        assertTrue(stack.empty());
+        try {
+            stack.pop();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+        try {
+            stack.peek();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+
+        for (int i = 1; i <= 20; i++)
+            assertEquals(i, stack.push(i));
+        assertFalse(stack.empty());
+        assertEquals(20, stack.size());
+        assertEquals(20, stack.peek());
+        assertEquals(1, stack.search(20));
+        assertEquals(20, stack.search(1));
+        assertEquals(-1, stack.search(21));
+
+        assertEquals(20, stack.pop());
+        assertEquals(19, stack.peek());
+        assertEquals(19, stack.size());
+
+        stack.push(7);
+        assertEquals(1, stack.search(7));
+    }
+
+    /**
+     * <br><br>Summary: vengono verificate le operazioni posizionali get, set, add(int, int) e remove(int).
+     * <br><br>Design test: gli elementi vengono inseriti e rimossi in testa, in mezzo e in coda allo stack.
+     * <br><br>Preconditions: toArray() deve funzionare correttamente.
+     * <br><br>Postconditions: gli elementi successivi alla posizione modificata vengono shiftati.
+     * <br><br>Expected results: lo stack contiene gli elementi attesi; gli indici non validi lanciano IndexOutOfBoundsException.
+     */
+    @Test
+    public void testPositionalAccess() {
+        stackWithData.add(0, 0);
+        stackWithData.add(3, 9);
+        stackWithData.add(stackWithData.size(), 6);
+        assertArrayEquals(new int[]{0, 1, 2, 9, 3, 4, 5, 6}, stackWithData.toArray());
+
+        assertEquals(9, stackWithData.remove(3));
+        assertEquals(0, stackWithData.remove(0));
+        assertEquals(6, stackWithData.set(5, 60));
+        assertEquals(60, stackWithData.get(5));
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 60}, stackWithData.toArray());
+
+        assertTrue(stackWithData.removeElement(3));
+        assertFalse(stackWithData.removeElement(3));
+        assertArrayEquals(new int[]{1, 2, 4, 5, 60}, stackWithData.toArray());
+
+        try {
+            stackWithData.get(5);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        try {
+            stackWithData.add(-1, 0);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    /**
+     * <br><br>Summary: vengono verificati contains, indexOf, lastIndexOf, equals, hashCode e clear.
+     * <br><br>Design test: vengono cercati valori presenti più volte e valori assenti; due stack con gli stessi elementi vengono confrontati.
+     * <br><br>Preconditions: push deve funzionare correttamente.
+     * <br><br>Postconditions: lo stack non viene modificato, tranne che da clear().
+     * <br><br>Expected results: l'hashCode coincide con quello di una lista degli stessi valori Integer.
+     */
+    @Test
+    public void testSearchAndEquality() {
+        stackWithData.push(2);
+        assertTrue(stackWithData.contains(2));
+        assertFalse(stackWithData.contains(7));
+        assertEquals(1, stackWithData.indexOf(2));
+        assertEquals(5, stackWithData.lastIndexOf(2));
+        assertEquals(-1, stackWithData.indexOf(7));
+
+        IntStack copy = new IntStack();
+        java.util.List<Integer> boxed = new java.util.ArrayList<Integer>();
+        int[] values = stackWithData.toArray();
+        for (int i = 0; i < values.length; i++) {
+            copy.push(values[i]);
+            boxed.add(values[i]);
+        }
+        assertEquals(stackWithData, copy);
+        assertEquals(boxed.hashCode(), stackWithData.hashCode());
+        assertEquals(copy.hashCode(), stackWithData.hashCode());
+
+        copy.pop();
+        assertNotEquals(stackWithData, copy);
+
+        stackWithData.clear();
+        assertTrue(stackWithData.isEmpty());
+        assertArrayEquals(new int[0], stackWithData.toArray());
+    }
+
+    /**
+     * <br><br>Summary: vengono verificati i metodi di IntListIterator.
+     * <br><br>Design test: lo stack viene percorso in avanti e all'indietro, modificandolo con remove, set e add dell'iteratore.
+     * <br><br>Preconditions: lo stack contiene i valori 1..5.
+     * <br><br>Postconditions: le modifiche dell'iteratore si ripercuotono sullo stack.
+     * <br><br>Expected results: nextIndex e previousIndex seguono il cursore; remove e set senza next/previous lanciano IllegalStateException.
+     */
+    @Test
+    public void testListIterator() {
+        IntListIterator it = stackWithData.listIterator();
+        assertFalse(it.hasPrevious());
+        assertEquals(-1, it.previousIndex());
+        try {
+            it.remove();
+            fail();
+        } catch (IllegalStateException e) {
+        }
+
+        int sum = 0;
+        while (it.hasNext())
+            sum += it.next();
+        assertEquals(15, sum);
+        assertEquals(5, it.nextIndex());
+        try {
+            it.next();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+
+        assertEquals(5, it.previous());
+        it.remove();
+        assertEquals(4, it.previous());
+        it.set(40);
+        it.add(35);
+        try {
+            it.set(0);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        assertEquals(40, it.next());
+        assertArrayEquals(new int[]{1, 2, 3, 35, 40}, stackWithData.toArray());
+
+        it = stackWithData.listIterator(2);
+        assertEquals(2, it.nextIndex());
+        assertEquals(3, it.next());
+        it.remove();
+        assertEquals(2, it.nextIndex());
+        assertArrayEquals(new int[]{1, 2, 35, 40}, stackWithData.toArray());
+
+        try {
+            stackWithData.listIterator(5);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    /**
+     * <br><br>Summary: vengono verificati LongStack e DoubleStack.
+     * <br><br>Design test: vengono inseriti valori che non sono rappresentabili come int e valori double speciali.
+     * <br><br>Preconditions: nessuna.
+     * <br><br>Postconditions: i valori restituiti sono identici a quelli inseriti.
+     * <br><br>Expected results: i valori double vengono confrontati come farebbe Double.equals (NaN è uguale a se stesso, 0.0 e -0.0 sono diversi).
+     */
+    @Test
+    public void testLongAndDouble() {
+        LongStack longs = new LongStack();
+        longs.push(Long.MAX_VALUE);
+        longs.push(1L << 40);
+        assertEquals(2, longs.search(Long.MAX_VALUE));
+        assertEquals(1L << 40, longs.pop());
+        assertEquals(Long.MAX_VALUE, longs.peek());
+        assertEquals(Long.valueOf(Long.MAX_VALUE).hashCode() + 31, longs.hashCode());
+
+        DoubleStack doubles = new DoubleStack();
+        doubles.push(Double.NaN);
+        doubles.push(0.0);
+        doubles.push(2.5);
+        assertEquals(3, doubles.search(Double.NaN));
+        assertEquals(-1, doubles.search(-0.0));
+        assertEquals(2, doubles.search(0.0));
+        assertEquals(2.5, doubles.pop(), 0.0);
+        assertArrayEquals(new double[]{Double.NaN, 0.0}, doubles.toArray(), 0.0);
+    }
+}
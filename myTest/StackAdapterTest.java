@@ -1,13 +1,42 @@
 package myTest;
 
+import myAdapter.BlockingStackAdapter;
+import myAdapter.CapacityPolicy;
+import myAdapter.ConcurrentStackAdapter;
 import myAdapter.HCollection;
 import myAdapter.HList;
 import myAdapter.HListIterator;
 import myAdapter.HIterator;
+import myAdapter.PersistentStack;
+import myAdapter.RecordCodec;
 import myAdapter.StackAdapter;
+import myAdapter.StackEvents;
+import myAdapter.StackMetrics;
 import org.junit.Before;
 import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.EmptyStackException;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.*;
 
@@ -324,6 +353,38 @@ public class StackAdapterTest {
 
     }
 
+    /**
+     * Test of {@link myAdapter.StackAdapter#containsAll(HCollection)}
+     * <p>
+     * <br><br>Summary: Il test verifica che containsAll dia lo stesso risultato di contains quando lo stack contiene null in mezzo.
+     * <br><br>Design test: lo stack [1, null, 2] viene interrogato con contains e containsAll, prima con la ricerca lineare e poi in modalità indicizzata.
+     * <br><br>Description: contains si ferma al primo elemento null, quindi non trova 2; containsAll deve comportarsi come una serie di chiamate a contains.
+     * <br><br>Preconditions: il metodo push(Object) deve funzionare correttamente.
+     * <br><br>Postconditions: lo stack non viene modificato.
+     * <br><br>Expected results: containsAll restituisce true se e solo se contains restituisce true per ogni elemento della collezione.
+     */
+    @Test
+    public void testContainsAllWithNull() {
+        stack.push(1);
+        stack.push(null);
+        stack.push(2);
+        for (int mode = 0; mode < 2; mode++) {
+            if (mode == 1) stack.enableIndex(16);
+            Object[][] queries = {{1}, {null}, {2}, {1, null}, {1, 2}, {}};
+            for (int q = 0; q < queries.length; q++) {
+                StackAdapter query = new StackAdapter();
+                boolean expected = true;
+                for (int i = 0; i < queries[q].length; i++) {
+                    query.push(queries[q][i]);
+                    expected &= stack.contains(queries[q][i]);
+                }
+                assertEquals(expected, stack.containsAll(query));
+            }
+            assertFalse(stack.contains(2));
+            assertFalse(stack.containsAll(new StackAdapter(stack.subList(2, 3))));
+        }
+    }
+
     /**
      * Test of {@link myAdapter.StackAdapter#addAll(HCollection)}
      * <p>
@@ -417,6 +478,43 @@ public class StackAdapterTest {
 
 
 
+    /**
+     * Test of {@link myAdapter.StackAdapter#addAll(int, HCollection)} con collezioni che non sono StackAdapter.
+     * <p>
+     * <br><br>Summary: gli elementi di una collezione qualsiasi vengono inseriti in testa, in mezzo e in coda allo stack.
+     * <br><br>Design test: viene usato un ConcurrentStackAdapter, il cui toArray() restituisce gli elementi dalla cima al fondo; lo stack viene anche costruito a partire da esso.
+     * <br><br>Description: la collezione inserita è più grande della capacità iniziale dello stack, così lo spazio viene riservato durante l'inserimento.
+     * <br><br>Preconditions: toArray() deve funzionare correttamente.
+     * <br><br>Postconditions: gli elementi già presenti a partire dall'indice vengono spostati a destra.
+     * <br><br>Expected results: lo stack contiene gli elementi della collezione nell'ordine di toArray(), a partire dall'indice indicato.
+     */
+    @Test
+    public void testAddAllOtherCollection() {
+        HCollection other = new ConcurrentStackAdapter();
+        for (int i = 0; i < 12; i++)
+            other.add(i);
+        Object[] batch = other.toArray();
+
+        StackAdapter copy = new StackAdapter(other);
+        assertArrayEquals(batch, copy.toArray());
+
+        assertTrue(stackWithData.addAll(2, other));
+        assertEquals(17, stackWithData.size());
+        assertEquals(1, stackWithData.get(0));
+        assertEquals(2, stackWithData.get(1));
+        for (int i = 0; i < batch.length; i++)
+            assertEquals(batch[i], stackWithData.get(2 + i));
+        assertEquals(3, stackWithData.get(14));
+        assertEquals(5, stackWithData.peek());
+
+        assertTrue(stackWithData.addAll(0, other));
+        assertTrue(stackWithData.addAll(other));
+        assertEquals(41, stackWithData.size());
+        assertEquals(batch[0], stackWithData.get(0));
+        assertEquals(batch[batch.length - 1], stackWithData.pop());
+        assertFalse(stackWithData.addAll(3, new ConcurrentStackAdapter()));
+    }
+
     /**
      * Test of {@link myAdapter.StackAdapter#removeAll(HCollection)}
      * <p>
@@ -511,6 +609,39 @@ public class StackAdapterTest {
         assertEquals(0, coll.size());
     }
 
+    /**
+     * Test of {@link myAdapter.StackAdapter#removeAll(HCollection)}, {@link myAdapter.StackAdapter#retainAll(HCollection)} e {@link myAdapter.StackAdapter#containsAll(HCollection)}
+     * <p>
+     * <br><br>Summary: le operazioni bulk vengono invocate con collezioni che non sono StackAdapter e con elementi ripetuti.
+     * <br><br>Design test: viene usato un ConcurrentStackAdapter come argomento; lo stack contiene più occorrenze degli stessi valori.
+     * <br><br>Description: removeAll deve rimuovere tutte le occorrenze dei valori della collezione, retainAll deve conservare tutte le occorrenze dei valori della collezione.
+     * <br><br>Preconditions: i metodi add(Object) e toArray() devono funzionare correttamente.
+     * <br><br>Postconditions: l'ordine degli elementi rimasti non cambia.
+     * <br><br>Expected results: lo stack contiene gli elementi attesi; containsAll di una collezione vuota restituisce true.
+     */
+    @Test
+    public void testBulkWithOtherCollections() {
+        for (int i = 0; i < 12; i++)
+            stack.add(i % 4);
+        HCollection other = new ConcurrentStackAdapter();
+        assertTrue(stack.containsAll(other));
+        other.add(1);
+        other.add(3);
+        assertTrue(stack.containsAll(other));
+        assertTrue(stack.removeAll(other));
+        assertArrayEquals(new Object[]{0, 2, 0, 2, 0, 2}, stack.toArray());
+        assertFalse(stack.containsAll(other));
+        assertFalse(stack.removeAll(other));
+
+        other.add(2);
+        stack.add(null);
+        assertTrue(stack.retainAll(other));
+        assertArrayEquals(new Object[]{2, 2, 2}, stack.toArray());
+        assertFalse(stack.retainAll(other));
+        stack.push(4);
+        assertEquals(1, stack.search(4));
+    }
+
     /**
      * Test of {@link myAdapter.StackAdapter#clear()}
      * <p>
@@ -998,4 +1129,823 @@ public class StackAdapterTest {
         assertArrayEquals(new Object[]{1,2,3,4}, stack.toArray());
 
     }
+
+    /**
+     * Test of {@link myAdapter.StackAdapter#enableIndex(int)}
+     * <p>
+     * <br><br>Summary: viene verificato che search, contains, indexOf e lastIndexOf diano gli stessi risultati con e senza la modalità indicizzata.
+     * <br><br>Design test: due stack ricevono le stesse operazioni, uno dei due in modalità indicizzata con un limite di 8 elementi; dopo ogni gruppo di operazioni i risultati delle ricerche vengono confrontati.
+     * <br><br>Description: vengono usati valori ripetuti, modifiche in cima (push, pop, set) e in mezzo allo stack (add(int, Object), remove(int)), e lo stack viene fatto crescere oltre il limite dell'indice.
+     * <br><br>Preconditions: i metodi push, pop, set, add e remove devono funzionare correttamente.
+     * <br><br>Postconditions: la modalità indicizzata non modifica il contenuto dello stack.
+     * <br><br>Expected results: le ricerche danno lo stesso risultato sui due stack.
+     */
+    @Test
+    public void testIndexedSearch() {
+        stack.enableIndex(8);
+        assertTrue(stack.isIndexed());
+        assertFalse(stackWithData.isIndexed());
+        stackWithData.clear();
+
+        for (int i = 0; i < 6; i++) {
+            stack.push(i % 3);
+            stackWithData.push(i % 3);
+        }
+        assertSameSearches(stackWithData, stack);
+        assertEquals(1, stack.search(2));
+        assertEquals(0, stack.indexOf(0));
+        assertEquals(3, stack.lastIndexOf(0));
+
+        stack.set(4, 7);
+        stackWithData.set(4, 7);
+        stack.pop();
+        stackWithData.pop();
+        assertSameSearches(stackWithData, stack);
+        assertEquals(3, stack.search(2));
+        assertEquals(1, stack.search(7));
+
+        stack.add(1, null);
+        stackWithData.add(1, null);
+        stack.remove(3);
+        stackWithData.remove(3);
+        assertSameSearches(stackWithData, stack);
+
+        for (int i = 0; i < 20; i++) {
+            stack.push(i);
+            stackWithData.push(i);
+        }
+        assertSameSearches(stackWithData, stack);
+        assertEquals(1, stack.search(19));
+
+        stack.clear();
+        stack.push(5);
+        assertEquals(1, stack.search(5));
+        assertEquals(-1, stack.search(19));
+        stack.disableIndex();
+        assertFalse(stack.isIndexed());
+        assertEquals(1, stack.search(5));
+    }
+
+    /**
+     * Test del controllo delle modifiche concorrenti di iteratori e sottoliste.
+     * <p>
+     * <br><br>Summary: viene verificato che iteratori e sottoliste si accorgano delle modifiche strutturali fatte senza passare da essi.
+     * <br><br>Design test: lo stack viene modificato durante un'iterazione, sia tramite l'iteratore che direttamente; una sottolista viene modificata e poi viene modificato lo stack di partenza.
+     * <br><br>Description: le modifiche fatte tramite l'iteratore o la sottolista non li invalidano; le modifiche fatte direttamente sullo stack sì, mentre set non è una modifica strutturale.
+     * <br><br>Preconditions: lo stack contiene i valori 1..5.
+     * <br><br>Postconditions: le modifiche fatte tramite la sottolista sono visibili nello stack di partenza.
+     * <br><br>Expected results: l'uso di un iteratore o di una sottolista non più validi lancia ConcurrentModificationException.
+     */
+    @Test
+    public void testFailFast() {
+        HIterator it = stackWithData.iterator();
+        assertEquals(1, it.next());
+        stackWithData.set(1, 20);
+        assertEquals(20, it.next());
+        stackWithData.push(6);
+        try {
+            it.next();
+            fail();
+        } catch (ConcurrentModificationException e) {
+        }
+
+        HListIterator listIt = stackWithData.listIterator();
+        listIt.add(0);
+        assertEquals(1, listIt.next());
+        stackWithData.pop();
+        try {
+            listIt.previous();
+            fail();
+        } catch (ConcurrentModificationException e) {
+        }
+
+        assertArrayEquals(new Object[]{0, 1, 20, 3, 4, 5}, stackWithData.toArray());
+        HList sub = stackWithData.subList(1, 3);
+        assertArrayEquals(new Object[]{1, 20}, sub.toArray());
+        sub.add(9);
+        assertArrayEquals(new Object[]{1, 20, 9}, sub.toArray());
+        assertArrayEquals(new Object[]{0, 1, 20, 9, 3, 4, 5}, stackWithData.toArray());
+        sub.clear();
+        assertEquals(0, sub.size());
+        assertArrayEquals(new Object[]{0, 3, 4, 5}, stackWithData.toArray());
+
+        sub.add(7);
+        HIterator subIt = sub.iterator();
+        stackWithData.push(6);
+        assertArrayEquals(new Object[]{0, 7, 3, 4, 5, 6}, stackWithData.toArray());
+        try {
+            sub.size();
+            fail();
+        } catch (ConcurrentModificationException e) {
+        }
+        try {
+            subIt.next();
+            fail();
+        } catch (ConcurrentModificationException e) {
+        }
+    }
+
+    /**
+     * Test of {@link myAdapter.StackAdapter#pushAll(Object[], int, int)}, {@link myAdapter.StackAdapter#popInto(Object[], int, int)} e {@link myAdapter.StackAdapter#drainTo(HCollection, int)}
+     * <p>
+     * <br><br>Summary: vengono verificate le operazioni di push e pop a blocchi.
+     * <br><br>Design test: un blocco di elementi viene inserito, rimosso in parte con popInto e trasferito con drainTo in un altro stack, in una collezione che non è uno StackAdapter e in uno stack limitato che si riempie durante il trasferimento.
+     * <br><br>Description: popInto e drainTo mantengono l'ordine che gli elementi hanno nello stack; max può essere maggiore del numero di elementi.
+     * <br><br>Preconditions: lo stack contiene i valori 1..5.
+     * <br><br>Postconditions: gli elementi rimossi non sono più nello stack.
+     * <br><br>Expected results: i metodi restituiscono il numero di elementi rimossi; intervalli non validi lanciano IndexOutOfBoundsException; se add della collezione fallisce, gli elementi già trasferiti non restano nello stack.
+     */
+    @Test
+    public void testBatchOperations() {
+        Object[] batch = {6, 7, 8, 9, 10, 11};
+        stackWithData.pushAll(batch, 1, 4);
+        assertArrayEquals(new Object[]{1, 2, 3, 4, 5, 7, 8, 9, 10}, stackWithData.toArray());
+        assertEquals(10, stackWithData.peek());
+        try {
+            stackWithData.pushAll(batch, 4, 3);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+
+        Object[] dst = new Object[5];
+        assertEquals(3, stackWithData.popInto(dst, 1, 3));
+        assertArrayEquals(new Object[]{null, 8, 9, 10, null}, dst);
+        assertEquals(7, stackWithData.peek());
+        try {
+            stackWithData.popInto(dst, 3, 3);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+
+        assertEquals(2, stackWithData.drainTo(stack, 2));
+        assertArrayEquals(new Object[]{5, 7}, stack.toArray());
+        assertEquals(4, stackWithData.peek());
+        HCollection other = new ConcurrentStackAdapter();
+        assertEquals(4, stackWithData.drainTo(other, 10));
+        assertTrue(stackWithData.empty());
+        assertArrayEquals(new Object[]{4, 3, 2, 1}, other.toArray());
+        assertEquals(0, stackWithData.popInto(dst, 0, 5));
+        try {
+            stack.drainTo(stack, 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        stack.pushAll(dst, 1, 3);
+        assertArrayEquals(new Object[]{5, 7, 8, 9, 10}, stack.toArray());
+
+        BlockingStackAdapter bounded = new BlockingStackAdapter(2);
+        try {
+            stack.drainTo(bounded, 3);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        assertArrayEquals(new Object[]{5, 7, 10}, stack.toArray());
+        assertArrayEquals(new Object[]{8, 9}, bounded.toArray());
+    }
+
+    /**
+     * Test of {@link myAdapter.StackAdapter#segmented(int)}
+     * <p>
+     * <br><br>Summary: viene verificato che uno stack con memoria segmentata si comporti come uno stack normale.
+     * <br><br>Design test: uno stack segmentato con blocchi di 4 elementi e uno stack normale ricevono le stesse operazioni, che spostano gli elementi a cavallo dei blocchi; il contenuto viene confrontato dopo ogni gruppo di operazioni.
+     * <br><br>Description: vengono usati push, pushAll, popInto, addAll e remove in mezzo allo stack, removeAll, una sottolista e la modalità indicizzata.
+     * <br><br>Preconditions: i metodi dello stack normale devono funzionare correttamente.
+     * <br><br>Postconditions: i due stack contengono gli stessi elementi.
+     * <br><br>Expected results: toArray() dei due stack restituisce lo stesso array; una dimensione dei blocchi non valida lancia IllegalArgumentException.
+     */
+    @Test
+    public void testSegmented() {
+        StackAdapter segmented = StackAdapter.segmented(3);
+        for (int i = 0; i < 50; i++) {
+            segmented.push(i);
+            stack.push(i);
+        }
+        assertArrayEquals(stack.toArray(), segmented.toArray());
+        assertEquals(stack.hashCode(), segmented.hashCode());
+        assertEquals(37, segmented.get(37));
+        assertEquals(13, segmented.search(37));
+
+        Object[] batch = new Object[11];
+        assertEquals(11, segmented.popInto(batch, 0, 11));
+        assertEquals(11, stack.popInto(new Object[11], 0, 11));
+        assertArrayEquals(stack.toArray(), segmented.toArray());
+        assertEquals(39, batch[0]);
+        assertEquals(49, batch[10]);
+
+        segmented.addAll(6, stackWithData);
+        stack.addAll(6, stackWithData);
+        segmented.add(17, "x");
+        stack.add(17, "x");
+        segmented.remove(2);
+        stack.remove(2);
+        assertArrayEquals(stack.toArray(), segmented.toArray());
+
+        segmented.pushAll(batch, 2, 9);
+        stack.pushAll(batch, 2, 9);
+        segmented.removeAll(stackWithData);
+        stack.removeAll(stackWithData);
+        assertArrayEquals(stack.toArray(), segmented.toArray());
+
+        segmented.subList(4, 30).clear();
+        stack.subList(4, 30).clear();
+        assertArrayEquals(stack.toArray(), segmented.toArray());
+
+        segmented.enableIndex(100);
+        assertEquals(stack.search(38), segmented.search(38));
+        assertEquals(stack.indexOf("x"), segmented.indexOf("x"));
+        segmented.clear();
+        assertTrue(segmented.isEmpty());
+        segmented.push(1);
+        assertEquals(1, segmented.search(1));
+
+        try {
+            StackAdapter.segmented(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test of {@link myAdapter.StackAdapter#setCapacityPolicy(CapacityPolicy)}
+     * <p>
+     * <br><br>Summary: viene verificata la politica di gestione della capacità.
+     * <br><br>Design test: lo stack viene riempito e svuotato con popInto, poi vengono alternati inserimenti e
+     * rimozioni attorno alla soglia di crescita; infine vengono provate politiche non valide e NEVER_SHRINK.
+     * <br><br>Description: la politica indica di quanto cresce la capacità, il minimo da mantenere e la frazione di occupazione sotto
+     * cui la memoria viene ridotta; la soglia di riduzione è più bassa di quella di crescita, così che un'alternanza
+     * di inserimenti e rimozioni non ridimensioni ogni volta il vettore.
+     * <br><br>Preconditions: lo stack è vuoto e usa la politica predefinita.
+     * <br><br>Postconditions: la capacità cresce con gli inserimenti e si riduce quando lo stack si svuota.
+     * <br><br>Expected results: dopo lo svuotamento la memoria viene restituita; la capacità non cambia durante
+     * l'alternanza di inserimenti e rimozioni; le politiche non valide lanciano IllegalArgumentException.
+     */
+    @Test
+    public void testCapacityPolicy() {
+        assertSame(CapacityPolicy.DEFAULT, stack.getCapacityPolicy());
+        stack.setCapacityPolicy(new CapacityPolicy(2.0, 8, 0.25));
+        for (int i = 0; i < 1000; i++)
+            stack.push(i);
+        assertTrue(stack.capacity() >= 1000);
+        Object[] batch = new Object[990];
+        assertEquals(990, stack.popInto(batch, 0, 990));
+        assertEquals(10, stack.size());
+        assertTrue(stack.capacity() <= 40);
+        assertEquals(9, stack.peek());
+
+        while (stack.size() < stack.capacity())
+            stack.push("x");
+        stack.push("y");
+        int capacity = stack.capacity();
+        for (int i = 0; i < 100; i++) {
+            stack.popInto(batch, 0, 1);
+            stack.push("y");
+            assertEquals(capacity, stack.capacity());
+        }
+        stack.trimToSize();
+        assertEquals(stack.size(), stack.capacity());
+
+        stack.setCapacityPolicy(CapacityPolicy.NEVER_SHRINK);
+        stack.pushAll(batch, 0, 990);
+        capacity = stack.capacity();
+        stack.clear();
+        assertEquals(capacity, stack.capacity());
+
+        try {
+            new CapacityPolicy(1.0, 10, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            new CapacityPolicy(2.0, -1, 0.25);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            new CapacityPolicy(2.0, 10, 0.5);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            stack.setCapacityPolicy(null);
+            fail();
+        } catch (NullPointerException e) {
+        }
+    }
+
+    /**
+     * Test of {@link myAdapter.StackAdapter#pop()}
+     * <p>
+     * <br><br>Summary: viene verificato che pop rimuova davvero l'elemento dal vettore.
+     * <br><br>Design test: lo stack viene riempito e svuotato con pop, poi si alternano push e pop; vengono invocati
+     * pop e peek su uno stack vuoto e pop su una sottolista.
+     * <br><br>Description: pop toglie l'elemento in cima dal vettore, che quindi non ne mantiene il riferimento, e il push successivo
+     * aggiunge in coda al vettore.
+     * <br><br>Preconditions: stack è vuoto, stackWithData contiene gli elementi da 1 a 5.
+     * <br><br>Postconditions: dopo pop lo stack non contiene più l'elemento rimosso.
+     * <br><br>Expected results: la capacità si riduce dopo lo svuotamento; i push successivi non ritrovano gli elementi
+     * rimossi; pop e peek su uno stack vuoto lanciano EmptyStackException; pop su una sottolista riduce anche lo stack
+     * di partenza.
+     */
+    @Test
+    public void testPopReleasesSlot() {
+        for (int i = 0; i < 1000; i++)
+            stack.push(i);
+        while (stack.size() > 2)
+            stack.pop();
+        assertTrue(stack.capacity() < 100);
+        stack.push("a");
+        assertEquals("a", stack.pop());
+        stack.push("b");
+        assertArrayEquals(new Object[]{0, 1, "b"}, stack.toArray());
+        stack.clear();
+        try {
+            stack.pop();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+        try {
+            stack.peek();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+
+        StackAdapter sub = (StackAdapter) stackWithData.subList(1, 3);
+        assertEquals(3, sub.pop());
+        assertEquals(2, sub.pop());
+        try {
+            sub.pop();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+        assertArrayEquals(new Object[]{1, 4, 5}, stackWithData.toArray());
+        assertEquals(3, stackWithData.size());
+    }
+
+    /**
+     * Test of {@link myAdapter.StackAdapter#stream()}
+     * <p>
+     * <br><br>Summary: vengono verificati spliterator, stream e parallelStream.
+     * <br><br>Design test: vengono calcolati conteggi e somme sequenziali e paralleli, viene diviso lo Spliterator e
+     * viene modificato lo stack durante l'attraversamento.
+     * <br><br>Description: lo Spliterator è SIZED e SUBSIZED e si divide a metà senza copiare gli elementi; a ogni elemento
+     * controlla che lo stack non sia stato modificato strutturalmente.
+     * <br><br>Preconditions: stack è vuoto, stackWithData contiene gli elementi da 1 a 5.
+     * <br><br>Postconditions: gli stream non modificano lo stack.
+     * <br><br>Expected results: gli stream attraversano gli elementi dal fondo alla cima; lo Spliterator si divide a
+     * metà; una modifica strutturale durante l'attraversamento lancia ConcurrentModificationException.
+     */
+    @Test
+    public void testStream() {
+        assertEquals(5, stackWithData.stream().count());
+        assertArrayEquals(stackWithData.toArray(), stackWithData.stream().toArray());
+        assertArrayEquals(new Object[]{2, 3}, ((StackAdapter) stackWithData.subList(1, 3)).stream().toArray());
+
+        for (int i = 0; i < 100000; i++)
+            stack.push(i);
+        long expected = 99999L * 100000L / 2;
+        assertEquals(expected, stack.stream().mapToLong(o -> (Integer) o).sum());
+        assertEquals(expected, stack.parallelStream().mapToLong(o -> (Integer) o).sum());
+        assertArrayEquals(stack.toArray(), stack.parallelStream().toArray());
+
+        Spliterator<Object> right = stack.spliterator();
+        assertTrue(right.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        Spliterator<Object> left = right.trySplit();
+        assertEquals(50000, left.estimateSize());
+        assertEquals(50000, right.estimateSize());
+        assertTrue(left.tryAdvance(o -> assertEquals(0, o)));
+        assertTrue(right.tryAdvance(o -> assertEquals(50000, o)));
+
+        try {
+            stackWithData.stream().forEach(o -> stackWithData.push(o));
+            fail();
+        } catch (ConcurrentModificationException e) {
+        }
+    }
+
+    /**
+     * Test of {@link myAdapter.StackAdapter#removeIf(java.util.function.Predicate)}
+     * <p>
+     * <br><br>Summary: vengono verificati forEach, removeIf, replaceAll e le loro varianti parallele.
+     * <br><br>Design test: le operazioni vengono eseguite su uno stack piccolo, su una sottolista e su uno stack
+     * abbastanza grande da essere elaborato in parallelo; i risultati delle varianti vengono confrontati.
+     * <br><br>Description: removeIf valuta il filtro su tutti gli elementi prima di modificare lo stack e poi compatta il vettore con
+     * una sola passata; le varianti parallele dividono lo stack in parti elaborate da thread diversi.
+     * <br><br>Preconditions: stack è vuoto, stackWithData contiene gli elementi da 1 a 5.
+     * <br><br>Postconditions: removeIf rimuove gli elementi che soddisfano il filtro, replaceAll sostituisce ogni
+     * elemento.
+     * <br><br>Expected results: le varianti parallele producono lo stesso stack di quelle sequenziali; se il filtro
+     * lancia un'eccezione lo stack non viene modificato; gli argomenti null lanciano NullPointerException.
+     */
+    @Test
+    public void testFunctionalBulk() {
+        StringBuffer visited = new StringBuffer();
+        stackWithData.forEach(o -> visited.append(o));
+        assertEquals("12345", visited.toString());
+
+        assertTrue(((StackAdapter) stackWithData.subList(1, 4)).removeIf(o -> (Integer) o % 2 == 0));
+        assertArrayEquals(new Object[]{1, 3, 5}, stackWithData.toArray());
+        assertFalse(stackWithData.removeIf(o -> o == null));
+        stackWithData.replaceAll(o -> (Integer) o * 10);
+        assertArrayEquals(new Object[]{10, 30, 50}, stackWithData.toArray());
+        try {
+            stackWithData.removeIf(o -> {
+                if ((Integer) o == 30) throw new IllegalStateException();
+                return true;
+            });
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        assertEquals(3, stackWithData.size());
+
+        StackAdapter other = new StackAdapter();
+        for (int i = 0; i < 100000; i++) {
+            stack.push(i);
+            other.push(i);
+        }
+        other.enableIndex(Integer.MAX_VALUE);
+        assertTrue(stack.removeIf(o -> (Integer) o % 3 != 0));
+        assertTrue(other.parallelRemoveIf(o -> (Integer) o % 3 != 0));
+        assertArrayEquals(stack.toArray(), other.toArray());
+        assertEquals(33334, other.size());
+        stack.replaceAll(o -> (Integer) o + 1);
+        other.parallelReplaceAll(o -> (Integer) o + 1);
+        assertArrayEquals(stack.toArray(), other.toArray());
+        assertEquals(33334, other.search(1));
+        assertEquals(-1, other.search(0));
+
+        long[] sum = new long[1];
+        stack.forEach(o -> sum[0] += (Integer) o);
+        AtomicLong parallelSum = new AtomicLong();
+        other.parallelForEach(o -> parallelSum.addAndGet((Integer) o));
+        assertEquals(sum[0], parallelSum.get());
+
+        try {
+            stack.removeIf(null);
+            fail();
+        } catch (NullPointerException e) {
+        }
+        try {
+            stack.parallelReplaceAll(null);
+            fail();
+        } catch (NullPointerException e) {
+        }
+    }
+
+    /**
+     * Test of {@link myAdapter.StackAdapter#hashCode()}
+     * <p>
+     * <br><br>Summary: viene verificata la cache dell'hash e il confronto diretto di equals.
+     * <br><br>Design test: uno stack con la cache attiva e uno senza subiscono le stesse operazioni; dopo ogni
+     * operazione vengono confrontati hashCode ed equals. Vengono confrontate anche sottoliste ed elementi null.
+     * <br><br>Description: con la cache attiva push, pop, add in coda e set aggiornano l'hash memorizzato, le altre modifiche lo
+     * invalidano; equals scarta in tempo costante gli stack con hash diverso.
+     * <br><br>Preconditions: stack è vuoto, stackWithData contiene gli elementi da 1 a 5.
+     * <br><br>Postconditions: la cache non modifica il contenuto degli stack.
+     * <br><br>Expected results: l'hash in cache coincide sempre con quello calcolato scorrendo lo stack; equals
+     * restituisce false per stack di uguale dimensione e contenuto diverso.
+     */
+    @Test
+    public void testHashCache() {
+        StackAdapter cached = new StackAdapter();
+        cached.enableHashCache();
+        assertTrue(cached.isHashCached());
+        assertEquals(stack.hashCode(), cached.hashCode());
+        for (int i = 0; i < 50; i++) {
+            stack.push(i % 7 == 0 ? null : i);
+            cached.push(i % 7 == 0 ? null : i);
+            assertEquals(stack.hashCode(), cached.hashCode());
+        }
+        stack.pop();
+        cached.pop();
+        assertEquals(stack.hashCode(), cached.hashCode());
+        stack.set(3, "a");
+        cached.set(3, "a");
+        assertEquals(stack.hashCode(), cached.hashCode());
+        assertEquals(stack, cached);
+        stack.add(10, "b");
+        cached.add(10, "b");
+        assertEquals(stack.hashCode(), cached.hashCode());
+        stack.remove(20);
+        cached.remove(20);
+        assertEquals(stack.hashCode(), cached.hashCode());
+        Object[] batch = {1, null, 2};
+        stack.pushAll(batch, 0, 3);
+        cached.pushAll(batch, 0, 3);
+        assertEquals(stack.hashCode(), cached.hashCode());
+        stack.popInto(batch, 0, 2);
+        cached.popInto(batch, 0, 2);
+        assertEquals(stack.hashCode(), cached.hashCode());
+        stack.removeIf(o -> o == null);
+        cached.removeIf(o -> o == null);
+        assertEquals(stack.hashCode(), cached.hashCode());
+        assertEquals(stack.subList(5, 9).hashCode(), cached.subList(5, 9).hashCode());
+        assertEquals(stack.subList(5, 9), cached.subList(5, 9));
+        assertNotEquals(stack.subList(5, 9), cached.subList(6, 10));
+        cached.subList(2, 4).clear();
+        stack.subList(2, 4).clear();
+        assertEquals(stack.hashCode(), cached.hashCode());
+
+        StackAdapter other = new StackAdapter();
+        other.enableHashCache();
+        for (int i = 0; i < cached.size(); i++)
+            other.push(cached.get(i));
+        assertEquals(cached, other);
+        other.set(0, "c");
+        assertNotEquals(cached, other);
+        cached.clear();
+        stack.clear();
+        assertEquals(stack.hashCode(), cached.hashCode());
+    }
+
+    /**
+     * Test of {@link myAdapter.StackAdapter#enableMetrics()}
+     * <p>
+     * <br><br>Summary: vengono verificati i contatori delle operazioni.
+     * <br><br>Design test: con i contatori attivi vengono eseguite operazioni di stack e modifiche in mezzo allo stack,
+     * poi viene letto uno snapshot; infine i contatori vengono azzerati e disattivati.
+     * <br><br>Description: push e pop contano un elemento ciascuno, pushAll, popInto e drainTo contano ogni elemento trasferito; drainTo
+     * verso un altro StackAdapter conta gli inserimenti anche nei contatori di quest'ultimo.
+     * <br><br>Preconditions: stack è vuoto, stackWithData contiene gli elementi da 1 a 5.
+     * <br><br>Postconditions: i contatori non modificano il contenuto dello stack.
+     * <br><br>Expected results: ogni contatore riporta il numero di operazioni eseguite; gli elementi spostati sono
+     * quelli che seguono la posizione di inserimento o rimozione.
+     */
+    @Test
+    public void testMetrics() {
+        assertNull(stack.getMetrics());
+        StackMetrics metrics = stack.enableMetrics();
+        assertSame(metrics, stack.getMetrics());
+        for (int i = 0; i < 100; i++)
+            stack.push(i);
+        stack.pop();
+        stack.peek();
+        stack.search(3);
+        stack.add(9, "x");
+        stack.remove(0);
+        stack.subList(10, 20).clear();
+        StackMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(100, snapshot.getPushes());
+        assertEquals(1, snapshot.getPops());
+        assertEquals(1, snapshot.getPeeks());
+        assertEquals(1, snapshot.getSearches());
+        assertEquals(1, snapshot.getPositionalAdds());
+        assertEquals(1, snapshot.getPositionalRemoves());
+        assertEquals(100, snapshot.getMaxDepth());
+        assertTrue(snapshot.getGrowths() > 0);
+        assertEquals(90 + 99 + 79, snapshot.getShifted());
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().getPushes());
+        stack.pushAll(new Object[] {1, 2, 3, 4}, 0, 4);
+        stack.popInto(new Object[3], 0, 3);
+        StackAdapter other = new StackAdapter();
+        StackMetrics otherMetrics = other.enableMetrics();
+        stack.drainTo(other, 2);
+        stack.drainTo(new StackAdapter().subList(0, 0), 1);
+        assertEquals(4, metrics.snapshot().getPushes());
+        assertEquals(6, metrics.snapshot().getPops());
+        assertEquals(2, otherMetrics.snapshot().getPushes());
+
+        metrics.reset();
+        stack.disableMetrics();
+        stack.push(1);
+        assertNull(stack.getMetrics());
+        assertEquals(0, metrics.snapshot().getPushes());
+
+        StackMetrics segmented = StackAdapter.segmented(16).enableMetrics();
+        assertEquals(0, segmented.snapshot().getMaxDepth());
+    }
+
+    /**
+     * Test of {@link myAdapter.StackEvents#setShiftThreshold(int)}
+     * <p>
+     * <br><br>Summary: vengono verificati gli eventi JFR emessi dallo stack.
+     * <br><br>Design test: con una registrazione JFR attiva e soglie basse vengono eseguite una crescita, un
+     * inserimento in mezzo allo stack, una search e una contains; poi la registrazione viene riletta.
+     * <br><br>Description: gli eventi di spostamento e di ricerca vengono emessi solo quando il numero di elementi coinvolti raggiunge la
+     * soglia impostata con StackEvents.
+     * <br><br>Preconditions: stack è vuoto.
+     * <br><br>Postconditions: le soglie vengono riportate ai valori predefiniti.
+     * <br><br>Expected results: la registrazione contiene un evento per tipo, con identità e profondità dello stack;
+     * le soglie non valide lanciano IllegalArgumentException.
+     */
+    @Test
+    public void testFlightRecorderEvents() throws IOException {
+        StackEvents.setShiftThreshold(10);
+        StackEvents.setSearchThreshold(20);
+        Path dump = Files.createTempFile("stack", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("myAdapter.StackResize");
+            recording.enable("myAdapter.StackShift");
+            recording.enable("myAdapter.StackSearch");
+            recording.start();
+            for (int i = 0; i < 30; i++)
+                stack.push(i);
+            stack.add(0, "x");
+            stack.search("z");
+            stack.contains("y");
+            stack.search(29);
+            recording.stop();
+            recording.dump(dump);
+
+            int expectedId = -1;
+            Map<String, Integer> counts = new HashMap<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+                String name = event.getEventType().getName();
+                if (!name.startsWith("myAdapter.")) continue;
+                counts.merge(name, 1, Integer::sum);
+                if (expectedId == -1) expectedId = event.getInt("stackId");
+                assertEquals(expectedId, event.getInt("stackId"));
+                if (name.equals("myAdapter.StackShift")) {
+                    assertEquals(30, event.getInt("shifted"));
+                    assertEquals(30, event.getInt("depth"));
+                }
+                if (name.equals("myAdapter.StackSearch")) assertEquals(31, event.getInt("scanned"));
+            }
+            assertTrue(counts.get("myAdapter.StackResize") > 0);
+            assertEquals(Integer.valueOf(1), counts.get("myAdapter.StackShift"));
+            assertEquals(Integer.valueOf(2), counts.get("myAdapter.StackSearch"));
+        } finally {
+            StackEvents.setShiftThreshold(StackEvents.DEFAULT_SHIFT_THRESHOLD);
+            StackEvents.setSearchThreshold(StackEvents.DEFAULT_SEARCH_THRESHOLD);
+            Files.delete(dump);
+        }
+        try {
+            StackEvents.setSearchThreshold(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test of {@link myAdapter.StackAdapter#writeTo(WritableByteChannel, RecordCodec)}
+     * <p>
+     * <br><br>Summary: vengono verificati writeTo e readFrom.
+     * <br><br>Design test: due stack vengono scritti uno dopo l'altro sullo stesso canale e riletti; poi vengono letti
+     * flussi troncati, corrotti o scritti con una codifica diversa; infine viene scritto uno stack grande con null in cima.
+     * <br><br>Description: ogni stack viene scritto come intestazione, numero di elementi e record codificati, dal fondo alla cima;
+     * readFrom legge tutto il flusso prima di modificare lo stack e writeTo rifiuta uno stack che contiene null prima di
+     * scrivere.
+     * <br><br>Preconditions: stack è vuoto, stackWithData contiene gli elementi da 1 a 5.
+     * <br><br>Postconditions: gli stack scritti non vengono modificati; uno stack in cui la lettura fallisce resta
+     * invariato.
+     * <br><br>Expected results: gli stack riletti sono uguali a quelli scritti; i flussi non validi lanciano
+     * IOException senza modificare lo stack.
+     */
+    @Test
+    public void testBinaryStream() throws IOException {
+        for (int i = 0; i < 300000; i++)
+            stack.push(i);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel out = Channels.newChannel(bytes);
+        assertEquals(300000, stack.writeTo(out, RecordCodec.INTEGER));
+        assertEquals(5, stackWithData.writeTo(out, RecordCodec.INTEGER));
+        assertEquals(20 + 300000 * 4 + 20 + 5 * 4, bytes.size());
+
+        ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()));
+        StackAdapter copy = new StackAdapter();
+        assertEquals(300000, copy.readFrom(in, RecordCodec.INTEGER));
+        assertEquals(stack, copy);
+        StackAdapter top = StackAdapter.segmented(4);
+        top.push(0);
+        assertEquals(5, top.readFrom(in, RecordCodec.INTEGER));
+        assertArrayEquals(new Object[]{0, 1, 2, 3, 4, 5}, top.toArray());
+
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), 20 + 1000 * 4 + 2);
+        try {
+            top.readFrom(Channels.newChannel(new ByteArrayInputStream(truncated)), RecordCodec.INTEGER);
+            fail();
+        } catch (EOFException e) {
+        }
+        assertArrayEquals(new Object[]{0, 1, 2, 3, 4, 5}, top.toArray());
+        try {
+            top.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), RecordCodec.LONG);
+            fail();
+        } catch (StreamCorruptedException e) {
+        }
+        try {
+            top.readFrom(Channels.newChannel(new ByteArrayInputStream(new byte[40])), RecordCodec.INTEGER);
+            fail();
+        } catch (StreamCorruptedException e) {
+        }
+        assertEquals(6, top.size());
+
+        for (int i = 0; i < 400000; i++)
+            top.push(i);
+        top.push(null);
+        ByteArrayOutputStream rejected = new ByteArrayOutputStream();
+        try {
+            top.writeTo(Channels.newChannel(rejected), RecordCodec.INTEGER);
+            fail();
+        } catch (NullPointerException e) {
+        }
+        assertEquals(0, rejected.size());
+    }
+
+    /**
+     * Test of {@link myAdapter.StackAdapter#snapshot()}
+     * <p>
+     * <br><br>Summary: vengono verificati PersistentStack e StackAdapter.snapshot.
+     * <br><br>Design test: vengono create più versioni di un PersistentStack con push e pop e confrontate tra loro e
+     * con uno StackAdapter; poi vengono prese istantanee di stackWithData dopo push, pop, set, add e remove in mezzo e
+     * confrontate con lo stack ricostruito da capo.
+     * <br><br>Description: le versioni di un PersistentStack condividono i nodi comuni, quindi push e pop non copiano lo stack;
+     * un'istantanea non cambia quando lo stack di partenza viene modificato.
+     * <br><br>Preconditions: stackWithData contiene gli elementi da 1 a 5.
+     * <br><br>Postconditions: le versioni e le istantanee già restituite non cambiano.
+     * <br><br>Expected results: ogni istantanea contiene gli elementi dello stack al momento in cui è stata presa e ha
+     * lo stesso hashCode; i metodi che modificano un PersistentStack lanciano UnsupportedOperationException.
+     */
+    @Test
+    public void testPersistentStack() {
+        PersistentStack empty = PersistentStack.EMPTY;
+        PersistentStack one = empty.push(1);
+        PersistentStack three = one.push(2).push(null);
+        assertTrue(empty.empty());
+        assertEquals(1, one.size());
+        assertEquals(3, three.size());
+        assertNull(three.peek());
+        assertEquals(one, three.pop().pop());
+        assertEquals(one.hashCode(), three.pop().pop().hashCode());
+        assertArrayEquals(new Object[]{1, 2, null}, three.toArray());
+        assertEquals("[1, 2, null]", three.toString());
+        assertEquals(1, three.search(null));
+        assertEquals(3, three.search(1));
+        assertEquals(-1, three.search(4));
+        assertEquals(2, three.get(1));
+        assertEquals(2, three.lastIndexOf(null));
+        assertEquals(0, three.push(1).indexOf(1));
+        assertEquals(3, three.push(1).lastIndexOf(1));
+        assertEquals(one.push(2), three.subList(0, 2));
+        assertEquals(PersistentStack.EMPTY.push(2).push(null), three.subList(1, 3));
+        HListIterator it = three.listIterator(3);
+        assertNull(it.previous());
+        assertEquals(2, it.previous());
+        try {
+            empty.pop();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+        try {
+            three.add(4);
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+        try {
+            three.iterator().remove();
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+
+        StackAdapter adapter = new StackAdapter(three);
+        assertArrayEquals(three.toArray(), adapter.toArray());
+        assertEquals(adapter.hashCode(), three.hashCode());
+        assertEquals(three, adapter.snapshot());
+        assertEquals(three, PersistentStack.of(adapter));
+
+        PersistentStack first = stackWithData.snapshot();
+        assertArrayEquals(new Object[]{1, 2, 3, 4, 5}, first.toArray());
+        assertSame(first, stackWithData.snapshot());
+        stackWithData.pop();
+        stackWithData.push(6);
+        stackWithData.push(7);
+        PersistentStack second = stackWithData.snapshot();
+        assertEquals(PersistentStack.of(stackWithData), second);
+        assertEquals(stackWithData.hashCode(), second.hashCode());
+        assertEquals(first.subList(0, 4), second.subList(0, 4));
+        stackWithData.set(1, 0);
+        stackWithData.add(3, 8);
+        PersistentStack third = stackWithData.snapshot();
+        assertArrayEquals(new Object[]{1, 0, 3, 8, 4, 6, 7}, third.toArray());
+        stackWithData.remove(2);
+        stackWithData.clear();
+        stackWithData.push(9);
+        assertEquals(PersistentStack.EMPTY.push(9), stackWithData.snapshot());
+        assertArrayEquals(new Object[]{1, 2, 3, 4, 5}, first.toArray());
+        assertArrayEquals(new Object[]{1, 2, 3, 4, 6, 7}, second.toArray());
+        assertEquals(7, third.size());
+
+        for (int i = 0; i < 10; i++)
+            stackWithData.push(i);
+        HList view = stackWithData.subList(2, 6);
+        assertEquals(PersistentStack.of(view), ((StackAdapter) view).snapshot());
+        assertArrayEquals(new Object[]{1, 2, 3, 4}, ((StackAdapter) view).snapshot().toArray());
+    }
+
+    /**
+     * Confronta i risultati di search, contains, indexOf e lastIndexOf dei due stack, per i valori da -1 a 20 e per null.
+     */
+    private static void assertSameSearches(StackAdapter expected, StackAdapter actual) {
+        assertArrayEquals(expected.toArray(), actual.toArray());
+        for (int v = -1; v <= 20; v++) {
+            Object o = v;
+            assertEquals(expected.search(o), actual.search(o));
+            assertEquals(expected.contains(o), actual.contains(o));
+            assertEquals(expected.indexOf(o), actual.indexOf(o));
+            assertEquals(expected.lastIndexOf(o), actual.lastIndexOf(o));
+        }
+        assertEquals(expected.contains(null), actual.contains(null));
+        assertEquals(expected.indexOf(null), actual.indexOf(null));
+    }
 }
@@ -25,6 +25,34 @@ public class TestRunner {
         //res = JUnitCore.runClasses(TestStackAdapter.class);
         esitoTest(res);
 
+        System.out.println("\nTest of IntStack, LongStack and DoubleStack..");
+        res = JUnitCore.runClasses(PrimitiveStackTest.class);
+        esitoTest(res);
+
+        System.out.println("\nTest of ConcurrentStackAdapter..");
+        res = JUnitCore.runClasses(ConcurrentStackAdapterTest.class);
+        esitoTest(res);
+
+        System.out.println("\nTest of CopyOnWriteStackAdapter..");
+        res = JUnitCore.runClasses(CopyOnWriteStackAdapterTest.class);
+        esitoTest(res);
+
+        System.out.println("\nTest of BlockingStackAdapter..");
+        res = JUnitCore.runClasses(BlockingStackAdapterTest.class);
+        esitoTest(res);
+
+        System.out.println("\nTest of WorkStealingStack..");
+        res = JUnitCore.runClasses(WorkStealingStackTest.class);
+        esitoTest(res);
+
+        System.out.println("\nTest of OffHeapStackAdapter..");
+        res = JUnitCore.runClasses(OffHeapStackAdapterTest.class);
+        esitoTest(res);
+
+        System.out.println("\nTest of MappedStackAdapter..");
+        res = JUnitCore.runClasses(MappedStackAdapterTest.class);
+        esitoTest(res);
+
         System.out.println("\n*** All the " + totalTests + " tests have been completed +**");
     }
 
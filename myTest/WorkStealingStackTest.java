@@ -0,0 +1,149 @@
+package myTest;
+
+import myAdapter.WorkStealingStack;
+import org.junit.Test;
+
+import java.util.EmptyStackException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Summary: questa classe testa i metodi della classe WorkStealingStack.
+ * <br><br>
+ * Design test: i metodi vengono prima verificati da un solo thread, che usa sia le operazioni del proprietario sia
+ * steal; poi il proprietario inserisce ed estrae elementi mentre altri thread li rubano.
+ * <br><br>
+ * Description: i valori inseriti sono interi appartenenti alla classe Integer, così da poter verificare facilmente
+ * che ogni elemento inserito venga ottenuto esattamente una volta, dal proprietario o da un ladro.
+ * <br><br>
+ * Preconditions:
+ * <br>Ogni test crea il proprio stack, con una capacità iniziale piccola così che l'array debba crescere.
+ * <br><br>
+ * Postconditions: i metodi implementati modificano lo stack nel modo atteso: nessun elemento viene perso o duplicato.
+ * <br><br>
+ * Execution record: ogni metodo testato è corretto se tutti i test che verificano il corretto funzionamento hanno un risultato positivo.
+ * <br><br>
+ *
+ * @see myAdapter.WorkStealingStack
+ */
+
+public class WorkStealingStackTest {
+
+    /**
+     * <br><br>Summary: vengono verificati i metodi di WorkStealingStack da un solo thread.
+     * <br><br>Design test: uno stack di capacità iniziale 2 viene riempito oltre la capacità, poi svuotato in parte con
+     * pop dalla cima e in parte con steal dal fondo.
+     * <br><br>Preconditions: lo stack è vuoto.
+     * <br><br>Postconditions: l'array cresce senza perdere elementi.
+     * <br><br>Expected results: pop restituisce gli elementi dal più recente, steal dal più vecchio; pop e peek su uno
+     * stack vuoto lanciano EmptyStackException, steal restituisce null.
+     */
+    @Test
+    public void testWorkStealingStack() {
+        WorkStealingStack deque = new WorkStealingStack(2);
+        assertTrue(deque.empty());
+        assertNull(deque.steal());
+        for (int i = 0; i < 100; i++)
+            assertEquals(i, deque.push(i));
+        assertEquals(100, deque.size());
+        assertTrue(deque.capacity() >= 100);
+        assertEquals(99, deque.peek());
+        assertEquals(99, deque.pop());
+        assertEquals(0, deque.steal());
+        assertEquals(1, deque.steal());
+        for (int i = 98; i >= 2; i--)
+            assertEquals(i, deque.pop());
+        assertTrue(deque.empty());
+        try {
+            deque.pop();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+        try {
+            deque.peek();
+            fail();
+        } catch (EmptyStackException e) {
+        }
+        deque.push(7);
+        assertEquals(7, deque.steal());
+        assertNull(deque.steal());
+        deque.push(8);
+        assertEquals(8, deque.pop());
+        try {
+            deque.push(null);
+            fail();
+        } catch (NullPointerException e) {
+        }
+        try {
+            new WorkStealingStack(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * <br><br>Summary: il proprietario di un WorkStealingStack inserisce e rimuove elementi mentre altri thread li rubano.
+     * <br><br>Design test: il proprietario inserisce valori distinti partendo da una capacità piccola, così che l'array
+     * cresca durante i furti, ed estrae un elemento ogni tre inseriti; al termine svuota lo stack.
+     * <br><br>Preconditions: lo stack è vuoto.
+     * <br><br>Postconditions: al termine lo stack è vuoto.
+     * <br><br>Expected results: ogni valore viene ottenuto esattamente una volta, dal proprietario o da un ladro.
+     */
+    @Test
+    public void testWorkStealingConcurrent() throws InterruptedException {
+        final WorkStealingStack deque = new WorkStealingStack(4);
+        final int total = 200000;
+        final int[] seen = new int[total];
+        final boolean[] done = new boolean[1];
+        final int thieves = 4;
+        final int[][] stolen = new int[thieves][];
+        Thread[] workers = new Thread[thieves];
+        for (int t = 0; t < thieves; t++) {
+            final int id = t;
+            workers[t] = new Thread() {
+                public void run() {
+                    int[] mine = new int[total];
+                    int count = 0;
+                    for (;;) {
+                        boolean finished;
+                        synchronized (done) {
+                            finished = done[0];
+                        }
+                        Object item = deque.steal();
+                        if (item != null) mine[count++] = ((Integer) item).intValue();
+                        else if (finished) break;
+                    }
+                    int[] result = new int[count];
+                    System.arraycopy(mine, 0, result, 0, count);
+                    stolen[id] = result;
+                }
+            };
+            workers[t].start();
+        }
+        for (int i = 0; i < total; i++) {
+            deque.push(i);
+            if (i % 3 == 2) {
+                try {
+                    seen[((Integer) deque.pop()).intValue()]++;
+                } catch (EmptyStackException e) {
+                }
+            }
+        }
+        while (!deque.empty()) {
+            try {
+                seen[((Integer) deque.pop()).intValue()]++;
+            } catch (EmptyStackException e) {
+            }
+        }
+        synchronized (done) {
+            done[0] = true;
+        }
+        for (int t = 0; t < thieves; t++)
+            workers[t].join();
+        for (int t = 0; t < thieves; t++)
+            for (int i = 0; i < stolen[t].length; i++)
+                seen[stolen[t][i]]++;
+        for (int i = 0; i < total; i++)
+            assertEquals(1, seen[i]);
+    }
+}
@@ -0,0 +1,18 @@
+#!/bin/sh
+# Genera le classi specializzate per i tipi primitivi a partire dai template di questa cartella.
+# Va eseguito dalla radice del repository: sh templates/generate.sh
+
+TEMPLATES=$(dirname "$0")
+OUT=myAdapter
+
+for spec in int:Int:Integer long:Long:Long double:Double:Double; do
+    type=${spec%%:*}
+    rest=${spec#*:}
+    Type=${rest%%:*}
+    Boxed=${rest#*:}
+    for template in TypeStack TypeListIterator; do
+        target=$OUT/$(echo "$template" | sed "s/^Type/$Type/").java
+        sed -e "s/#type#/$type/g" -e "s/#Type#/$Type/g" -e "s/#Boxed#/$Boxed/g" \
+            "$TEMPLATES/$template.template" > "$target"
+    done
+done